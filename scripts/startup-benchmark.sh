@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Startup benchmark: time-to-ready and first-request latency, default JVM start vs fast-startup
+# (Spring AOT context + CDS archive + warm-up). Usage: scripts/startup-benchmark.sh [runs]
+#
+# Builds with -Pfast-startup, extracts the jar, does a CDS training run, then starts each mode
+# `runs` times. "ready" = launch until GET /api/health/readiness returns 200;
+# "first"/"second" = latency of the first two POST /api/logs/analyze calls right after that.
+# Unset HF_TOKEN to measure the rule-based path only.
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-18090}
+cd "$(dirname "$0")/.."
+
+sh ./mvnw -q -DskipTests -Pfast-startup package
+JAR=$(ls target/log-triage-service-*.jar | grep -v original | head -n1)
+
+rm -rf target/extracted
+java -Djarmode=tools -jar "$JAR" extract --destination target/extracted
+APP=target/extracted/$(basename "$JAR")
+
+# CDS training run: start, warm up, exit; the loaded classes are dumped into app.jsa
+java -XX:ArchiveClassesAtExit=target/extracted/app.jsa -Dspring.aot.enabled=true \
+     -Dwarmup.exit-when-done=true -Dserver.port="$PORT" -jar "$APP" > target/cds-training.log 2>&1
+
+PAYLOAD=$(mktemp)
+python3 - "$PAYLOAD" <<'PY'
+import json, pathlib, sys
+logs = "\n".join(p.read_text() for p in sorted(pathlib.Path("fixtures").glob("*.log")))
+json.dump({"logContent": logs}, open(sys.argv[1], "w"))
+PY
+
+now_ms() { date +%s%3N; }
+
+run() {
+  local label=$1; shift
+  local start pid ready first second
+  start=$(now_ms)
+  # system properties go before -jar: after it they would be program arguments
+  java -Dserver.port="$PORT" "$@" > target/startup-bench.log 2>&1 &
+  pid=$!
+  until [ "$(curl -s -o /dev/null -w '%{http_code}' "localhost:$PORT/api/health/readiness")" = "200" ]; do
+    if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_ms) - start )) -gt 120000 ]; then
+      echo "$label: not ready after $(( ($(now_ms) - start) / 1000 )) s, see target/startup-bench.log" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 0.02
+  done
+  ready=$(( $(now_ms) - start ))
+  first=$(curl -s -o /dev/null -w '%{time_total}' -X POST "localhost:$PORT/api/logs/analyze" \
+          -H 'Content-Type: application/json' --data-binary @"$PAYLOAD")
+  second=$(curl -s -o /dev/null -w '%{time_total}' -X POST "localhost:$PORT/api/logs/analyze" \
+          -H 'Content-Type: application/json' --data-binary @"$PAYLOAD")
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  awk -v l="$label" -v r="$ready" -v f="$first" -v s="$second" \
+      'BEGIN { printf "%-14s ready=%6d ms  first=%6.0f ms  second=%6.0f ms\n", l, r, f * 1000, s * 1000 }'
+}
+
+for _ in $(seq "$RUNS"); do
+  run default      -Dwarmup.enabled=false -jar "$JAR"
+  run fast-startup -XX:SharedArchiveFile=target/extracted/app.jsa -Dspring.aot.enabled=true -jar "$APP"
+done
+
+rm -f "$PAYLOAD"
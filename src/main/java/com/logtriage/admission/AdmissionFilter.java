@@ -0,0 +1,152 @@
+package com.logtriage.admission;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Node-wide admission control for the analysis endpoints (POST /api/logs/**), on top of the per-IP rate limit.
+// Requests are split by payload size into two lanes with their own concurrency and queue, so a few
+// large uploads can't take the CPU and heap that small pastes need. Whatever can't be admitted
+// before the lane's deadline is shed with 503 and Retry-After.
+// Small = a JSON paste: known Content-Length up to admission.small-max-size and not compressed. Everything
+// else goes to the large lane: chunked bodies, gzip bodies that inflate, multipart uploads (a small .gz or
+// .zip file can inflate to upload.max-decompressed-size), diffs and correlations (several logs at once).
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final long smallMaxBytes;
+    private final AdmissionLane small;
+    private final AdmissionLane large;
+
+    public AdmissionFilter(
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.small-max-size:256KB}") DataSize smallMaxSize,
+            @Value("${admission.small.max-concurrent:0}") int smallConcurrent,
+            @Value("${admission.small.max-queue:64}") int smallQueue,
+            @Value("${admission.small.max-wait:2s}") Duration smallWait,
+            @Value("${admission.large.max-concurrent:0}") int largeConcurrent,
+            @Value("${admission.large.max-queue:8}") int largeQueue,
+            @Value("${admission.large.max-wait:10s}") Duration largeWait
+    ) {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        this.enabled = enabled;
+        this.smallMaxBytes = smallMaxSize.toBytes();
+        // 0 = sized from the CPU count
+        this.small = new AdmissionLane("small", smallConcurrent > 0 ? smallConcurrent : cpus, smallQueue, smallWait);
+        this.large = new AdmissionLane("large", largeConcurrency(largeConcurrent), largeQueue, largeWait);
+    }
+
+    // admission.large.max-concurrent as configured, or sized from the CPU count (0); also sizes work
+    // that runs beside large requests (e.g. the diff pool)
+    public static int largeConcurrency(int configured) {
+        return configured > 0 ? configured : Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) return true;
+        String path = request.getRequestURI();
+        return !HttpMethod.POST.matches(request.getMethod()) || path == null || !path.startsWith("/api/logs/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest req,
+            HttpServletResponse res,
+            FilterChain chain
+    ) throws ServletException, IOException {
+
+        AdmissionLane lane = laneFor(req);
+        long admittedAt;
+        try {
+            admittedAt = lane.acquire();
+        } catch (AdmissionRejectedException e) {
+            reject(res, e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(res, new AdmissionRejectedException("Server is shutting down.", 1));
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(req, res);
+        } finally {
+            if (req.isAsyncStarted()) {
+                // streamed responses (SSE) hold the slot until the async request completes
+                req.getAsyncContext().addListener(new ReleaseOnComplete(lane, admittedAt, released));
+            } else if (released.compareAndSet(false, true)) {
+                lane.release(admittedAt);
+            }
+        }
+    }
+
+    AdmissionLane laneFor(HttpServletRequest req) {
+        long length = req.getContentLengthLong();
+        boolean compressed = req.getHeader(HttpHeaders.CONTENT_ENCODING) != null;
+        String contentType = req.getContentType();
+        boolean multipart = contentType != null
+                && contentType.regionMatches(true, 0, MediaType.MULTIPART_FORM_DATA_VALUE, 0, MediaType.MULTIPART_FORM_DATA_VALUE.length());
+        String path = req.getRequestURI();
+        boolean severalLogs = path.startsWith("/api/logs/diff") || path.startsWith("/api/logs/correlate");
+        return length >= 0 && length <= smallMaxBytes && !compressed && !multipart && !severalLogs ? small : large;
+    }
+
+    private static void reject(HttpServletResponse res, AdmissionRejectedException e) throws IOException {
+        res.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        res.setCharacterEncoding("UTF-8");
+        res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+
+        res.getWriter().write("""
+            {
+              "error": "OVERLOADED",
+              "message": "%s",
+              "retryAfterSeconds": %d
+            }
+            """.formatted(e.getMessage(), e.getRetryAfterSeconds()));
+    }
+
+    private record ReleaseOnComplete(AdmissionLane lane, long admittedAt, AtomicBoolean released) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) lane.release(admittedAt);
+        }
+    }
+}
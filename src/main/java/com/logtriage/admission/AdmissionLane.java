@@ -0,0 +1,85 @@
+package com.logtriage.admission;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One admission lane: at most maxConcurrent requests run, at most maxQueue wait (FIFO) for up to maxWait.
+// A request is shed up front, without waiting, when the queue is full or when the queue ahead of it
+// would take longer than maxWait to drain at the lane's recent service time (EWMA); otherwise
+// it is shed when its wait runs out. Either way the caller gets a Retry-After estimate.
+public class AdmissionLane {
+
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile double serviceNanos;
+
+    public AdmissionLane(String name, int maxConcurrent, int maxQueue, Duration maxWait) {
+        if (maxConcurrent < 1) throw new IllegalArgumentException("Admission lane " + name + " needs max-concurrent >= 1");
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    // Blocks until admitted; pair every successful call with release(). Returns the admission time (nanoTime).
+    public long acquire() throws InterruptedException {
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) return System.nanoTime();
+
+        int ahead = waiting.incrementAndGet() - 1;
+        try {
+            if (ahead >= maxQueue) {
+                throw rejected("queue is full", expectedWaitNanos(ahead));
+            }
+            long expected = expectedWaitNanos(ahead);
+            if (expected > maxWaitNanos) {
+                throw rejected("expected wait exceeds the deadline", expected);
+            }
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw rejected("deadline exceeded while queued", expectedWaitNanos(waiting.get() - 1));
+            }
+            return System.nanoTime();
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release(long admittedAtNanos) {
+        long took = System.nanoTime() - admittedAtNanos;
+        synchronized (this) {
+            serviceNanos = serviceNanos == 0 ? took : serviceNanos + EWMA_ALPHA * (took - serviceNanos);
+        }
+        permits.release();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int queued() {
+        return waiting.get();
+    }
+
+    // time for the requests ahead plus the running ones to clear, at the recent service time
+    private long expectedWaitNanos(int ahead) {
+        return (long) ((ahead + 1) * serviceNanos / maxConcurrent);
+    }
+
+    private AdmissionRejectedException rejected(String reason, long expectedWaitNanos) {
+        long retryAfter = Math.max(1, (long) Math.ceil(expectedWaitNanos / 1e9));
+        return new AdmissionRejectedException("Server is busy (" + name + " lane: " + reason + "). Please retry later.", retryAfter);
+    }
+}
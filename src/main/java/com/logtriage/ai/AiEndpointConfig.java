@@ -0,0 +1,18 @@
+package com.logtriage.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One OpenAI-compatible chat endpoint (ai.remote.endpoints[n]). The API key is read from the
+// environment variable named by apiKeyEnv on every request; blank = no Authorization header
+// (local / self-hosted servers).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AiEndpointConfig {
+    private String name;
+    private String baseUrl;
+    private String model;
+    private String apiKeyEnv;
+}
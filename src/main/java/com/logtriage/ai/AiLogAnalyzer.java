@@ -1,27 +1,298 @@
 package com.logtriage.ai;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logtriage.model.AiInsight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
+// In-process incident classifier: hashed TF-IDF features + nearest centroid (cosine similarity),
+// trained at startup from a labeled corpus of past incidents (JSON lines:
+// {"label", "summary", "likelyCause", "nextSteps": [...], "log"}; several lines may share a label).
+// Prediction is a few hundred array lookups per label, so it runs well under a millisecond.
+@Component
 public class AiLogAnalyzer {
 
+    public static final String MODEL_NAME = "tfidf-centroid";
+
+    private static final int DIM_BITS = 15;
+    private static final int DIM = 1 << DIM_BITS;
+
+    // big logs: classify the error-looking lines, up to this many chars
+    private static final int MAX_INPUT_CHARS = 8000;
+    private static final String[] ERROR_MARKERS = {"ERROR", "FATAL", "WARN", "Exception", "Error", "Caused by"};
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "at", "in", "on", "of", "to", "for", "the", "and", "is", "was", "be", "by", "with", "from", "after",
+            "java", "javax", "com", "org", "net", "io", "lang", "util", "base", "internal", "sun", "jdk",
+            "myapp", "example", "native", "method", "source", "unknown"
+    );
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final String[] labels;
+    private final AiInsight[] insights;
+    private final float[][] centroids;
+    private final float[] idf;
+
+    public AiLogAnalyzer(@Value("${ai.local.corpus:classpath:incidents/corpus.jsonl}") Resource corpus) throws IOException {
+        Map<String, AiInsight> byLabel = new LinkedHashMap<>();
+        List<String> docLabels = new ArrayList<>();
+        List<String> docTexts = new ArrayList<>();
+
+        if (corpus.exists()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(corpus.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JsonNode n = mapper.readTree(line);
+                    String label = n.path("label").asText(null);
+                    String log = n.path("log").asText(null);
+                    if (label == null || log == null) {
+                        throw new IllegalArgumentException("Corpus entry needs 'label' and 'log': " + corpus.getDescription());
+                    }
+                    byLabel.computeIfAbsent(label, l -> insightOf(n));
+                    docLabels.add(label);
+                    docTexts.add(log);
+                }
+            }
+        }
+
+        this.labels = byLabel.keySet().toArray(new String[0]);
+        this.insights = byLabel.values().toArray(new AiInsight[0]);
+        this.idf = new float[DIM];
+        this.centroids = new float[labels.length][DIM];
+        train(docLabels, docTexts);
+    }
+
+    // Best matching incident class, or null when no corpus is loaded.
+    public LocalPrediction classify(String log) {
+        if (labels.length == 0 || log == null) return null;
+
+        SparseVector doc = vectorize(excerpt(log));
+        if (doc.size == 0) {
+            return new LocalPrediction(labels[0], 0.0, 0.0, insights[0]);
+        }
+
+        int best = 0;
+        double bestScore = -1;
+        double second = 0;
+        for (int c = 0; c < labels.length; c++) {
+            float[] centroid = centroids[c];
+            double score = 0;
+            for (int i = 0; i < doc.size; i++) {
+                score += doc.weights[i] * centroid[doc.buckets[i]];
+            }
+            if (score > bestScore) {
+                second = Math.max(bestScore, 0);
+                bestScore = score;
+                best = c;
+            } else if (score > second) {
+                second = score;
+            }
+        }
+        return new LocalPrediction(labels[best], bestScore, bestScore - second, insights[best]);
+    }
+
     public AiInsight analyzeWithAi(String log) {
-        // MOCK AI (ileride OpenAI / HF bağlanır)
-        // Burada exception fırlatabilirsin test için
-        if (log.length() > 10_000) {
-            throw new RuntimeException("AI input too large");
-        }
-
-        return new AiInsight(
-                "AI analysis suggests a database-related incident impacting request processing.",
-                "Primary issue appears to be database connectivity instability, causing cascading timeouts and application errors.",
-                List.of(
-                        "Verify database health and connection pool metrics.",
-                        "Check if recent deployments affected DB credentials or network rules.",
-                        "Monitor retry and timeout configuration for dependent services.",
-                        "Review application logs around the first occurrence timestamp."
-                )
-        );
+        LocalPrediction p = classify(log);
+        if (p == null) throw new IllegalStateException("Local incident model has no training corpus");
+        return p.getInsight();
+    }
+
+    public int labelCount() {
+        return labels.length;
+    }
+
+    // ---- training ----
+
+    private void train(List<String> docLabels, List<String> docTexts) {
+        int n = docTexts.size();
+        if (n == 0) return;
+
+        List<int[]> features = new ArrayList<>(n);
+        int[] df = new int[DIM];
+        for (String text : docTexts) {
+            int[] f = hashedFeatures(text);
+            features.add(f);
+            for (int i = 0; i < f.length; i += 2) df[f[i]]++;
+        }
+        for (int b = 0; b < DIM; b++) {
+            idf[b] = (float) (Math.log((n + 1.0) / (df[b] + 1.0)) + 1.0);
+        }
+
+        Map<String, Integer> index = new HashMap<>();
+        for (int c = 0; c < labels.length; c++) index.put(labels[c], c);
+
+        for (int d = 0; d < n; d++) {
+            SparseVector v = weigh(features.get(d));
+            float[] centroid = centroids[index.get(docLabels.get(d))];
+            for (int i = 0; i < v.size; i++) centroid[v.buckets[i]] += v.weights[i];
+        }
+        for (float[] centroid : centroids) normalize(centroid);
+    }
+
+    private static AiInsight insightOf(JsonNode n) {
+        List<String> steps = new ArrayList<>();
+        n.path("nextSteps").forEach(s -> steps.add(s.asText()));
+        return new AiInsight(n.path("summary").asText(null), n.path("likelyCause").asText(null), steps);
+    }
+
+    // ---- features ----
+
+    private static final class SparseVector {
+        int[] buckets;
+        float[] weights;
+        int size;
+    }
+
+    private SparseVector vectorize(String text) {
+        return weigh(hashedFeatures(text));
+    }
+
+    // (1 + ln tf) * idf, L2-normalized
+    private SparseVector weigh(int[] bucketCounts) {
+        SparseVector v = new SparseVector();
+        v.size = bucketCounts.length / 2;
+        v.buckets = new int[v.size];
+        v.weights = new float[v.size];
+
+        double norm = 0;
+        for (int i = 0; i < v.size; i++) {
+            int b = bucketCounts[2 * i];
+            float w = (float) ((1 + Math.log(bucketCounts[2 * i + 1])) * idf[b]);
+            v.buckets[i] = b;
+            v.weights[i] = w;
+            norm += (double) w * w;
+        }
+        if (norm > 0) {
+            float inv = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < v.size; i++) v.weights[i] *= inv;
+        }
+        return v;
+    }
+
+    // Distinct feature buckets with their counts, flattened as [bucket, count, bucket, count, ...].
+    // Features: lower-cased word tokens, the parts of CamelCase tokens, word bigrams and 3-digit codes
+    // (HTTP status / exit codes). Tokens mixing letters and digits (ids, hosts) are dropped.
+    private static int[] hashedFeatures(String text) {
+        int[] raw = new int[64];
+        int n = 0;
+
+        String previous = null;
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean letters = false;
+            boolean digits = false;
+            while (i < len && Character.isLetterOrDigit(text.charAt(i))) {
+                if (Character.isDigit(text.charAt(i))) digits = true;
+                else letters = true;
+                i++;
+            }
+            String token = text.substring(start, i);
+
+            if (!letters) {
+                if (token.length() == 3) {
+                    if (n + 1 > raw.length) raw = Arrays.copyOf(raw, raw.length * 2);
+                    raw[n++] = bucket("#" + token);
+                }
+                continue;
+            }
+            if (digits) continue;
+
+            String lower = token.toLowerCase(Locale.ROOT);
+            if (lower.length() < 2 || STOPWORDS.contains(lower)) continue;
+
+            if (n + 8 > raw.length) raw = Arrays.copyOf(raw, raw.length * 2);
+            raw[n++] = bucket(lower);
+            if (previous != null) raw[n++] = bucket(previous + ' ' + lower);
+            previous = lower;
+
+            // CamelCase parts: SocketTimeoutException -> socket, timeout, exception
+            int partStart = 0;
+            for (int k = 1; k <= token.length(); k++) {
+                if (k == token.length() || (Character.isUpperCase(token.charAt(k)) && Character.isLowerCase(token.charAt(k - 1)))) {
+                    if (partStart > 0 || k < token.length()) {
+                        String part = token.substring(partStart, k).toLowerCase(Locale.ROOT);
+                        if (part.length() >= 3 && !STOPWORDS.contains(part)) {
+                            if (n + 1 > raw.length) raw = Arrays.copyOf(raw, raw.length * 2);
+                            raw[n++] = bucket(part);
+                        }
+                    }
+                    partStart = k;
+                }
+            }
+        }
+
+        Arrays.sort(raw, 0, n);
+        int[] out = new int[2 * n];
+        int m = 0;
+        for (int k = 0; k < n; ) {
+            int b = raw[k];
+            int count = 0;
+            while (k < n && raw[k] == b) {
+                count++;
+                k++;
+            }
+            out[m++] = b;
+            out[m++] = count;
+        }
+        return Arrays.copyOf(out, m);
+    }
+
+    private static int bucket(String feature) {
+        int h = feature.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h & (DIM - 1);
+    }
+
+    private static void normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) norm += (double) x * x;
+        if (norm == 0) return;
+        float inv = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < v.length; i++) v[i] *= inv;
+    }
+
+    // Whole log if small; otherwise the lines that look like errors, up to MAX_INPUT_CHARS.
+    // Each marker's next occurrence is cached, so the log is scanned once per marker.
+    static String excerpt(String log) {
+        if (log.length() <= MAX_INPUT_CHARS) return log;
+
+        int[] next = new int[ERROR_MARKERS.length];
+        for (int m = 0; m < next.length; m++) next[m] = log.indexOf(ERROR_MARKERS[m]);
+
+        StringBuilder sb = new StringBuilder(MAX_INPUT_CHARS);
+        int pos = 0;
+        while (sb.length() < MAX_INPUT_CHARS) {
+            int hit = -1;
+            for (int m = 0; m < next.length; m++) {
+                if (next[m] >= 0 && next[m] < pos) next[m] = log.indexOf(ERROR_MARKERS[m], pos);
+                if (next[m] >= 0 && (hit < 0 || next[m] < hit)) hit = next[m];
+            }
+            if (hit < 0) break;
+
+            int start = log.lastIndexOf('\n', hit) + 1;
+            int end = log.indexOf('\n', hit);
+            if (end < 0) end = log.length();
+            sb.append(log, start, Math.min(end, start + MAX_INPUT_CHARS - sb.length())).append('\n');
+            pos = end + 1;
+        }
+        return sb.length() > 0 ? sb.toString() : log.substring(0, MAX_INPUT_CHARS);
     }
 }
@@ -0,0 +1,19 @@
+package com.logtriage.ai;
+
+public enum AiMode {
+    // local classifier first, remote LLM only when its confidence is below the threshold
+    LOCAL_FIRST,
+    // local classifier only, never calls out
+    LOCAL,
+    // remote LLM first, local classifier when it fails
+    REMOTE;
+
+    public static AiMode parse(String value) {
+        if (value == null || value.isBlank()) return LOCAL_FIRST;
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported ai mode: " + value + " (expected local-first, local or remote)");
+        }
+    }
+}
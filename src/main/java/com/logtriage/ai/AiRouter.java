@@ -0,0 +1,249 @@
+package com.logtriage.ai;
+
+import com.logtriage.model.AiEndpointStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Sends each remote AI request to the best of several OpenAI-compatible endpoints (ai.remote.endpoints;
+// without that list, the single hf.* endpoint), ranked by EWMA latency and success rate (EndpointStats).
+// If the first insight hasn't arrived within ai.remote.hedge-percentile of the endpoint's recent latencies
+// (ai.remote.hedge-delay until it has enough samples), or the request fails first, a second request goes
+// to the next-best endpoint; the first insight wins and the other request is cancelled.
+// All endpoints share one connection pool, opened at startup (ai.remote.prewarm-connections per endpoint).
+// hf.timeout-seconds bounds the whole answer, hedge included; each endpoint also gives up on a stream that
+// stalls for that long between chunks.
+@Slf4j
+@Component
+public class AiRouter {
+
+    // fewer samples than this: the percentile is too noisy, hedge after hedge-delay
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
+    private final List<Route> routes = new ArrayList<>();
+    private final ConnectionProvider connections;
+    private final HttpClient httpClient;
+    private final boolean remoteEnabled;
+    private final int prewarmConnections;
+    private final double hedgePercentile;
+    private final Duration hedgeDelay;
+    private final Duration timeout;
+
+    public AiRouter(
+            WebClient.Builder builder,
+            Environment environment,
+            @Value("${ai.mode:local-first}") String aiMode,
+            @Value("${hf.timeout-seconds:25}") int timeoutSeconds,
+            @Value("${ai.remote.max-connections:16}") int maxConnections,
+            @Value("${ai.remote.prewarm-connections:2}") int prewarmConnections,
+            @Value("${ai.remote.hedge-percentile:95}") double hedgePercentile,
+            @Value("${ai.remote.hedge-delay:2s}") Duration hedgeDelay,
+            @Value("${ai.remote.stats-decay:60s}") Duration statsDecay
+    ) {
+        Duration timeout = Duration.ofSeconds(timeoutSeconds);
+        this.timeout = timeout;
+        this.remoteEnabled = AiMode.parse(aiMode) != AiMode.LOCAL;
+        this.prewarmConnections = Math.min(prewarmConnections, maxConnections);
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeDelay = hedgeDelay;
+
+        // one pool per remote address, max-connections each; idle ones are closed before
+        // typical load balancer idle timeouts (60s) so a pooled connection is rarely stale
+        this.connections = ConnectionProvider.builder("ai-endpoints")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofSeconds(50))
+                .pendingAcquireTimeout(timeout)
+                .build();
+        this.httpClient = HttpClient.create(connections);
+        ReactorClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
+
+        Set<String> names = new HashSet<>();
+        for (AiEndpointConfig endpoint : endpoints(environment)) {
+            if (isBlank(endpoint.getName()) || isBlank(endpoint.getBaseUrl()) || isBlank(endpoint.getModel())) {
+                throw new IllegalArgumentException("ai.remote.endpoints entries need name, base-url and model: " + endpoint);
+            }
+            if (!names.add(endpoint.getName())) {
+                throw new IllegalArgumentException("Duplicate AI endpoint name: " + endpoint.getName());
+            }
+            WebClient webClient = builder.clone().clientConnector(connector).baseUrl(endpoint.getBaseUrl()).build();
+            routes.add(new Route(
+                    new OpenAiChatClient(endpoint, webClient, timeout),
+                    new EndpointStats(statsDecay.toNanos(), timeout.toMillis())));
+        }
+    }
+
+    public RoutedInsight analyze(String logContent) {
+        RoutedInsight last = analyzeStream(logContent).blockLast();
+        if (last == null) throw new IllegalStateException("AI endpoint returned no content");
+        return last;
+    }
+
+    // Partial insights as the winning endpoint streams them (see OpenAiChatClient.analyzeStream).
+    public Flux<RoutedInsight> analyzeStream(String logContent) {
+        return Flux.defer(() -> {
+            // the same instant for every insight: a stream that keeps trickling is cut too
+            Mono<Long> deadline = Mono.delay(timeout).cache();
+            return routed(logContent)
+                    .timeout(deadline, insight -> deadline)
+                    .onErrorMap(TimeoutException.class,
+                            e -> new IllegalStateException("No complete AI answer within " + timeout.toSeconds() + "s"));
+        });
+    }
+
+    private Flux<RoutedInsight> routed(String logContent) {
+        return Flux.defer(() -> {
+            List<Route> ranked = ranked();
+            Route primary = ranked.get(0);
+            if (ranked.size() < 2 || hedgePercentile <= 0) {
+                return attempt(primary, logContent, false, new ArrayList<>());
+            }
+
+            Route backup = ranked.get(1);
+            List<String> errors = Collections.synchronizedList(new ArrayList<>());
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+
+            Flux<RoutedInsight> first = attempt(primary, logContent, false, errors)
+                    .doOnError(e -> primaryFailed.tryEmitEmpty());
+            Flux<RoutedInsight> hedge = Mono.firstWithSignal(Mono.delay(hedgeAfter(primary)).then(), primaryFailed.asMono())
+                    .thenMany(attempt(backup, logContent, true, errors));
+
+            // firstWithValue relays whichever emits first and cancels the other
+            return Flux.firstWithValue(first, hedge)
+                    .onErrorMap(NoSuchElementException.class,
+                            e -> new IllegalStateException("All AI endpoints failed: " + String.join("; ", errors)));
+        });
+    }
+
+    // provider reported while no endpoint has answered (fallbacks, errors)
+    public String defaultProvider() {
+        return routes.get(0).client.getEndpoint().getName();
+    }
+
+    public List<AiEndpointStatus> status() {
+        List<AiEndpointStatus> status = new ArrayList<>();
+        for (Route route : ranked()) {
+            AiEndpointConfig endpoint = route.client.getEndpoint();
+            EndpointStats.Snapshot s = route.stats.snapshot();
+            status.add(new AiEndpointStatus(endpoint.getName(), endpoint.getModel(), endpoint.getBaseUrl(),
+                    Math.round(route.stats.score() * 10) / 10.0, s.latencyMs(), s.successRate(),
+                    hedgeAfter(route).toMillis(), s.samples(), s.requests(), s.failures(), s.hedgesSent(), s.hedgesWon()));
+        }
+        return status;
+    }
+
+    // Non-blocking: the connections open while the analyzer warm-up runs.
+    @EventListener(ApplicationStartedEvent.class)
+    public void prewarmOnStartup() {
+        if (remoteEnabled && prewarmConnections > 0) {
+            prewarm().subscribe();
+        }
+    }
+
+    // Opens prewarmConnections pooled connections per endpoint (concurrent GET /models; any HTTP status
+    // will do), so the first analyses skip DNS, TCP and TLS setup. Unreachable endpoints are only logged.
+    public Mono<Void> prewarm() {
+        return httpClient.warmup().thenMany(Flux.fromIterable(routes).flatMap(route -> {
+            String name = route.client.getEndpoint().getName();
+            long start = System.nanoTime();
+            return Flux.range(0, prewarmConnections)
+                    .flatMap(i -> route.client.ping())
+                    .then(Mono.fromRunnable(() -> log.info("AI endpoint {}: {} connections opened in {} ms",
+                            name, prewarmConnections, elapsedMs(start))))
+                    .onErrorResume(e -> {
+                        log.warn("AI endpoint {} not reachable at startup: {}", name, e.getMessage());
+                        return Mono.empty();
+                    });
+        })).then();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.dispose();
+    }
+
+    private Flux<RoutedInsight> attempt(Route route, String logContent, boolean hedged, List<String> errors) {
+        return Flux.defer(() -> {
+            AiEndpointConfig endpoint = route.client.getEndpoint();
+            EndpointStats stats = route.stats;
+            stats.started(hedged);
+            long start = System.nanoTime();
+            AtomicBoolean answered = new AtomicBoolean();
+
+            return route.client.analyzeStream(logContent)
+                    .doOnNext(insight -> {
+                        if (answered.compareAndSet(false, true)) stats.firstInsight(elapsedMs(start), hedged);
+                    })
+                    .doOnComplete(stats::succeeded)
+                    .doOnError(e -> {
+                        stats.failed();
+                        errors.add(endpoint.getName() + ": " + e.getMessage());
+                    })
+                    .doOnCancel(() -> {
+                        if (!answered.get()) stats.lostRace(elapsedMs(start));
+                    })
+                    .map(insight -> new RoutedInsight(endpoint.getName(), endpoint.getModel(), insight, hedged));
+        });
+    }
+
+    private List<Route> ranked() {
+        List<Route> ranked = new ArrayList<>(routes);
+        // stable: ties keep the configured order
+        ranked.sort(Comparator.comparingDouble(route -> route.stats.score()));
+        return ranked;
+    }
+
+    private Duration hedgeAfter(Route route) {
+        long p = route.stats.percentile(hedgePercentile, MIN_HEDGE_SAMPLES);
+        return p < 0 ? hedgeDelay : Duration.ofMillis(Math.max(1, p));
+    }
+
+    private static List<AiEndpointConfig> endpoints(Environment environment) {
+        List<AiEndpointConfig> configured = Binder.get(environment)
+                .bind("ai.remote.endpoints", Bindable.listOf(AiEndpointConfig.class))
+                .orElse(List.of());
+        if (!configured.isEmpty()) return configured;
+
+        // no list configured: the Hugging Face router of the hf.* settings
+        return List.of(new AiEndpointConfig(
+                "huggingface",
+                environment.getProperty("hf.base-url", "https://router.huggingface.co/v1"),
+                environment.getProperty("hf.router-model", "meta-llama/Meta-Llama-3-8B-Instruct"),
+                "HF_TOKEN"));
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private record Route(OpenAiChatClient client, EndpointStats stats) {
+    }
+}
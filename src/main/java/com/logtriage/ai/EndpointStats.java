@@ -0,0 +1,104 @@
+package com.logtriage.ai;
+
+import java.util.Arrays;
+
+// Latency and success rate of one AI endpoint, as seen by AiRouter.
+// Latency = time to the first insight (what a streaming caller waits for), kept as an EWMA for ranking
+// and as the last SAMPLES values for the hedge percentile. Both EWMAs fade with idle time, so an
+// endpoint that was slow or failing is tried again after a while instead of being starved forever.
+class EndpointStats {
+
+    private static final double ALPHA = 0.3;
+    private static final int SAMPLES = 128;
+    // below this success rate an endpoint is as bad as a timeout on every call
+    private static final double MIN_SUCCESS = 0.01;
+
+    private final long decayNanos;
+    private final double failurePenaltyMs;
+
+    private double latencyEwma = -1;
+    private double successEwma = 1;
+    private long lastUpdate = System.nanoTime();
+
+    private final long[] recent = new long[SAMPLES];
+    private int recentCount;
+    private int recentNext;
+
+    private long requests;
+    private long failures;
+    private long hedgesSent;
+    private long hedgesWon;
+
+    EndpointStats(long decayNanos, double failurePenaltyMs) {
+        this.decayNanos = Math.max(1, decayNanos);
+        this.failurePenaltyMs = failurePenaltyMs;
+    }
+
+    synchronized void started(boolean hedged) {
+        requests++;
+        if (hedged) hedgesSent++;
+    }
+
+    synchronized void firstInsight(long latencyMs, boolean hedged) {
+        latencyEwma = latencyEwma < 0 ? latencyMs : ALPHA * latencyMs + (1 - ALPHA) * latencyEwma;
+        recent[recentNext] = latencyMs;
+        recentNext = (recentNext + 1) % SAMPLES;
+        recentCount = Math.min(recentCount + 1, SAMPLES);
+        if (hedged) hedgesWon++;
+        lastUpdate = System.nanoTime();
+    }
+
+    // Cancelled before its first insight (lost a hedge race): the latency is at least waitedMs.
+    // Only counted when that raises the estimate, a lower bound below it says nothing.
+    synchronized void lostRace(long waitedMs) {
+        if (waitedMs > latencyEwma) {
+            latencyEwma = latencyEwma < 0 ? waitedMs : ALPHA * waitedMs + (1 - ALPHA) * latencyEwma;
+            lastUpdate = System.nanoTime();
+        }
+    }
+
+    synchronized void succeeded() {
+        successEwma = ALPHA + (1 - ALPHA) * successEwma;
+        lastUpdate = System.nanoTime();
+    }
+
+    synchronized void failed() {
+        failures++;
+        successEwma = (1 - ALPHA) * successEwma;
+        lastUpdate = System.nanoTime();
+    }
+
+    // Expected cost of a request in ms, lower is better: latency stretched by the failure rate,
+    // plus the failure rate times a timeout. Unmeasured endpoints score 0 and are tried first.
+    synchronized double score() {
+        double freshness = freshness();
+        double latency = Math.max(0, latencyEwma) * freshness;
+        double success = Math.max(MIN_SUCCESS, 1 - (1 - successEwma) * freshness);
+        return latency / success + (1 - success) * failurePenaltyMs;
+    }
+
+    // the p-th percentile of recent first-insight latencies, or -1 with fewer than minSamples
+    synchronized long percentile(double p, int minSamples) {
+        if (recentCount < Math.max(1, minSamples)) return -1;
+        long[] sorted = Arrays.copyOf(recent, recentCount);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100.0 * recentCount) - 1;
+        return sorted[Math.max(0, Math.min(recentCount - 1, rank))];
+    }
+
+    synchronized Snapshot snapshot() {
+        double freshness = freshness();
+        return new Snapshot(
+                latencyEwma < 0 ? null : Math.round(latencyEwma * freshness),
+                Math.round((1 - (1 - successEwma) * freshness) * 1000) / 1000.0,
+                recentCount, requests, failures, hedgesSent, hedgesWon);
+    }
+
+    private double freshness() {
+        return Math.exp(-(double) (System.nanoTime() - lastUpdate) / decayNanos);
+    }
+
+    record Snapshot(Long latencyMs, double successRate, int samples,
+                    long requests, long failures, long hedgesSent, long hedgesWon) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.logtriage.ai;
+
+import com.logtriage.model.AiInsight;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Result of the in-process classifier. confidence = cosine similarity to the label's centroid (0..1),
+// margin = distance to the runner-up label.
+@Data
+@AllArgsConstructor
+public class LocalPrediction {
+    private String label;
+    private double confidence;
+    private double margin;
+    private AiInsight insight;
+}
@@ -0,0 +1,185 @@
+package com.logtriage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logtriage.model.AiInsight;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Streaming chat completions against one OpenAI-compatible endpoint (HF Router, vLLM, Ollama, ...).
+// Created by AiRouter, one per configured endpoint, all sharing its connection pool.
+public class OpenAiChatClient {
+
+    private static final int MAX_STEPS = 5;
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final AiEndpointConfig endpoint;
+    private final Duration timeout;
+
+    public OpenAiChatClient(AiEndpointConfig endpoint, WebClient webClient, Duration timeout) {
+        this.endpoint = endpoint;
+        this.webClient = webClient;
+        this.timeout = timeout;
+    }
+
+    public AiEndpointConfig getEndpoint() {
+        return endpoint;
+    }
+
+    // Emits a partial insight each time a section (summary, cause, step) is complete,
+    // then the final insight. The upstream stream is cancelled once MAX_STEPS steps are parsed.
+    public Flux<AiInsight> analyzeStream(String logContent) {
+        return Flux.defer(() -> {
+            String token = apiKey();
+            if (token != null && token.isBlank()) {
+                return Flux.error(new IllegalStateException(
+                        endpoint.getApiKeyEnv() + " env var is missing (AI endpoint " + endpoint.getName() + ")"));
+            }
+
+            String prompt = buildPrompt(logContent);
+
+            // OpenAI-compatible payload
+            String payload = """
+            {
+              "model": %s,
+              "messages": [
+                { "role": "user", "content": %s }
+              ],
+              "temperature": 0.2,
+              "max_tokens": 320,
+              "stream": true
+            }
+            """.formatted(toJsonString(endpoint.getModel()), toJsonString(prompt));
+
+            StreamingInsightParser parser = new StreamingInsightParser(MAX_STEPS);
+
+            Flux<AiInsight> partials = webClient.post()
+                    .uri("/chat/completions")
+                    .headers(h -> authorize(h, token))
+                    .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(payload)
+                    .retrieve()
+                    .onStatus(HttpStatusCode::isError, resp ->
+                            resp.bodyToMono(String.class)
+                                    .defaultIfEmpty("")
+                                    .flatMap(body -> Mono.error(new RuntimeException(
+                                            endpoint.getName() + " HTTP " + resp.statusCode().value() + " - " + compact(body)
+                                    )))
+                    )
+                    .bodyToFlux(SSE_TYPE)
+                    // a stalled stream; AiRouter bounds the whole answer
+                    .timeout(timeout)
+                    .mapNotNull(ServerSentEvent::data)
+                    .takeWhile(data -> !"[DONE]".equals(data.trim()))
+                    .concatMapIterable(data -> parser.accept(extractDelta(data)))
+                    .takeUntil(partial -> parser.isComplete());
+
+            return partials.concatWith(Mono.fromSupplier(parser::finish));
+        });
+    }
+
+    // GET /models, to open a (TLS) connection into the pool before the first real request.
+    // Any HTTP status means the connection is up; the body is drained so it goes back to the pool.
+    public Mono<Integer> ping() {
+        return Mono.defer(() -> {
+            String token = apiKey();
+            return webClient.get()
+                    .uri("/models")
+                    .headers(h -> authorize(h, token))
+                    .exchangeToMono(resp -> resp.releaseBody().thenReturn(resp.statusCode().value()))
+                    .timeout(timeout);
+        });
+    }
+
+    // null = endpoint without authentication, "" = configured but missing
+    private String apiKey() {
+        String env = endpoint.getApiKeyEnv();
+        if (env == null || env.isBlank()) return null;
+        String token = System.getenv(env);
+        return token == null ? "" : token;
+    }
+
+    private static void authorize(HttpHeaders headers, String token) {
+        if (token != null && !token.isBlank()) headers.setBearerAuth(token);
+    }
+
+    private String extractDelta(String chunkJson) {
+        try {
+            JsonNode root = mapper.readTree(chunkJson);
+
+            // Router error format (sometimes)
+            if (root.has("error")) {
+                throw new RuntimeException(endpoint.getName() + " error: " + root.get("error").toString());
+            }
+
+            JsonNode choices = root.path("choices");
+            if (!choices.isArray() || choices.isEmpty()) {
+                return "";
+            }
+
+            return choices.get(0).path("delta").path("content").asText("");
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse " + endpoint.getName() + " stream chunk: " + e.getMessage(), e);
+        }
+    }
+
+    private String buildPrompt(String logContent) {
+        return """
+You are a Production Support Engineer.
+
+Analyze the following log snippet and return ONLY in the exact format below.
+Do NOT add explanations, markdown, or any text outside this format.
+
+FORMAT:
+SUMMARY: <1-2 sentences>
+LIKELY_CAUSE: <1 sentence>
+NEXT_STEPS:
+- <step 1>
+- <step 2>
+- <step 3>
+- <step 4>
+- <step 5>
+
+RULES:
+- Do NOT invent fake names (e.g., "method A", "ClassX") if they do not appear in the log.
+- If real class or method names are missing, speak generically (e.g., "a null reference in application code").
+- Be concise, practical, and production-focused.
+- Always return exactly 5 NEXT_STEPS.
+
+LOG:
+%s
+""".formatted(
+                logContent.length() > 6000
+                        ? logContent.substring(0, 6000)
+                        : logContent
+        );
+    }
+
+
+    private String toJsonString(String s) {
+        try {
+            return mapper.writeValueAsString(s);
+        } catch (Exception e) {
+            return "\"\"";
+        }
+    }
+
+    private String compact(String s) {
+        if (s == null) return "";
+        return s.replaceAll("\\s+", " ").trim();
+    }
+}
@@ -0,0 +1,16 @@
+package com.logtriage.ai;
+
+import com.logtriage.model.AiInsight;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// An insight from the remote LLM, with the endpoint that produced it.
+// hedged = it came from the second request, sent because the first endpoint was slow or failed.
+@Data
+@AllArgsConstructor
+public class RoutedInsight {
+    private String provider;
+    private String model;
+    private AiInsight insight;
+    private boolean hedged;
+}
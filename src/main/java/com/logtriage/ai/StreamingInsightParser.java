@@ -0,0 +1,89 @@
+package com.logtriage.ai;
+
+import com.logtriage.model.AiInsight;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Incremental parser for the SUMMARY / LIKELY_CAUSE / NEXT_STEPS format.
+// Text chunks arrive token by token; a section is considered complete once its line is terminated.
+public class StreamingInsightParser {
+
+    private final int maxSteps;
+    private final StringBuilder pending = new StringBuilder();
+
+    private String summary = "";
+    private String cause = "";
+    private final LinkedHashSet<String> steps = new LinkedHashSet<>();
+    private boolean inSteps = false;
+
+    public StreamingInsightParser(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    // Feed a chunk; returns a snapshot for every section that got completed by it.
+    public List<AiInsight> accept(String chunk) {
+        List<AiInsight> completed = new ArrayList<>();
+        if (chunk == null || chunk.isEmpty() || isComplete()) return completed;
+
+        pending.append(chunk);
+
+        int nl;
+        while (!isComplete() && (nl = pending.indexOf("\n")) >= 0) {
+            String line = pending.substring(0, nl);
+            pending.delete(0, nl + 1);
+            if (acceptLine(line)) completed.add(snapshot());
+        }
+        return completed;
+    }
+
+    // True once the step budget is reached; the caller can cut the upstream stream here.
+    public boolean isComplete() {
+        return steps.size() >= maxSteps;
+    }
+
+    // Flush the trailing (unterminated) line and apply the same defaults as the non-streaming path.
+    public AiInsight finish() {
+        if (!isComplete() && pending.length() > 0) {
+            acceptLine(pending.toString());
+        }
+        pending.setLength(0);
+
+        String s = summary.isBlank() ? "AI-generated incident summary." : summary;
+        String c = cause.isBlank() ? "Likely caused by an application or dependency failure." : cause;
+
+        List<String> finalSteps = new ArrayList<>(steps);
+        if (finalSteps.isEmpty()) {
+            finalSteps.add("Check the first error occurrence timestamp and inspect ±5 minutes around it.");
+            finalSteps.add("Confirm recent deployments/changes and service health.");
+            finalSteps.add("Validate downstream dependencies (DB/HTTP) and timeout/retry settings.");
+        }
+        return new AiInsight(s, c, finalSteps);
+    }
+
+    private boolean acceptLine(String line) {
+        String l = line.trim();
+        if (l.startsWith("SUMMARY:")) {
+            summary = l.substring("SUMMARY:".length()).trim();
+            return !summary.isBlank();
+        }
+        if (l.startsWith("LIKELY_CAUSE:")) {
+            cause = l.substring("LIKELY_CAUSE:".length()).trim();
+            return !cause.isBlank();
+        }
+        if (l.startsWith("NEXT_STEPS:")) {
+            inSteps = true;
+            return false;
+        }
+        if (inSteps && l.startsWith("-")) {
+            String step = l.substring(1).trim();
+            return !step.isBlank() && steps.add(step);
+        }
+        return false;
+    }
+
+    private AiInsight snapshot() {
+        return new AiInsight(summary, cause, List.copyOf(steps));
+    }
+}
@@ -0,0 +1,147 @@
+package com.logtriage.config;
+
+import com.logtriage.ingest.BoundedInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+// Accepts "Content-Encoding: gzip" request bodies on the log API.
+// The body is inflated while Jackson reads it, bounded by upload.max-decompressed-size.
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private final long maxBytes;
+
+    public GzipRequestFilter(@Value("${upload.max-decompressed-size:64MB}") DataSize maxDecompressedSize) {
+        this.maxBytes = maxDecompressedSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        String path = request.getRequestURI();
+        return encoding == null || !encoding.trim().equalsIgnoreCase("gzip")
+                || path == null || !path.startsWith("/api/logs");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest req,
+            HttpServletResponse res,
+            FilterChain chain
+    ) throws ServletException, IOException {
+        chain.doFilter(new GzipRequest(req, maxBytes), res);
+    }
+
+    private static class GzipRequest extends HttpServletRequestWrapper {
+
+        private final long maxBytes;
+        private ServletInputStream stream;
+
+        GzipRequest(HttpServletRequest request, long maxBytes) {
+            super(request);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new InflatingInputStream(this, new BoundedInputStream(
+                        new GZIPInputStream(super.getInputStream(), 64 * 1024), new AtomicLong(maxBytes), maxBytes));
+            }
+            return stream;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+    }
+
+    // Reads block on the raw body, so the inflated stream is always ready: a ReadListener (async request)
+    // is called back on a container thread until it has read everything, as long as each call makes progress.
+    private static class InflatingInputStream extends ServletInputStream {
+
+        private final HttpServletRequest request;
+        private final InputStream in;
+        private volatile boolean finished;
+        private volatile long consumed;
+
+        InflatingInputStream(HttpServletRequest request, InputStream in) {
+            this.request = request;
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) finished = true;
+            else consumed++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n < 0) finished = true;
+            else consumed += n;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            if (!request.isAsyncStarted()) throw new IllegalStateException("A ReadListener needs an async request");
+            request.getAsyncContext().start(() -> {
+                try {
+                    long before;
+                    do {
+                        before = consumed;
+                        listener.onDataAvailable();
+                    } while (!finished && consumed > before);
+                    if (finished) listener.onAllDataRead();
+                } catch (Throwable t) {
+                    listener.onError(t);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
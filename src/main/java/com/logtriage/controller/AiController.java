@@ -0,0 +1,26 @@
+package com.logtriage.controller;
+
+import com.logtriage.ai.AiRouter;
+import com.logtriage.model.AiEndpointStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ai")
+public class AiController {
+
+    private final AiRouter aiRouter;
+
+    public AiController(AiRouter aiRouter) {
+        this.aiRouter = aiRouter;
+    }
+
+    //  Remote AI endpoints, best first: latency / success EWMAs, hedge threshold, request counters
+    @GetMapping("/endpoints")
+    public List<AiEndpointStatus> endpoints() {
+        return aiRouter.status();
+    }
+}
@@ -0,0 +1,39 @@
+package com.logtriage.controller;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Probe endpoints backed by Spring Boot's availability state.
+// Readiness turns ACCEPTING_TRAFFIC only after startup runners (the analyzer warm-up) have finished.
+@RestController
+@RequestMapping("/api/health")
+public class HealthController {
+
+    private final ApplicationAvailability availability;
+
+    public HealthController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        ReadinessState state = availability.getReadinessState();
+        HttpStatus status = state == ReadinessState.ACCEPTING_TRAFFIC ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", state.name()));
+    }
+
+    @GetMapping("/liveness")
+    public ResponseEntity<Map<String, String>> liveness() {
+        LivenessState state = availability.getLivenessState();
+        HttpStatus status = state == LivenessState.CORRECT ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(Map.of("status", state.name()));
+    }
+}
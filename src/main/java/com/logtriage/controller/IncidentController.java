@@ -0,0 +1,30 @@
+package com.logtriage.controller;
+
+import com.logtriage.model.Incident;
+import com.logtriage.model.IncidentResolution;
+import com.logtriage.service.IncidentService;
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.*;
+
+// Past incidents recorded by the analyze endpoints (see incidentId / similarIncidents in their response).
+@RestController
+@RequestMapping("/api/incidents")
+public class IncidentController {
+
+    private final IncidentService incidentService;
+
+    public IncidentController(IncidentService incidentService) {
+        this.incidentService = incidentService;
+    }
+
+    @GetMapping("/{incidentId}")
+    public Incident get(@PathVariable long incidentId) {
+        return incidentService.get(incidentId);
+    }
+
+    //  Record the ticket and fix, so later similar incidents show them
+    @PutMapping("/{incidentId}/resolution")
+    public Incident resolve(@PathVariable long incidentId, @Valid @RequestBody IncidentResolution resolution) {
+        return incidentService.resolve(incidentId, resolution);
+    }
+}
@@ -0,0 +1,69 @@
+package com.logtriage.controller;
+
+import com.logtriage.model.AnalysisJob;
+import com.logtriage.model.AnalysisJobRequest;
+import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.service.AnalysisJobService;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+
+// Asynchronous analysis for logs too large for one request: submit, poll progress, fetch the result.
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final AnalysisJobService jobService;
+
+    public JobController(AnalysisJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    //  Log as the raw request body (curl --data-binary @app.log.gz); name decides .gz / .zip / text
+    @PostMapping(consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<AnalysisJob> submit(InputStream body,
+                                              @RequestParam(required = false) String name,
+                                              @RequestParam(required = false) String priority,
+                                              @RequestParam(required = false) String format) throws IOException {
+        return accepted(jobService.submitUpload(body, name, priority, format));
+    }
+
+    //  Log already on the server, under jobs.allowed-dirs
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AnalysisJob> submitPath(@Valid @RequestBody AnalysisJobRequest request) throws IOException {
+        return accepted(jobService.submitPath(request.getPath(), request.getPriority(), request.getFormat()));
+    }
+
+    @GetMapping
+    public List<AnalysisJob> list(@RequestParam(defaultValue = "20") int limit) {
+        return jobService.list(limit);
+    }
+
+    //  Status and progress (bytes read, lines, top error signatures so far)
+    @GetMapping("/{jobId}")
+    public AnalysisJob get(@PathVariable String jobId) {
+        return jobService.get(jobId);
+    }
+
+    //  Final analysis, read from disk (409 until the job has succeeded)
+    @GetMapping("/{jobId}/result")
+    public LogAnalysisResponse result(@PathVariable String jobId) {
+        return jobService.result(jobId);
+    }
+
+    //  Cancel a queued / running job, or delete a finished one and its result
+    @DeleteMapping("/{jobId}")
+    public AnalysisJob cancel(@PathVariable String jobId) {
+        return jobService.cancel(jobId);
+    }
+
+    private static ResponseEntity<AnalysisJob> accepted(AnalysisJob job) {
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getJobId())).body(job);
+    }
+}
@@ -1,50 +1,211 @@
 package com.logtriage.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.logtriage.engine.LogFormat;
+import com.logtriage.ingest.DecompressedSizeExceededException;
+import com.logtriage.ingest.UploadedLogs;
+import com.logtriage.model.CorrelatedId;
+import com.logtriage.model.CorrelationRequest;
+import com.logtriage.model.CorrelationResponse;
+import com.logtriage.model.DiffQuery;
+import com.logtriage.model.DiffRequest;
 import com.logtriage.model.LogAnalysisRequest;
 import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.model.LogDiffResponse;
+import com.logtriage.model.ResponseFields;
+import com.logtriage.model.SearchQuery;
+import com.logtriage.model.SearchResult;
+import com.logtriage.model.TraceTimeline;
+import com.logtriage.ingest.LogInput;
+import com.logtriage.service.CorrelationService;
 import com.logtriage.service.LogAnalysisService;
+import com.logtriage.service.LogDiffService;
+import com.logtriage.service.SearchService;
+import com.logtriage.service.TraceService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/logs")
 public class LogAnalysisController {
 
     private final LogAnalysisService service;
+    private final TraceService traceService;
+    private final SearchService searchService;
+    private final LogDiffService diffService;
+    private final CorrelationService correlationService;
+    private final DataSize maxDecompressedSize;
+    private final DataSize maxDiffInputSize;
+    private final DataSize maxCorrelateInputSize;
+    private final ObjectMapper objectMapper;
 
-    public LogAnalysisController(LogAnalysisService service) {
+    public LogAnalysisController(
+            LogAnalysisService service,
+            TraceService traceService,
+            SearchService searchService,
+            LogDiffService diffService,
+            CorrelationService correlationService,
+            ObjectMapper objectMapper,
+            @Value("${upload.max-decompressed-size:64MB}") DataSize maxDecompressedSize,
+            @Value("${analysis.diff.max-input-size:1GB}") DataSize maxDiffInputSize,
+            @Value("${analysis.correlate.max-input-size:1GB}") DataSize maxCorrelateInputSize
+    ) {
         this.service = service;
+        this.traceService = traceService;
+        this.searchService = searchService;
+        this.diffService = diffService;
+        this.correlationService = correlationService;
+        this.maxDecompressedSize = maxDecompressedSize;
+        this.maxDiffInputSize = maxDiffInputSize;
+        this.maxCorrelateInputSize = maxCorrelateInputSize;
+        this.objectMapper = objectMapper;
     }
 
-    //  Paste / JSON
+    //  Paste / JSON; ?fields=severity,topErrorSignatures returns (and computes) only those fields
     @PostMapping(value = "/analyze", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public LogAnalysisResponse analyze(@Valid @RequestBody LogAnalysisRequest request) {
-        return service.analyze(request.getLogContent());
+    public Object analyze(@Valid @RequestBody LogAnalysisRequest request,
+                          @RequestParam(required = false) String fields) {
+        ResponseFields projection = ResponseFields.parse(fields);
+        return project(service.analyze(request.getLogContent(), LogFormat.parse(request.getFormat()), projection), projection);
     }
 
-    //  File upload (txt/log)
+    //  Paste / JSON, streamed as Server-Sent Events (partial AI insights, then final result)
+    @PostMapping(value = "/analyze/stream", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> analyzeStream(@Valid @RequestBody LogAnalysisRequest request) {
+        return service.analyzeStream(request.getLogContent(), LogFormat.parse(request.getFormat()));
+    }
+
+    //  File upload (txt/log, gz, zip of several logs)
     @PostMapping(value = "/analyze/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public LogAnalysisResponse analyzeFile(@RequestPart("file") MultipartFile file) {
+    public Object analyzeFile(@RequestPart("file") MultipartFile file,
+                              @RequestParam(required = false) String format,
+                              @RequestParam(required = false) String fields) throws DecompressedSizeExceededException {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File is empty.");
         }
+        ResponseFields projection = ResponseFields.parse(fields);
+
+        try (UploadedLogs logs = UploadedLogs.from(file, maxDecompressedSize.toBytes())) {
+            return project(service.analyzeInputs(logs.inputs(), LogFormat.parse(format), projection), projection);
+        } catch (DecompressedSizeExceededException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read file content.");
+        }
+    }
 
-        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
-        if (!(filename.endsWith(".log") || filename.endsWith(".txt"))) {
-            throw new IllegalArgumentException("Only .log or .txt files are supported.");
+    //  Before/after signature diff: two uploads (before + after), or one upload (file) split by time ranges
+    @PostMapping(value = "/diff", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public LogDiffResponse diff(@RequestPart(value = "before", required = false) MultipartFile before,
+                                @RequestPart(value = "after", required = false) MultipartFile after,
+                                @RequestPart(value = "file", required = false) MultipartFile file,
+                                DiffQuery query) throws DecompressedSizeExceededException {
+        boolean twoLogs = before != null && !before.isEmpty() && after != null && !after.isEmpty();
+        boolean oneLog = file != null && !file.isEmpty();
+        if (twoLogs == oneLog) {
+            throw new IllegalArgumentException("Upload either 'before' and 'after', or a single 'file' with time ranges.");
         }
 
-        String content;
         try {
-            content = new String(file.getBytes(), StandardCharsets.UTF_8);
-        } catch (Exception e) {
+            if (oneLog) {
+                try (UploadedLogs logs = UploadedLogs.from(file, maxDiffInputSize.toBytes())) {
+                    return diffService.diffRanges(logs.inputs(), query);
+                }
+            }
+            try (UploadedLogs b = UploadedLogs.from(before, maxDiffInputSize.toBytes());
+                 UploadedLogs a = UploadedLogs.from(after, maxDiffInputSize.toBytes())) {
+                return diffService.diff(b.inputs(), a.inputs(), query);
+            }
+        } catch (DecompressedSizeExceededException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read file content.");
+        }
+    }
+
+    //  Same, over logs already on the server (under jobs.allowed-dirs): no request size limit, for large logs.
+    //  Ranges and thresholds come from the query string, as for uploads
+    @PostMapping(value = "/diff", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public LogDiffResponse diffPaths(@RequestBody DiffRequest request, DiffQuery query) throws IOException {
+        return diffService.diffPaths(request.getBefore(), request.getAfter(), request.getFile(), query);
+    }
+
+    //  Several services' logs (one file per service, or a zip with one entry per service) merged by timestamp:
+    //  which service failed first, how error signatures and correlation ids spread across services
+    @PostMapping(value = "/correlate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CorrelationResponse correlate(@RequestPart("files") List<MultipartFile> files,
+                                         @RequestParam(defaultValue = "100") int timeline,
+                                         @RequestParam(defaultValue = "50") int limit) throws DecompressedSizeExceededException {
+        List<UploadedLogs> uploads = new ArrayList<>();
+        try {
+            List<LogInput> inputs = new ArrayList<>();
+            for (MultipartFile file : files) {
+                if (file == null || file.isEmpty()) continue;
+                UploadedLogs logs = UploadedLogs.from(file, maxCorrelateInputSize.toBytes());
+                uploads.add(logs);
+                inputs.addAll(logs.inputs());
+            }
+            return correlationService.correlate(inputs, timeline, limit);
+        } catch (DecompressedSizeExceededException e) {
+            throw e;
+        } catch (IOException e) {
             throw new IllegalArgumentException("Failed to read file content.");
+        } finally {
+            for (UploadedLogs logs : uploads) {
+                try {
+                    logs.close();
+                } catch (IOException ignored) {
+                    // best effort: the correlation is already done (or failed)
+                }
+            }
         }
+    }
+
+    //  Same, over logs already on the server (under jobs.allowed-dirs): no request size limit, for large logs
+    @PostMapping(value = "/correlate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CorrelationResponse correlatePaths(@Valid @RequestBody CorrelationRequest request,
+                                              @RequestParam(defaultValue = "100") int timeline,
+                                              @RequestParam(defaultValue = "50") int limit) throws IOException {
+        return correlationService.correlatePaths(request.getPaths(), timeline, limit);
+    }
+
+    //  Ordered timeline of every line carrying the given correlation/request/trace id
+    @GetMapping("/analyses/{analysisId}/trace/{id}")
+    public TraceTimeline trace(@PathVariable String analysisId,
+                               @PathVariable String id,
+                               @RequestParam(defaultValue = "1000") int limit) {
+        return traceService.timeline(analysisId, id, limit);
+    }
+
+    //  IDs with the most error lines
+    @GetMapping("/analyses/{analysisId}/ids")
+    public List<CorrelatedId> topErrorIds(@PathVariable String analysisId,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        return traceService.topErrorIds(analysisId, limit);
+    }
+
+    //  Indexed search over a stored upload (substring / exception type / id / time range)
+    @GetMapping("/analyses/{analysisId}/search")
+    public SearchResult search(@PathVariable String analysisId, SearchQuery query) {
+        return searchService.search(analysisId, query);
+    }
 
-        return service.analyze(content);
+    private Object project(LogAnalysisResponse response, ResponseFields fields) {
+        if (fields.isAll()) return response;
+        ObjectNode node = objectMapper.valueToTree(response);
+        node.retain(fields.names());
+        return node;
     }
 }
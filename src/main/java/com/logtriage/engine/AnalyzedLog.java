@@ -0,0 +1,181 @@
+package com.logtriage.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// A scanned log kept for follow-up queries: raw text + line offsets + correlation-id index,
+// plus (when searchable) a trigram index and per-block timestamp bounds for server-side search.
+// Lines follow split("\\r?\\n") semantics (trailing empty lines dropped), stored as offsets
+// into the original text instead of separate String objects.
+// Line boundaries are found on a Latin-1 byte view of the text (ByteScanner), which the analyzer
+// scan also uses for its keyword prefilters; the view is dropped once the scan is finished.
+public class AnalyzedLog {
+
+    private final String text;
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final int lineCount;
+    private byte[] latin1;
+
+    private final BitSet errorLines = new BitSet();
+    private final CorrelationIndex correlationIndex = new CorrelationIndex();
+
+    private final TrigramIndex searchIndex;
+    private long[] blockMinTs = new long[0];
+    private long[] blockMaxTs = new long[0];
+    private long[] blockCarryTs = new long[0];
+    private long lastTs = LogTimestamps.NONE;
+
+    public AnalyzedLog(String text) {
+        this(text, false);
+    }
+
+    public AnalyzedLog(String text, boolean searchable) {
+        this.text = text == null ? "" : text;
+        this.searchIndex = searchable ? new TrigramIndex() : null;
+
+        this.latin1 = ByteScanner.latin1(this.text);
+
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int n = 0;
+        int start = 0;
+        int len = latin1.length;
+
+        while (start <= len) {
+            int i = ByteScanner.indexOf(latin1, start, len, (byte) '\n');
+            if (i < 0) i = len;
+
+            int end = i;
+            if (i < len && end > start && latin1[end - 1] == '\r') end--;
+
+            if (n == starts.length) {
+                starts = Arrays.copyOf(starts, n * 2);
+                ends = Arrays.copyOf(ends, n * 2);
+            }
+            starts[n] = start;
+            ends[n] = end;
+            n++;
+            start = i + 1;
+        }
+
+        // drop trailing empty lines (keep at least one, like String.split)
+        while (n > 1 && starts[n - 1] == ends[n - 1]) n--;
+
+        this.lineStarts = starts;
+        this.lineEnds = ends;
+        this.lineCount = n;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public String line(int i) {
+        return text.substring(lineStarts[i], lineEnds[i]);
+    }
+
+    public int lineStart(int i) {
+        return lineStarts[i];
+    }
+
+    // exclusive, without the line terminator
+    public int lineEnd(int i) {
+        return lineEnds[i];
+    }
+
+    // same offsets as text(); rebuilt if asked for after the scan released it
+    byte[] latin1() {
+        if (latin1 == null) latin1 = ByteScanner.latin1(text);
+        return latin1;
+    }
+
+    public void markError(int line) {
+        errorLines.set(line);
+    }
+
+    public boolean isError(int line) {
+        return errorLines.get(line);
+    }
+
+    public CorrelationIndex correlationIndex() {
+        return correlationIndex;
+    }
+
+    // Approximate heap footprint, used to bound what the AnalysisStore keeps. The text counts two bytes
+    // per char: an upper bound, Latin-1 text takes half.
+    public long estimatedBytes() {
+        long bytes = 40 + 2L * text.length()
+                + 16L * 2 + 4L * (lineStarts.length + lineEnds.length)
+                + errorLines.size() / 8
+                + 16L * 3 + 8L * (blockMinTs.length + blockMaxTs.length + blockCarryTs.length)
+                + correlationIndex.estimatedBytes();
+        if (latin1 != null) bytes += 16 + latin1.length;
+        if (searchIndex != null) bytes += searchIndex.estimatedBytes();
+        return bytes;
+    }
+
+    public boolean isSearchable() {
+        return searchIndex != null;
+    }
+
+    public TrigramIndex searchIndex() {
+        return searchIndex;
+    }
+
+    // Called for every line, in order, during the analyzer scan.
+    public void indexLine(int line, String content) {
+        indexLine(line, content, LogTimestamps.NONE);
+    }
+
+    // knownTs: timestamp already extracted by the caller (structured logs), NONE to look at the line.
+    public void indexLine(int line, String content, long knownTs) {
+        if (searchIndex == null) return;
+
+        searchIndex.addLine(line, content);
+
+        int block = line / TrigramIndex.BLOCK_LINES;
+        if (block == blockMinTs.length) {
+            int cap = Math.max(16, block * 2);
+            blockMinTs = Arrays.copyOf(blockMinTs, cap);
+            blockMaxTs = Arrays.copyOf(blockMaxTs, cap);
+            blockCarryTs = Arrays.copyOf(blockCarryTs, cap);
+        }
+        if (line % TrigramIndex.BLOCK_LINES == 0) {
+            blockCarryTs[block] = lastTs;
+            blockMinTs[block] = Long.MAX_VALUE;
+            blockMaxTs[block] = LogTimestamps.NONE;
+        }
+
+        // lines without a timestamp (stack frames) inherit the previous one
+        long ts = knownTs != LogTimestamps.NONE ? knownTs : LogTimestamps.leading(content);
+        if (ts != LogTimestamps.NONE) lastTs = ts;
+        if (lastTs != LogTimestamps.NONE) {
+            blockMinTs[block] = Math.min(blockMinTs[block], lastTs);
+            blockMaxTs[block] = Math.max(blockMaxTs[block], lastTs);
+        }
+    }
+
+    public void finishIndexing() {
+        if (searchIndex != null) searchIndex.trim();
+        latin1 = null;
+    }
+
+    // Effective timestamp bounds of a block; max is NONE if the block has no timestamp at all.
+    public long blockMinTs(int block) {
+        return blockMinTs[block];
+    }
+
+    public long blockMaxTs(int block) {
+        return blockMaxTs[block];
+    }
+
+    // Last timestamp seen before the block starts.
+    public long blockCarryTs(int block) {
+        return blockCarryTs[block];
+    }
+}
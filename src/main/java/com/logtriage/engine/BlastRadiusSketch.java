@@ -0,0 +1,66 @@
+package com.logtriage.engine;
+
+// Distinct request ids / trace ids / hosts / users affected by one signature.
+// Sketches are allocated on first value, so signatures without context stay free.
+public class BlastRadiusSketch {
+
+    private HyperLogLog requestIds;
+    private HyperLogLog traceIds;
+    private HyperLogLog hosts;
+    private HyperLogLog users;
+
+    public void addRequestId(String id) {
+        if (requestIds == null) requestIds = new HyperLogLog();
+        requestIds.add(id);
+    }
+
+    public void addTraceId(String id) {
+        if (traceIds == null) traceIds = new HyperLogLog();
+        traceIds.add(id);
+    }
+
+    public void addHost(String host) {
+        if (hosts == null) hosts = new HyperLogLog();
+        hosts.add(host);
+    }
+
+    public void addUser(String user) {
+        if (users == null) users = new HyperLogLog();
+        users.add(user);
+    }
+
+    public BlastRadiusSketch merge(BlastRadiusSketch other) {
+        if (other == null) return this;
+        requestIds = union(requestIds, other.requestIds);
+        traceIds = union(traceIds, other.traceIds);
+        hosts = union(hosts, other.hosts);
+        users = union(users, other.users);
+        return this;
+    }
+
+    public long requestIds() {
+        return requestIds == null ? 0 : requestIds.estimate();
+    }
+
+    public long traceIds() {
+        return traceIds == null ? 0 : traceIds.estimate();
+    }
+
+    public long hosts() {
+        return hosts == null ? 0 : hosts.estimate();
+    }
+
+    public long users() {
+        return users == null ? 0 : users.estimate();
+    }
+
+    public boolean isEmpty() {
+        return requestIds == null && traceIds == null && hosts == null && users == null;
+    }
+
+    private static HyperLogLog union(HyperLogLog a, HyperLogLog b) {
+        if (b == null) return a;
+        HyperLogLog out = (a == null) ? new HyperLogLog(HyperLogLog.DEFAULT_PRECISION) : a;
+        return out.merge(b);
+    }
+}
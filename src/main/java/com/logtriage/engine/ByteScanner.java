@@ -0,0 +1,196 @@
+package com.logtriage.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+// Byte-level search over a Latin-1 view of the log: one byte per char at the same offsets as the String
+// (chars above U+00FF become '?', which no ASCII keyword contains, so matches are the same as on the String).
+// The loops read 8 bytes at a time and test all of them at once with SWAR arithmetic:
+// for x = word ^ (byte * 0x0101..), (x - 0x0101..) & ~x & 0x8080.. flags the bytes equal to `byte`.
+// The lowest flag is always exact (higher ones may be borrow artifacts), and every candidate is verified.
+// Multi-byte needles are anchored on their first and last byte (two words ANDed), so verification is rare.
+final class ByteScanner {
+
+    static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long CASE_BITS = 0x2020202020202020L;
+
+    private ByteScanner() {
+    }
+
+    static byte[] latin1(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.ISO_8859_1);
+        if (bytes.length == s.length()) return bytes;
+
+        // the encoder turns a surrogate pair into a single '?': map char by char to keep the offsets
+        bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = s.charAt(i);
+            bytes[i] = c <= 0xFF ? (byte) c : (byte) '?';
+        }
+        return bytes;
+    }
+
+    static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // first index of b in [from, to), or -1
+    static int indexOf(byte[] a, int from, int to, byte b) {
+        long pattern = ONES * (b & 0xFF);
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long found = zeroBytes(word(a, i) ^ pattern);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        for (; i < to; i++) {
+            if (a[i] == b) return i;
+        }
+        return -1;
+    }
+
+    // first index of needle in [from, to) (needle fully inside), or -1
+    static int indexOf(byte[] a, int from, int to, byte[] needle) {
+        int n = needle.length;
+        int last = to - n;
+        long first = ONES * (needle[0] & 0xFF);
+        long tail = ONES * (needle[n - 1] & 0xFF);
+
+        int i = from;
+        for (; i + 7 <= last; i += 8) {
+            long found = zeroBytes(word(a, i) ^ first) & zeroBytes(word(a, i + n - 1) ^ tail);
+            while (found != 0) {
+                int p = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                if (matches(a, p, needle)) return p;
+                found &= found - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (matches(a, i, needle)) return i;
+        }
+        return -1;
+    }
+
+    // ASCII case-insensitive indexOf; needle must be lower case
+    static int indexOfIgnoreCase(byte[] a, int from, int to, byte[] lowerNeedle) {
+        int n = lowerNeedle.length;
+        int last = to - n;
+        // OR-ing 0x20 folds upper to lower case; the anchors are folded the same way so nothing is missed
+        long first = ONES * ((lowerNeedle[0] | 0x20) & 0xFF);
+        long tail = ONES * ((lowerNeedle[n - 1] | 0x20) & 0xFF);
+
+        int i = from;
+        for (; i + 7 <= last; i += 8) {
+            long found = zeroBytes((word(a, i) | CASE_BITS) ^ first) & zeroBytes((word(a, i + n - 1) | CASE_BITS) ^ tail);
+            while (found != 0) {
+                int p = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                if (matchesIgnoreCase(a, p, lowerNeedle)) return p;
+                found &= found - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (matchesIgnoreCase(a, i, lowerNeedle)) return i;
+        }
+        return -1;
+    }
+
+    static boolean containsIgnoreCase(byte[] a, byte[] lowerNeedle) {
+        return indexOfIgnoreCase(a, 0, a.length, lowerNeedle) >= 0;
+    }
+
+    // correlation keys of RuleBasedLogAnalyzer's ID_PATTERN, lower case
+    private static final byte[][] ID_KEYS = {
+            ascii("correlationid"), ascii("correlation_id"), ascii("requestid"), ascii("request_id"),
+            ascii("traceid"), ascii("trace_id"), ascii("x-request-id"), ascii("x-correlation-id")
+    };
+
+    // First ':' or '=' in [from, to) preceded (whitespace aside) by one of the correlation keys in any case:
+    // every ID_PATTERN match has one, so lines without it can skip the id regex.
+    static int indexOfIdKey(byte[] a, int from, int to) {
+        long colons = ONES * ':';
+        long equals = ONES * '=';
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            long w = word(a, i);
+            long found = zeroBytes(w ^ colons) | zeroBytes(w ^ equals);
+            while (found != 0) {
+                int p = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                if (isIdKeySeparator(a, from, p)) return p;
+                found &= found - 1;
+            }
+        }
+        for (; i < to; i++) {
+            if (isIdKeySeparator(a, from, i)) return i;
+        }
+        return -1;
+    }
+
+    // Next match at or after a moving position. Lines are visited in order, so each cursor scans
+    // the whole text once instead of every line separately.
+    static final class Cursor {
+        private final byte[] a;
+        private final byte[] needle;
+        private int next = -1;
+
+        // needle == null: id-key separators (indexOfIdKey)
+        Cursor(byte[] a, byte[] needle) {
+            this.a = a;
+            this.needle = needle;
+        }
+
+        // whether a match starts in [start, end); start must not decrease between calls
+        boolean within(int start, int end) {
+            if (next < start) {
+                int p = needle == null ? indexOfIdKey(a, start, a.length) : indexOf(a, start, a.length, needle);
+                next = p < 0 ? NOT_FOUND : p;
+            }
+            return next < end;
+        }
+    }
+
+    private static long word(byte[] a, int i) {
+        return (long) LONGS.get(a, i);
+    }
+
+    private static long zeroBytes(long x) {
+        return (x - ONES) & ~x & HIGHS;
+    }
+
+    private static boolean matches(byte[] a, int p, byte[] needle) {
+        for (int j = 0; j < needle.length; j++) {
+            if (a[p + j] != needle[j]) return false;
+        }
+        return true;
+    }
+
+    private static boolean matchesIgnoreCase(byte[] a, int p, byte[] lowerNeedle) {
+        for (int j = 0; j < lowerNeedle.length; j++) {
+            int c = a[p + j];
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            if (c != lowerNeedle[j]) return false;
+        }
+        return true;
+    }
+
+    private static boolean isIdKeySeparator(byte[] a, int from, int p) {
+        if (a[p] != ':' && a[p] != '=') return false;
+        int k = p - 1;
+        while (k >= from && isRegexSpace(a[k])) k--;
+        if (k - 1 < from || (a[k] | 0x20) != 'd' || (a[k - 1] | 0x20) != 'i') return false;
+        for (byte[] key : ID_KEYS) {
+            int keyStart = k + 1 - key.length;
+            if (keyStart >= from && matchesIgnoreCase(a, keyStart, key)) return true;
+        }
+        return false;
+    }
+
+    // \s of java.util.regex without UNICODE_CHARACTER_CLASS
+    private static boolean isRegexSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+}
@@ -0,0 +1,107 @@
+package com.logtriage.engine;
+
+import java.util.*;
+
+// Inverted index: correlation/request/trace id -> line numbers it appears on.
+// Postings are growable int[] per id (no boxing), so 1M lines / 100k ids stay in the tens of MB.
+public class CorrelationIndex {
+
+    private static final int INITIAL_POSTINGS = 4;
+
+    private final Map<String, Integer> slotById = new HashMap<>();
+
+    private String[] ids = new String[64];
+    private int[][] postings = new int[64][];
+    private int[] postingSizes = new int[64];
+    private int[] errorCounts = new int[64];
+    private int size;
+
+    public void add(String id, int line, boolean errorLine) {
+        Integer slot = slotById.get(id);
+        if (slot == null) {
+            slot = newSlot(id);
+        }
+
+        int n = postingSizes[slot];
+        int[] p = postings[slot];
+
+        // same id repeated on one line counts once
+        if (n > 0 && p[n - 1] == line) return;
+
+        if (n == p.length) {
+            p = Arrays.copyOf(p, n + (n >> 1) + 1);
+            postings[slot] = p;
+        }
+        p[n] = line;
+        postingSizes[slot] = n + 1;
+        if (errorLine) errorCounts[slot]++;
+    }
+
+    // Approximate heap footprint: per id, its HashMap entry with the boxed slot (~80 bytes), the String
+    // (~40 bytes + chars) and its postings array.
+    public long estimatedBytes() {
+        long bytes = 16L * 4 + 4L * (ids.length + postings.length + postingSizes.length + errorCounts.length);
+        for (int i = 0; i < size; i++) bytes += 80 + 40 + ids[i].length() + 16 + 4L * postings[i].length;
+        return bytes;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String id) {
+        return slotById.containsKey(id);
+    }
+
+    // Line numbers (0-based, ascending) the id appears on; empty if unknown.
+    public int[] lines(String id) {
+        Integer slot = slotById.get(id);
+        if (slot == null) return new int[0];
+        return Arrays.copyOf(postings[slot], postingSizes[slot]);
+    }
+
+    public int lineCount(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? 0 : postingSizes[slot];
+    }
+
+    public int errorCount(String id) {
+        Integer slot = slotById.get(id);
+        return slot == null ? 0 : errorCounts[slot];
+    }
+
+    // Ids ordered by error line count desc, then line count desc; ids without errors are skipped.
+    public List<String> topByErrors(int limit) {
+        Integer[] slots = new Integer[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (errorCounts[i] > 0) slots[n++] = i;
+        }
+
+        Arrays.sort(slots, 0, n, (a, b) -> {
+            int c = Integer.compare(errorCounts[b], errorCounts[a]);
+            return c != 0 ? c : Integer.compare(postingSizes[b], postingSizes[a]);
+        });
+
+        List<String> out = new ArrayList<>(Math.min(limit, n));
+        for (int i = 0; i < n && i < limit; i++) {
+            out.add(ids[slots[i]]);
+        }
+        return out;
+    }
+
+    private int newSlot(String id) {
+        if (size == ids.length) {
+            int cap = size * 2;
+            ids = Arrays.copyOf(ids, cap);
+            postings = Arrays.copyOf(postings, cap);
+            postingSizes = Arrays.copyOf(postingSizes, cap);
+            errorCounts = Arrays.copyOf(errorCounts, cap);
+        }
+        int slot = size++;
+        ids[slot] = id;
+        postings[slot] = new int[INITIAL_POSTINGS];
+        slotById.put(id, slot);
+        return slot;
+    }
+}
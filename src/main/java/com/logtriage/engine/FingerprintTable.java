@@ -0,0 +1,121 @@
+package com.logtriage.engine;
+
+import java.util.Arrays;
+
+// Open-addressing fingerprint -> count table on primitive arrays, keeping the exception type,
+// normalized message and first raw example of each fingerprint.
+// Distinct fingerprints are capped; occurrences of fingerprints beyond the cap are only counted as dropped.
+public class FingerprintTable {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final int maxDistinct;
+
+    private long[] keys;
+    private int[] counts;
+    private String[] types;
+    private String[] messages;
+    private String[] examples;
+    private int size;
+    private long dropped;
+
+    public FingerprintTable(int maxDistinct) {
+        this.maxDistinct = maxDistinct;
+        allocate(64);
+    }
+
+    public void add(long fingerprint, String type, String normalizedMessage, String example) {
+        long key = fingerprint == 0 ? 1 : fingerprint;
+        int slot = find(key);
+        if (keys[slot] == key) {
+            counts[slot]++;
+            return;
+        }
+        if (size >= maxDistinct) {
+            dropped++;
+            return;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            grow();
+            slot = find(key);
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+        types[slot] = type;
+        messages[slot] = normalizedMessage;
+        examples[slot] = example;
+        size++;
+    }
+
+    // Fingerprints in ascending order, for merge-joining two tables.
+    public long[] sortedKeys() {
+        long[] out = new long[size];
+        int n = 0;
+        for (long k : keys) {
+            if (k != 0) out[n++] = k;
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    public int count(long key) {
+        int slot = find(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    public String type(long key) {
+        return types[find(key)];
+    }
+
+    public String message(long key) {
+        return messages[find(key)];
+    }
+
+    public String example(long key) {
+        return examples[find(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long dropped() {
+        return dropped;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int i = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[i] != 0 && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new int[capacity];
+        types = new String[capacity];
+        messages = new String[capacity];
+        examples = new String[capacity];
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        String[] oldTypes = types;
+        String[] oldMessages = messages;
+        String[] oldExamples = examples;
+
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = find(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+            types[slot] = oldTypes[i];
+            messages[slot] = oldMessages[i];
+            examples[slot] = oldExamples[i];
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.logtriage.engine;
+
+// 64-bit string hash shared by the sketches and signature fingerprints.
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 fmix64 avalanche
+    static long hash64(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
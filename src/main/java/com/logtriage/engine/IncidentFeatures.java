@@ -0,0 +1,51 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.ErrorSignature;
+import com.logtriage.model.LogAnalysisResponse;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// The feature set an incident is compared by: the diff fingerprint of every top signature
+// (exception type + normalized message), the exception types, the words of the normalized
+// message templates, and the detected issue categories. Ids and numbers are normalized away,
+// so two outages of the same kind share most features regardless of which requests they hit.
+public final class IncidentFeatures {
+
+    private IncidentFeatures() {
+    }
+
+    public static long[] of(LogAnalysisResponse r) {
+        long[] out = new long[32];
+        int n = 0;
+
+        if (r.getTopErrorSignatures() != null) {
+            for (ErrorSignature s : r.getTopErrorSignatures()) {
+                String type = s.getExceptionType() == null ? "" : s.getExceptionType();
+                String template = LogDiffer.normalize(s.getMessage());
+
+                if (n + 2 > out.length) out = Arrays.copyOf(out, out.length * 2);
+                out[n++] = LogDiffer.fingerprint(type, template);
+                out[n++] = Hashing.hash64("type:" + simpleName(type));
+
+                for (String word : template.split("[^A-Za-z]+")) {
+                    if (word.length() < 3) continue;
+                    if (n == out.length) out = Arrays.copyOf(out, out.length * 2);
+                    out[n++] = Hashing.hash64("word:" + word.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        if (r.getDetectedIssues() != null) {
+            for (String issue : r.getDetectedIssues()) {
+                if (n == out.length) out = Arrays.copyOf(out, out.length * 2);
+                out[n++] = Hashing.hash64("issue:" + issue);
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static String simpleName(String type) {
+        int dot = type.lastIndexOf('.');
+        return dot < 0 ? type : type.substring(dot + 1);
+    }
+}
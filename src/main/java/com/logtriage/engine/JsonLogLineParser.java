@@ -0,0 +1,177 @@
+package com.logtriage.engine;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Token-level extraction of the fields triage needs from one JSON log line
+// (Logback/logstash encoder and ECS layouts, nested or dotted keys).
+// No tree is built: unneeded values are never turned into Strings and nested
+// objects we don't care about are skipped wholesale.
+public class JsonLogLineParser {
+
+    private final JsonFactory factory = new JsonFactory();
+
+    public static class Fields {
+        public String timestamp;
+        public String level;
+        public String message;
+        public String errorType;
+        public String errorMessage;
+        public String stackTrace;
+        public String host;
+        public String user;
+        // request / correlation ids
+        public final List<String> ids = new ArrayList<>(2);
+        public final List<String> traceIds = new ArrayList<>(2);
+
+        void reset() {
+            timestamp = null;
+            level = null;
+            message = null;
+            errorType = null;
+            errorMessage = null;
+            stackTrace = null;
+            host = null;
+            user = null;
+            ids.clear();
+            traceIds.clear();
+        }
+
+        public boolean isErrorLevel() {
+            return level != null && (level.equalsIgnoreCase("ERROR") || level.equalsIgnoreCase("FATAL"));
+        }
+    }
+
+    public static boolean looksLikeJson(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '{') return true;
+            if (!Character.isWhitespace(c)) return false;
+        }
+        return false;
+    }
+
+    // Fills `out` and returns true if the line is a JSON object; false leaves the line to the text path.
+    public boolean parse(String line, Fields out) {
+        out.reset();
+        try (JsonParser p = factory.createParser(line)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return false;
+
+            String parent = null;
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t == JsonToken.END_OBJECT) {
+                    if (parent == null) return true;
+                    parent = null;
+                    continue;
+                }
+                if (t != JsonToken.FIELD_NAME) return false;
+
+                String name = p.currentName();
+                JsonToken value = p.nextToken();
+
+                if (value == JsonToken.START_OBJECT) {
+                    if (parent == null && isContainer(name)) parent = name;
+                    else p.skipChildren();
+                    continue;
+                }
+                if (value == JsonToken.START_ARRAY) {
+                    p.skipChildren();
+                    continue;
+                }
+
+                String key = (parent == null || "mdc".equals(parent)) ? name : parent + "." + name;
+                assign(key, p, out);
+            }
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isContainer(String name) {
+        switch (name) {
+            case "error":
+            case "log":
+            case "trace":
+            case "transaction":
+            case "host":
+            case "user":
+            case "mdc":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void assign(String key, JsonParser p, Fields out) throws IOException {
+        switch (key) {
+            case "@timestamp":
+            case "timestamp":
+            case "time":
+                out.timestamp = p.getValueAsString();
+                break;
+            case "level":
+            case "log.level":
+            case "severity":
+                out.level = p.getValueAsString();
+                break;
+            case "message":
+            case "msg":
+                out.message = p.getValueAsString();
+                break;
+            case "error.type":
+            case "exception.type":
+                out.errorType = p.getValueAsString();
+                break;
+            case "error.message":
+            case "exception.message":
+                out.errorMessage = p.getValueAsString();
+                break;
+            case "error.stack_trace":
+            case "stack_trace":
+            case "stackTrace":
+            case "exception.stacktrace":
+                out.stackTrace = p.getValueAsString();
+                break;
+            case "trace.id":
+            case "transaction.id":
+            case "traceId":
+            case "trace_id":
+                String traceId = p.getValueAsString();
+                if (traceId != null && !traceId.isBlank()) out.traceIds.add(traceId);
+                break;
+            case "host":
+            case "hostname":
+            case "host.name":
+            case "host.hostname":
+            case "pod":
+                if (out.host == null) out.host = p.getValueAsString();
+                break;
+            case "user":
+            case "user.id":
+            case "user.name":
+            case "userId":
+            case "user_id":
+            case "username":
+                if (out.user == null) out.user = p.getValueAsString();
+                break;
+            case "requestId":
+            case "request_id":
+            case "correlationId":
+            case "correlation_id":
+            case "x-request-id":
+            case "x-correlation-id":
+                String id = p.getValueAsString();
+                if (id != null && !id.isBlank()) out.ids.add(id);
+                break;
+            default:
+                // not needed: value token is left unread
+        }
+    }
+}
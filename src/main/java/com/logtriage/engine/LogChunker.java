@@ -0,0 +1,53 @@
+package com.logtriage.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Splits a log too large to hold in memory into chunks of at most maxChars, for scanning one
+// chunk at a time (LogScan.merge). Chunks end on a line break followed by the start of an event,
+// so a stack trace stays in the chunk of the line that logged it; only an event longer than
+// half a chunk is cut at a plain line break, and a line longer than that anywhere.
+public class LogChunker {
+
+    private final Reader reader;
+    private final char[] buf;
+    private int len;
+    private boolean eof;
+
+    public LogChunker(Reader reader, int maxChars) {
+        if (maxChars < 2) throw new IllegalArgumentException("maxChars must be >= 2");
+        this.reader = reader;
+        this.buf = new char[maxChars];
+    }
+
+    // next chunk, or null at the end of the input
+    public String next() throws IOException {
+        while (!eof && len < buf.length) {
+            int n = reader.read(buf, len, buf.length - len);
+            if (n < 0) eof = true;
+            else len += n;
+        }
+        if (len == 0) return null;
+
+        int cut = eof ? len : cutPoint();
+        String chunk = new String(buf, 0, cut);
+        System.arraycopy(buf, cut, buf, 0, len - cut);
+        len -= cut;
+        return chunk;
+    }
+
+    private int cutPoint() {
+        int lastBreak = -1;
+        for (int i = len - 1; i > len / 2; i--) {
+            if (buf[i - 1] != '\n') continue;
+            if (lastBreak < 0) lastBreak = i;
+            if (buf[i] == '{' || RuleBasedLogAnalyzer.startsEvent(buf, i, len)) return i;
+        }
+        if (lastBreak > 0) return lastBreak;
+
+        // no line break in the second half: keep a "\r\n" together at least
+        int cut = len;
+        while (cut > 1 && (buf[cut - 1] == '\r' || Character.isHighSurrogate(buf[cut - 1]))) cut--;
+        return cut;
+    }
+}
@@ -0,0 +1,268 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.DiffWindow;
+import com.logtriage.model.LogDiffResponse;
+import com.logtriage.model.SignatureChange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+
+// Before/after comparison of error signatures.
+// Inputs are streamed line by line; each side only keeps a FingerprintTable keyed by a 64-bit
+// fingerprint of (exceptionType, normalized message), so memory depends on distinct signatures,
+// not on log size. The two tables are compared by merge-joining their sorted key arrays.
+public class LogDiffer {
+
+    public static final int DEFAULT_MAX_FINGERPRINTS = 200_000;
+
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+    private static final int MAX_MESSAGE_CHARS = 200;
+
+    // in two-input mode the first timestamp is looked for in the first lines only
+    private static final int FIRST_TIMESTAMP_SCAN_LINES = 1000;
+
+    public static class Side {
+        final FingerprintTable table;
+        long lines;
+        long occurrences;
+        long firstTs = LogTimestamps.NONE;
+        long lastTs = LogTimestamps.NONE;
+
+        Side(int maxFingerprints) {
+            this.table = new FingerprintTable(maxFingerprints);
+        }
+
+        void seen(long ts) {
+            if (ts == LogTimestamps.NONE) return;
+            if (firstTs == LogTimestamps.NONE || ts < firstTs) firstTs = ts;
+            if (ts > lastTs) lastTs = ts;
+        }
+    }
+
+    private final int maxFingerprints;
+    private final JsonLogLineParser jsonParser = new JsonLogLineParser();
+    private final JsonLogLineParser.Fields fields = new JsonLogLineParser.Fields();
+
+    public LogDiffer() {
+        this(DEFAULT_MAX_FINGERPRINTS);
+    }
+
+    // Not thread-safe: use one LogDiffer per scanning thread.
+    public LogDiffer(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public Side newSide() {
+        return new Side(maxFingerprints);
+    }
+
+    // Adds a whole input to one side. May be called repeatedly (e.g. every entry of a zip).
+    public void scan(InputStream in, Side side) throws IOException {
+        String lastCandidate = null;
+        try (BufferedReader reader = reader(in)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (mayStartWithTimestamp(line)) {
+                    lastCandidate = line;
+                    if (side.firstTs == LogTimestamps.NONE && side.lines < FIRST_TIMESTAMP_SCAN_LINES) {
+                        side.seen(LogTimestamps.leading(line));
+                    }
+                }
+                accept(side, line);
+            }
+        }
+        if (lastCandidate != null) side.seen(LogTimestamps.leading(lastCandidate));
+    }
+
+    // Splits one input into the two windows by timestamp; lines without one (stack frames)
+    // belong to the window of the last timestamped line. Bounds are inclusive sortable timestamps.
+    public void scanRanges(InputStream in,
+                           Side before, long beforeFrom, long beforeTo,
+                           Side after, long afterFrom, long afterTo) throws IOException {
+        long current = LogTimestamps.NONE;
+        try (BufferedReader reader = reader(in)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (mayStartWithTimestamp(line)) {
+                    long ts = LogTimestamps.leading(line);
+                    if (ts != LogTimestamps.NONE) current = ts;
+                }
+                if (current == LogTimestamps.NONE) continue;
+
+                if (current >= beforeFrom && current <= beforeTo) {
+                    before.seen(current);
+                    accept(before, line);
+                }
+                if (current >= afterFrom && current <= afterTo) {
+                    after.seen(current);
+                    accept(after, line);
+                }
+            }
+        }
+    }
+
+    private void accept(Side side, String line) {
+        side.lines++;
+
+        // every signature source below needs "...Exception" somewhere on the line
+        if (line.indexOf("Exception") < 0) return;
+
+        String type;
+        String msg;
+        if (JsonLogLineParser.looksLikeJson(line) && jsonParser.parse(line, fields)) {
+            String[] signature = RuleBasedLogAnalyzer.jsonSignature(fields);
+            if (signature == null) return;
+            type = signature[0];
+            msg = signature[1] == null ? "" : signature[1];
+        } else {
+            Matcher matcher = RuleBasedLogAnalyzer.EXCEPTION_PATTERN.matcher(line);
+            if (!matcher.find()) return;
+            type = matcher.group(1);
+            msg = matcher.group(2);
+        }
+
+        String normalized = normalize(msg);
+        side.table.add(fingerprint(type, normalized), type, normalized, truncate(msg));
+        side.occurrences++;
+    }
+
+    public LogDiffResponse compare(Side before, Side after, double minIncrease, int minCount, int limit) {
+        LogDiffResponse response = new LogDiffResponse();
+        response.setBefore(window(before));
+        response.setAfter(window(after));
+
+        // rates per minute when both windows span time, otherwise per 1k lines
+        double beforeMinutes = minutes(before);
+        double afterMinutes = minutes(after);
+        boolean perMinute = beforeMinutes > 0 && afterMinutes > 0;
+        double beforeExposure = perMinute ? beforeMinutes : Math.max(1, before.lines) / 1000.0;
+        double afterExposure = perMinute ? afterMinutes : Math.max(1, after.lines) / 1000.0;
+        response.setRateUnit(perMinute ? "per minute" : "per 1k lines");
+
+        long[] a = before.table.sortedKeys();
+        long[] b = after.table.sortedKeys();
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                response.getDisappearedSignatures().add(change(a[i], before, after, beforeExposure, afterExposure));
+                i++;
+            } else if (i == a.length || b[j] < a[i]) {
+                response.getNewSignatures().add(change(b[j], before, after, beforeExposure, afterExposure));
+                j++;
+            } else {
+                SignatureChange c = change(a[i], before, after, beforeExposure, afterExposure);
+                if (c.getCountAfter() >= minCount && c.getRateChange() != null && c.getRateChange() >= minIncrease) {
+                    response.getIncreasedSignatures().add(c);
+                }
+                i++;
+                j++;
+            }
+        }
+
+        response.setNewSignatures(top(response.getNewSignatures(),
+                Comparator.comparingInt(SignatureChange::getCountAfter).reversed(), limit));
+        response.setDisappearedSignatures(top(response.getDisappearedSignatures(),
+                Comparator.comparingInt(SignatureChange::getCountBefore).reversed(), limit));
+        response.setIncreasedSignatures(top(response.getIncreasedSignatures(),
+                Comparator.comparingDouble(SignatureChange::getRateChange).reversed(), limit));
+        return response;
+    }
+
+    private static SignatureChange change(long key, Side before, Side after, double beforeExposure, double afterExposure) {
+        FingerprintTable source = before.table.count(key) > 0 ? before.table : after.table;
+        int countBefore = before.table.count(key);
+        int countAfter = after.table.count(key);
+        double rateBefore = countBefore / beforeExposure;
+        double rateAfter = countAfter / afterExposure;
+        Double rateChange = (countBefore > 0 && countAfter > 0) ? round(rateAfter / rateBefore) : null;
+
+        return new SignatureChange(
+                String.format("%016x", key),
+                source.type(key),
+                source.message(key),
+                source.example(key),
+                countBefore,
+                countAfter,
+                round(rateBefore),
+                round(rateAfter),
+                rateChange
+        );
+    }
+
+    private static DiffWindow window(Side side) {
+        return new DiffWindow(side.lines, side.occurrences, side.table.size(),
+                LogTimestamps.format(side.firstTs), LogTimestamps.format(side.lastTs), side.table.dropped());
+    }
+
+    private static double minutes(Side side) {
+        long first = LogTimestamps.toEpochMillis(side.firstTs);
+        long last = LogTimestamps.toEpochMillis(side.lastTs);
+        if (first == LogTimestamps.NONE || last == LogTimestamps.NONE || last <= first) return 0;
+        return (last - first) / 60_000.0;
+    }
+
+    private static List<SignatureChange> top(List<SignatureChange> changes, Comparator<SignatureChange> order, int limit) {
+        changes.sort(order);
+        return changes.size() > limit ? changes.subList(0, limit) : changes;
+    }
+
+    // Variable parts of a message collapse so that one failure mode maps to one fingerprint:
+    // every token (letters/digits/-/_/.) that contains a digit becomes '#' (ids, numbers, hosts, UUIDs).
+    static String normalize(String msg) {
+        if (msg == null) return "";
+        StringBuilder sb = new StringBuilder(Math.min(msg.length(), MAX_MESSAGE_CHARS));
+        int n = msg.length();
+        int i = 0;
+        while (i < n && sb.length() < MAX_MESSAGE_CHARS) {
+            char c = msg.charAt(i);
+            if (!isTokenChar(c)) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            int end = i;
+            boolean digit = false;
+            while (end < n && isTokenChar(msg.charAt(end))) {
+                if (Character.isDigit(msg.charAt(end))) digit = true;
+                end++;
+            }
+            if (digit) sb.append('#');
+            else sb.append(msg, i, Math.min(end, i + MAX_MESSAGE_CHARS - sb.length()));
+            i = end;
+        }
+        return sb.toString().trim();
+    }
+
+    static long fingerprint(String type, String normalizedMessage) {
+        return Hashing.hash64(type + '\u0000' + normalizedMessage);
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.';
+    }
+
+    static boolean mayStartWithTimestamp(String line) {
+        if (line.isEmpty()) return false;
+        char c = line.charAt(0);
+        return (c >= '0' && c <= '9') || c == '[' || c == '{';
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_MESSAGE_CHARS ? s : s.substring(0, MAX_MESSAGE_CHARS) + "...";
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 1000) / 1000.0;
+    }
+
+    private static BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.logtriage.engine;
+
+public enum LogFormat {
+    AUTO,
+    TEXT,
+    JSON;
+
+    private static final int SNIFF_LINES = 5;
+
+    public static LogFormat parse(String value) {
+        if (value == null || value.isBlank()) return AUTO;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported log format: " + value + " (expected auto, text or json)");
+        }
+    }
+
+    // AUTO picks JSON when the first non-blank lines are JSON objects.
+    public LogFormat resolve(AnalyzedLog analyzed) {
+        if (this != AUTO) return this;
+
+        int seen = 0;
+        int json = 0;
+        for (int i = 0; i < analyzed.lineCount() && seen < SNIFF_LINES; i++) {
+            String line = analyzed.line(i);
+            if (line.isBlank()) continue;
+            seen++;
+            if (JsonLogLineParser.looksLikeJson(line)) json++;
+        }
+        return seen > 0 && json * 2 > seen ? JSON : TEXT;
+    }
+}
@@ -0,0 +1,46 @@
+package com.logtriage.engine;
+
+import java.util.LinkedHashSet;
+
+// Raw per-log findings of the scan phase. Scans of independent inputs (zip entries, chunks)
+// are merged before RuleBasedLogAnalyzer.summarize builds a single response.
+public class LogScan {
+
+    static final int MAX_DETECTED_IDS = 3;
+
+    // Group by exceptionType only; bounded heavy-hitter counts + sampled example messages
+    final SignatureCounter signatures;
+
+    // keep the first few unique IDs (in order) for the ticket
+    final LinkedHashSet<String> ids = new LinkedHashSet<>();
+
+    boolean hasDbIssue;
+    boolean hasNpe;
+    boolean hasTimeout;
+
+    public LogScan() {
+        this(SignatureCounter.DEFAULT_CAPACITY);
+    }
+
+    public LogScan(int signatureCapacity) {
+        this.signatures = new SignatureCounter(signatureCapacity, SignatureCounter.DEFAULT_SAMPLES);
+    }
+
+    public LogScan merge(LogScan other) {
+        signatures.merge(other.signatures);
+
+        for (String id : other.ids) {
+            if (ids.size() >= MAX_DETECTED_IDS) break;
+            ids.add(id);
+        }
+
+        hasDbIssue |= other.hasDbIssue;
+        hasNpe |= other.hasNpe;
+        hasTimeout |= other.hasTimeout;
+        return this;
+    }
+
+    public int errorCount() {
+        return (int) signatures.total();
+    }
+}
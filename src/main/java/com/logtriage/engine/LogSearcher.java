@@ -0,0 +1,160 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.SearchMatch;
+import com.logtriage.model.SearchQuery;
+import com.logtriage.model.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Runs substring / exception type / id / time range queries against a searchable AnalyzedLog.
+// Trigram postings and block timestamp bounds prune blocks; only surviving lines are verified.
+public class LogSearcher {
+
+    private static final int MAX_CONTEXT = 20;
+    private static final int MAX_LIMIT = 1000;
+
+    public SearchResult search(AnalyzedLog log, SearchQuery query) {
+        if (!log.isSearchable()) {
+            throw new IllegalArgumentException("Analysis was stored without a search index.");
+        }
+
+        long t0 = System.nanoTime();
+        TrigramIndex index = log.searchIndex();
+
+        List<String> terms = new ArrayList<>();
+        if (notBlank(query.getQ())) terms.add(query.getQ());
+        if (notBlank(query.getExceptionType())) terms.add(query.getExceptionType());
+
+        // ids known to the correlation index give exact line postings, anything else is a plain term
+        int[] idLines = null;
+        if (notBlank(query.getId())) {
+            CorrelationIndex ids = log.correlationIndex();
+            if (ids.contains(query.getId())) idLines = ids.lines(query.getId());
+            else terms.add(query.getId());
+        }
+
+        int[] blocks = null;
+        for (String term : terms) {
+            int[] c = index.candidates(term);
+            if (c != null) blocks = (blocks == null) ? c : TrigramIndex.intersect(blocks, c);
+        }
+
+        boolean timed = notBlank(query.getFrom()) || notBlank(query.getTo());
+        long from = notBlank(query.getFrom()) ? LogTimestamps.lowerBound(query.getFrom()) : Long.MIN_VALUE;
+        long to = notBlank(query.getTo()) ? LogTimestamps.upperBound(query.getTo()) : Long.MAX_VALUE;
+
+        boolean ignoreCase = query.isIgnoreCase();
+        int context = Math.max(0, Math.min(MAX_CONTEXT, query.getContext()));
+        int limit = Math.max(1, Math.min(MAX_LIMIT, query.getLimit()));
+
+        List<SearchMatch> matches = new ArrayList<>();
+        boolean truncated = false;
+        int blocksScanned = 0;
+
+        if (idLines != null) {
+            int lastBlock = -1;
+            for (int line : idLines) {
+                int block = line / TrigramIndex.BLOCK_LINES;
+                if (blocks != null && Arrays.binarySearch(blocks, block) < 0) continue;
+                if (timed && !overlaps(log, block, from, to)) continue;
+                if (block != lastBlock) {
+                    blocksScanned++;
+                    lastBlock = block;
+                }
+
+                String text = log.line(line);
+                if (!containsAll(text, terms, ignoreCase)) continue;
+                if (timed && !inRange(effectiveTs(log, line), from, to)) continue;
+
+                if (matches.size() == limit) {
+                    truncated = true;
+                    break;
+                }
+                matches.add(match(log, line, context));
+            }
+        } else {
+            int blockCount = index.blockCount();
+            int n = (blocks == null) ? blockCount : blocks.length;
+
+            outer:
+            for (int b = 0; b < n; b++) {
+                int block = (blocks == null) ? b : blocks[b];
+                if (timed && !overlaps(log, block, from, to)) continue;
+                blocksScanned++;
+
+                int start = block * TrigramIndex.BLOCK_LINES;
+                int end = Math.min(log.lineCount(), start + TrigramIndex.BLOCK_LINES);
+                long ts = log.blockCarryTs(block);
+
+                for (int line = start; line < end; line++) {
+                    String text = log.line(line);
+                    if (timed) {
+                        long own = LogTimestamps.leading(text);
+                        if (own != LogTimestamps.NONE) ts = own;
+                        if (!inRange(ts, from, to)) continue;
+                    }
+                    if (!containsAll(text, terms, ignoreCase)) continue;
+
+                    if (matches.size() == limit) {
+                        truncated = true;
+                        break outer;
+                    }
+                    matches.add(match(log, line, context));
+                }
+            }
+        }
+
+        long tookMs = (System.nanoTime() - t0) / 1_000_000;
+        return new SearchResult(null, matches.size(), truncated, blocksScanned, tookMs, matches);
+    }
+
+    private SearchMatch match(AnalyzedLog log, int line, int context) {
+        List<String> before = new ArrayList<>(context);
+        for (int i = Math.max(0, line - context); i < line; i++) before.add(log.line(i));
+
+        List<String> after = new ArrayList<>(context);
+        for (int i = line + 1; i <= line + context && i < log.lineCount(); i++) after.add(log.line(i));
+
+        return new SearchMatch(line + 1, log.line(line), before, after);
+    }
+
+    private static boolean overlaps(AnalyzedLog log, int block, long from, long to) {
+        long max = log.blockMaxTs(block);
+        return max != LogTimestamps.NONE && max >= from && log.blockMinTs(block) <= to;
+    }
+
+    private static long effectiveTs(AnalyzedLog log, int line) {
+        int block = line / TrigramIndex.BLOCK_LINES;
+        long ts = log.blockCarryTs(block);
+        for (int i = block * TrigramIndex.BLOCK_LINES; i <= line; i++) {
+            long own = LogTimestamps.leading(log.line(i));
+            if (own != LogTimestamps.NONE) ts = own;
+        }
+        return ts;
+    }
+
+    private static boolean inRange(long ts, long from, long to) {
+        return ts != LogTimestamps.NONE && ts >= from && ts <= to;
+    }
+
+    private static boolean containsAll(String text, List<String> terms, boolean ignoreCase) {
+        for (String term : terms) {
+            if (ignoreCase ? !containsIgnoreCase(text, term) : !text.contains(term)) return false;
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(String text, String term) {
+        int max = text.length() - term.length();
+        for (int i = 0; i <= max; i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) return true;
+        }
+        return false;
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
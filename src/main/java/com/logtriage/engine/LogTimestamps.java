@@ -0,0 +1,97 @@
+package com.logtriage.engine;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Timestamps as sortable longs (yyyyMMddHHmmssSSS digits) so ranges compare without date parsing.
+public final class LogTimestamps {
+
+    public static final long NONE = -1L;
+
+    // Timestamp examples: 2026-03-18 10:16:05.987 or 2026-03-18T10:16:05
+    public static final Pattern TIMESTAMP_PATTERN = Pattern.compile(
+            "(\\d{4}-\\d{2}-\\d{2}[ T]\\d{2}:\\d{2}:\\d{2}(?:\\.\\d{1,3})?)"
+    );
+
+    // only look near the start of a line; that's where log layouts put the timestamp
+    private static final int LEADING_WINDOW = 40;
+
+    private static final int DIGITS = 17;
+
+    private LogTimestamps() {
+    }
+
+    public static long leading(String line) {
+        Matcher m = TIMESTAMP_PATTERN.matcher(line);
+        m.region(0, Math.min(LEADING_WINDOW, line.length()));
+        return m.find() ? toSortable(m.group(1), '0') : NONE;
+    }
+
+    // Timestamp taken from a structured field (e.g. JSON "@timestamp"); NONE unless it starts like yyyy-MM-dd.
+    public static long ofField(String ts) {
+        if (ts == null || ts.length() < 10 || ts.charAt(4) != '-' || ts.charAt(7) != '-') return NONE;
+        return toSortable(ts, '0');
+    }
+
+    // Lower bound of a (possibly partial) user-supplied timestamp, e.g. "2026-03-18 10:15".
+    public static long lowerBound(String ts) {
+        return toSortable(ts, '0');
+    }
+
+    // Upper bound of a (possibly partial) user-supplied timestamp: missing digits are maxed out.
+    public static long upperBound(String ts) {
+        return toSortable(ts, '9');
+    }
+
+    // Milliseconds (UTC wall clock) of a sortable timestamp, for durations; NONE if it isn't a valid date.
+    public static long toEpochMillis(long sortable) {
+        if (sortable == NONE) return NONE;
+        try {
+            LocalDateTime t = LocalDateTime.of(
+                    (int) (sortable / 10_000_000_000_000L),
+                    (int) (sortable / 100_000_000_000L % 100),
+                    (int) (sortable / 1_000_000_000L % 100),
+                    (int) (sortable / 10_000_000L % 100),
+                    (int) (sortable / 100_000L % 100),
+                    (int) (sortable / 1_000L % 100),
+                    (int) (sortable % 1_000) * 1_000_000);
+            return t.toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeException e) {
+            return NONE;
+        }
+    }
+
+    // yyyy-MM-dd HH:mm:ss.SSS
+    public static String format(long sortable) {
+        if (sortable == NONE) return null;
+        String d = String.format("%017d", sortable);
+        return d.substring(0, 4) + "-" + d.substring(4, 6) + "-" + d.substring(6, 8)
+                + " " + d.substring(8, 10) + ":" + d.substring(10, 12) + ":" + d.substring(12, 14)
+                + "." + d.substring(14);
+    }
+
+    private static long toSortable(String ts, char pad) {
+        if (ts == null) return NONE;
+
+        long v = 0;
+        int digits = 0;
+        for (int i = 0; i < ts.length() && digits < DIGITS; i++) {
+            char c = ts.charAt(i);
+            if (c >= '0' && c <= '9') {
+                v = v * 10 + (c - '0');
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Invalid timestamp: " + ts);
+        }
+
+        for (; digits < DIGITS; digits++) {
+            v = v * 10 + (pad - '0');
+        }
+        return v;
+    }
+}
@@ -0,0 +1,77 @@
+package com.logtriage.engine;
+
+import java.util.Arrays;
+
+// MinHash signatures over sets of 64-bit feature hashes, plus the LSH band keys used to bucket them.
+// The K hash functions are multiply-shift permutations of one fmix64 hash, with fixed seeds,
+// so signatures stay comparable across restarts (they are persisted by the incident index).
+// Two sets share each signature slot with probability = their Jaccard similarity.
+public final class MinHash {
+
+    public static final int K = 64;
+    public static final int BANDS = 16;
+    public static final int ROWS = K / BANDS;
+
+    private static final long[] A = new long[K];
+    private static final long[] B = new long[K];
+
+    static {
+        long seed = 0x5eed_1dc1_de47_0001L;
+        for (int i = 0; i < K; i++) {
+            seed = splitMix(seed);
+            A[i] = seed | 1;
+            seed = splitMix(seed);
+            B[i] = seed;
+        }
+    }
+
+    private MinHash() {
+    }
+
+    public static int[] sketch(long[] features) {
+        int[] sig = new int[K];
+        Arrays.fill(sig, Integer.MAX_VALUE);
+        for (long f : features) {
+            long h = fmix64(f);
+            for (int i = 0; i < K; i++) {
+                int v = (int) ((A[i] * h + B[i]) >>> 33);
+                if (v < sig[i]) sig[i] = v;
+            }
+        }
+        return sig;
+    }
+
+    // Estimated Jaccard similarity: share of equal slots.
+    public static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < K; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / K;
+    }
+
+    // Key of one band (ROWS consecutive slots); the band number is mixed in so bands share one table.
+    public static int bandKey(int[] sig, int band) {
+        long h = 0x9e3779b97f4a7c15L * (band + 1);
+        for (int r = 0; r < ROWS; r++) {
+            h = (h ^ sig[band * ROWS + r]) * 0x100000001b3L;
+        }
+        return (int) (fmix64(h) >>> 32);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85ec5L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long splitMix(long x) {
+        x += 0x9e3779b97f4a7c15L;
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -1,7 +1,9 @@
 package com.logtriage.engine;
 
+import com.logtriage.model.BlastRadius;
 import com.logtriage.model.ErrorSignature;
 import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.ticket.TicketFormatter;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -9,62 +11,319 @@ import java.util.regex.Pattern;
 
 public class RuleBasedLogAnalyzer {
 
-    private static final Pattern EXCEPTION_PATTERN =
+    static final Pattern EXCEPTION_PATTERN =
             Pattern.compile("(\\w+Exception):?\\s*(.*)");
 
     // Common correlation/request/trace id patterns
-    private static final Pattern ID_PATTERN = Pattern.compile(
+    static final Pattern ID_PATTERN = Pattern.compile(
             "(correlationId|correlation_id|requestId|request_id|traceId|trace_id|x-request-id|x-correlation-id)\\s*[:=]\\s*([a-zA-Z0-9\\-]{6,})",
             Pattern.CASE_INSENSITIVE
     );
 
-    // Timestamp examples: 2026-03-18 10:16:05.987 or 2026-03-18T10:16:05
-    private static final Pattern TIMESTAMP_PATTERN = Pattern.compile(
-            "(\\d{4}-\\d{2}-\\d{2}[ T]\\d{2}:\\d{2}:\\d{2}(?:\\.\\d{1,3})?)"
-    );
+    private static final byte[][] LEVELS = {
+            ByteScanner.ascii("ERROR"), ByteScanner.ascii("WARN"), ByteScanner.ascii("INFO"),
+            ByteScanner.ascii("DEBUG"), ByteScanner.ascii("TRACE"), ByteScanner.ascii("FATAL")
+    };
+
+    // byte-level prefilters: a line is only handed to a regex when it can match
+    private static final byte[] EXCEPTION_BYTES = ByteScanner.ascii("Exception");
+    private static final byte[] ERROR_BYTES = ByteScanner.ascii("ERROR");
+
+    // whole-log classification keywords (case-insensitive)
+    private static final byte[][] DB_KEYWORDS = {
+            ByteScanner.ascii("connection refused"),
+            ByteScanner.ascii("could not open connection"),
+            ByteScanner.ascii("sqltransientconnectionexception")
+    };
+    private static final byte[] NPE_KEYWORD = ByteScanner.ascii("nullpointerexception");
+    private static final byte[][] TIMEOUT_KEYWORDS = {
+            ByteScanner.ascii("timeout"),
+            ByteScanner.ascii("timed out")
+    };
+
+    // Default host / user extractors for text lines (group 1 = value); configurable per deployment
+    public static final String DEFAULT_HOST_PATTERN =
+            "(?i)\\b(?:host|hostname|pod|instance)\\s*[:=]\\s*\"?([\\w.\\-]+)";
+    public static final String DEFAULT_USER_PATTERN =
+            "(?i)\\b(?:user|userId|user_id|username)\\s*[:=]\\s*\"?([\\w.@\\-]+)";
+
+    private final int signatureCapacity;
+    private final Pattern hostPattern;
+    private final Pattern userPattern;
+
+    public RuleBasedLogAnalyzer() {
+        this(SignatureCounter.DEFAULT_CAPACITY);
+    }
+
+    // signatureCapacity: distinct signatures tracked exactly before counts become Space-Saving estimates
+    public RuleBasedLogAnalyzer(int signatureCapacity) {
+        this(signatureCapacity, Pattern.compile(DEFAULT_HOST_PATTERN), Pattern.compile(DEFAULT_USER_PATTERN));
+    }
+
+    // hostPattern / userPattern: null disables that extractor
+    public RuleBasedLogAnalyzer(int signatureCapacity, Pattern hostPattern, Pattern userPattern) {
+        this.signatureCapacity = signatureCapacity;
+        this.hostPattern = hostPattern;
+        this.userPattern = userPattern;
+    }
+
+    public LogScan newScan() {
+        return new LogScan(signatureCapacity);
+    }
 
     public LogAnalysisResponse analyze(String log) {
-        LogAnalysisResponse response = new LogAnalysisResponse();
+        return analyze(new AnalyzedLog(log));
+    }
 
-        List<String> issues = new ArrayList<>();
-        List<String> steps = new ArrayList<>();
+    // Standalone use (tests, benchmarks, warm-up): the summary plus ticket and grep suggestions,
+    // as the API returns them without AI. The service formats those itself, only when requested.
+    public LogAnalysisResponse analyze(AnalyzedLog analyzed) {
+        LogAnalysisResponse r = summarize(scan(analyzed));
+        r.setTicketTitle(TicketFormatter.buildTitle(r));
+        r.setTicketBody(new TicketFormatter().format(r));
+        r.setSuggestedGrepQueries(TicketFormatter.buildSuggestedGrepQueries(r, "app.log"));
+        return r;
+    }
+
+    public LogScan scan(AnalyzedLog analyzed) {
+        return scan(analyzed, LogFormat.AUTO);
+    }
 
-        // Group by exceptionType only
-        Map<String, Integer> countsByType = new HashMap<>();
-        Map<String, String> exampleMsgByType = new HashMap<>();
+    // Single pass over the lines: error signatures, error-line flags, the correlation-id index
+    // and (for searchable logs) the trigram index are all filled in from the same loop.
+    // In JSON mode each JSON line contributes its extracted fields instead of raw-text matches.
+    // Text lines are prefiltered on the byte view: the regexes only see lines containing
+    // "Exception" or an id key, and no String is cut out of the text for the other lines
+    // unless the search index needs it.
+    public LogScan scan(AnalyzedLog analyzed, LogFormat format) {
+        LogScan scan = newScan();
+
+        byte[] bytes = analyzed.latin1();
+        ByteScanner.Cursor exceptions = new ByteScanner.Cursor(bytes, EXCEPTION_BYTES);
+        ByteScanner.Cursor errors = new ByteScanner.Cursor(bytes, ERROR_BYTES);
+        ByteScanner.Cursor idKeys = new ByteScanner.Cursor(bytes, null);
+        boolean indexing = analyzed.isSearchable();
+
+        CorrelationIndex idIndex = analyzed.correlationIndex();
+
+        boolean jsonMode = format.resolve(analyzed) == LogFormat.JSON;
+        JsonLogLineParser jsonParser = jsonMode ? new JsonLogLineParser() : null;
+        JsonLogLineParser.Fields fields = jsonMode ? new JsonLogLineParser.Fields() : null;
+
+        // ids / host / user of the current log event; stack-trace lines inherit them
+        EventContext event = new EventContext();
+
+        // ---- Extract & group error signatures (by type), index correlation ids ----
+        for (int i = 0; i < analyzed.lineCount(); i++) {
+            int start = analyzed.lineStart(i);
+            int end = analyzed.lineEnd(i);
+            String line = null;
+
+            if (jsonMode) {
+                line = analyzed.line(i);
+                if (JsonLogLineParser.looksLikeJson(line) && jsonParser.parse(line, fields)) {
+                    scanJsonLine(analyzed, scan, i, line, fields);
+                    continue;
+                }
+            }
 
-        String safeLog = log == null ? "" : log;
-        String lower = safeLog.toLowerCase();
-        String[] lines = safeLog.split("\\r?\\n");
+            if (startsEvent(bytes, start, end)) event.reset(i);
 
-        // ---- Extract & group error signatures (by type) ----
-        for (String line : lines) {
-            Matcher matcher = EXCEPTION_PATTERN.matcher(line);
-            if (matcher.find()) {
-                String type = matcher.group(1);
-                String msg = matcher.group(2);
+            boolean errorLine = false;
+            SignatureCounter.Slot slot = null;
+            if (exceptions.within(start, end)) {
+                line = line != null ? line : analyzed.line(i);
+                Matcher matcher = EXCEPTION_PATTERN.matcher(line);
+                if (matcher.find()) {
+                    String type = matcher.group(1);
+                    String msg = matcher.group(2);
 
-                countsByType.put(type, countsByType.getOrDefault(type, 0) + 1);
-                exampleMsgByType.putIfAbsent(type, msg);
+                    slot = scan.signatures.add(type, msg);
+                    errorLine = true;
+                }
+            }
+            if (!errorLine && errors.within(start, end)) errorLine = true;
+            if (errorLine) analyzed.markError(i);
+
+            if (idKeys.within(start, end)) {
+                line = line != null ? line : analyzed.line(i);
+                Matcher idMatcher = ID_PATTERN.matcher(line);
+                while (idMatcher.find()) {
+                    String id = idMatcher.group(2);
+                    idIndex.add(id, i, errorLine);
+                    if (scan.ids.size() < LogScan.MAX_DETECTED_IDS) scan.ids.add(id);
+                    if (isTraceKey(idMatcher.group(1))) event.traceIds.add(id);
+                    else event.requestIds.add(id);
+                }
             }
+            if (slot != null) event.applyTo(slot.blastRadius(), analyzed, hostPattern, userPattern);
+
+            if (indexing) analyzed.indexLine(i, line != null ? line : analyzed.line(i));
         }
+        analyzed.finishIndexing();
+
+        // "read timed out" is covered by "timed out"
+        scan.hasDbIssue = containsAny(bytes, DB_KEYWORDS);
+        scan.hasNpe = ByteScanner.containsIgnoreCase(bytes, NPE_KEYWORD);
+        scan.hasTimeout = containsAny(bytes, TIMEOUT_KEYWORDS);
+
+        return scan;
+    }
+
+    private void scanJsonLine(AnalyzedLog analyzed, LogScan scan, int i, String line, JsonLogLineParser.Fields f) {
+        String[] signature = jsonSignature(f);
+        String type = signature == null ? null : signature[0];
+        String msg = signature == null ? null : signature[1];
+
+        boolean errorLine = type != null || f.isErrorLevel();
+        if (errorLine) analyzed.markError(i);
+
+        for (String id : f.ids) {
+            analyzed.correlationIndex().add(id, i, errorLine);
+            if (scan.ids.size() < LogScan.MAX_DETECTED_IDS) scan.ids.add(id);
+        }
+        for (String id : f.traceIds) {
+            analyzed.correlationIndex().add(id, i, errorLine);
+            if (scan.ids.size() < LogScan.MAX_DETECTED_IDS) scan.ids.add(id);
+        }
+
+        if (type != null) {
+            BlastRadiusSketch radius = scan.signatures.add(type, msg == null ? "" : msg).blastRadius();
+            for (String id : f.ids) radius.addRequestId(id);
+            for (String id : f.traceIds) radius.addTraceId(id);
+            if (f.host != null && !f.host.isBlank()) radius.addHost(f.host);
+            if (f.user != null && !f.user.isBlank()) radius.addUser(f.user);
+        }
+
+        analyzed.indexLine(i, line, LogTimestamps.ofField(f.timestamp));
+    }
+
+    // {exceptionType, message} of a parsed JSON line, or null if it carries no exception
+    static String[] jsonSignature(JsonLogLineParser.Fields f) {
+        if (f.errorType != null && !f.errorType.isBlank()) {
+            return new String[]{simpleName(f.errorType), f.errorMessage != null ? f.errorMessage : f.message};
+        }
+        // no explicit type: first line of the (already unescaped) stack trace, then the message
+        String source = f.stackTrace != null ? firstLine(f.stackTrace) : f.message;
+        if (source != null) {
+            Matcher matcher = EXCEPTION_PATTERN.matcher(source);
+            if (matcher.find()) return new String[]{matcher.group(1), matcher.group(2)};
+        }
+        return null;
+    }
+
+    // A new log event starts with a timestamp, a bracketed prefix or a level;
+    // anything else (stack frames, "java.lang.X: msg", "Caused by:") continues the previous one.
+    private static boolean startsEvent(byte[] bytes, int start, int end) {
+        if (start == end) return false;
+        byte c = bytes[start];
+        if ((c >= '0' && c <= '9') || c == '[') return true;
+        for (byte[] level : LEVELS) {
+            if (end - start >= level.length && ByteScanner.indexOf(bytes, start, start + level.length, level) == start) return true;
+        }
+        return false;
+    }
+
+    // same rule on chars (LogChunker cuts chunks only where an event starts)
+    static boolean startsEvent(char[] text, int start, int end) {
+        if (start == end) return false;
+        char c = text[start];
+        if ((c >= '0' && c <= '9') || c == '[') return true;
+        for (byte[] level : LEVELS) {
+            if (end - start < level.length) continue;
+            int j = 0;
+            while (j < level.length && text[start + j] == level[j]) j++;
+            if (j == level.length) return true;
+        }
+        return false;
+    }
+
+    private static boolean containsAny(byte[] bytes, byte[][] lowerKeywords) {
+        for (byte[] keyword : lowerKeywords) {
+            if (ByteScanner.containsIgnoreCase(bytes, keyword)) return true;
+        }
+        return false;
+    }
 
+    private static boolean isTraceKey(String key) {
+        return key.regionMatches(true, 0, "trace", 0, 5);
+    }
+
+    private static String extract(Pattern pattern, String line) {
+        if (pattern == null) return null;
+        Matcher m = pattern.matcher(line);
+        return m.find() ? m.group(1) : null;
+    }
+
+    // host / user are extracted from the event's first line only once a signature lands in the event
+    private static final class EventContext {
+        final List<String> requestIds = new ArrayList<>(2);
+        final List<String> traceIds = new ArrayList<>(2);
+        int firstLine = -1;
+        boolean extracted;
+        String host;
+        String user;
+
+        void reset(int line) {
+            requestIds.clear();
+            traceIds.clear();
+            firstLine = line;
+            extracted = false;
+            host = null;
+            user = null;
+        }
+
+        void applyTo(BlastRadiusSketch radius, AnalyzedLog analyzed, Pattern hostPattern, Pattern userPattern) {
+            if (!extracted && firstLine >= 0) {
+                String line = analyzed.line(firstLine);
+                host = extract(hostPattern, line);
+                user = extract(userPattern, line);
+                extracted = true;
+            }
+            for (String id : requestIds) radius.addRequestId(id);
+            for (String id : traceIds) radius.addTraceId(id);
+            if (host != null) radius.addHost(host);
+            if (user != null) radius.addUser(user);
+        }
+    }
+
+    private static String simpleName(String type) {
+        String t = type.trim();
+        int dot = t.lastIndexOf('.');
+        return dot >= 0 ? t.substring(dot + 1) : t;
+    }
+
+    private static String firstLine(String s) {
+        int nl = s.indexOf('\n');
+        return nl >= 0 ? s.substring(0, nl) : s;
+    }
+
+    // Classification only (severity, issues, cause, steps, signatures, ids): cheap enough to run on
+    // every progress update of a job. Tickets and grep suggestions are formatted by the caller.
+    public LogAnalysisResponse summarize(LogScan scan) {
+        LogAnalysisResponse response = new LogAnalysisResponse();
+
+        List<String> issues = new ArrayList<>();
+        List<String> steps = new ArrayList<>();
+
+        LinkedHashSet<String> ids = scan.ids;
+
+        // already ordered by count desc; error > 0 only once distinct types exceed the capacity
         List<ErrorSignature> signatures = new ArrayList<>();
-        for (Map.Entry<String, Integer> e : countsByType.entrySet()) {
-            String type = e.getKey();
-            int count = e.getValue();
-            String example = exampleMsgByType.getOrDefault(type, "");
-            signatures.add(new ErrorSignature(type, example, count));
+        for (SignatureCounter.Slot slot : scan.signatures.top()) {
+            String example = slot.firstExample() == null ? "" : slot.firstExample();
+            BlastRadius radius = null;
+            if (slot.hasBlastRadius()) {
+                BlastRadiusSketch b = slot.blastRadius();
+                radius = new BlastRadius(b.requestIds(), b.traceIds(), b.hosts(), b.users());
+            }
+            signatures.add(new ErrorSignature(slot.key(), example, slot.count(), slot.error(), slot.examples(), radius));
         }
 
-        signatures.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
         response.setTopErrorSignatures(signatures);
 
         // ---- Rule-based classification with priority (DB > NPE > Timeout) ----
-        boolean hasDbIssue = lower.contains("connection refused")
-                || lower.contains("could not open connection")
-                || lower.contains("sqltransientconnectionexception");
-
+        boolean hasDbIssue = scan.hasDbIssue;
         if (hasDbIssue) {
             issues.add("Database connectivity issue detected");
             response.setSeverity("HIGH");
@@ -75,7 +334,7 @@ public class RuleBasedLogAnalyzer {
             steps.add("Review connection pool metrics/timeouts and recent deployment changes.");
         }
 
-        boolean hasNpe = lower.contains("nullpointerexception");
+        boolean hasNpe = scan.hasNpe;
         if (hasNpe) {
             issues.add("NullPointerException detected");
             if (response.getSeverity() == null) response.setSeverity("HIGH");
@@ -87,7 +346,7 @@ public class RuleBasedLogAnalyzer {
             steps.add("Add null-checks / validation and improve logging around inputs.");
         }
 
-        boolean hasTimeout = lower.contains("timeout") || lower.contains("timed out") || lower.contains("read timed out");
+        boolean hasTimeout = scan.hasTimeout;
         if (hasTimeout) {
             issues.add("Timeout detected");
             if (response.getSeverity() == null) response.setSeverity("MEDIUM");
@@ -105,77 +364,7 @@ public class RuleBasedLogAnalyzer {
             steps.add("Share timestamp, request id/correlation id, and environment info if available.");
         }
 
-        // ---- Suggested grep queries (exceptions + correlation/request ids + timestamp hint) ----
-        List<String> grepQueries = new ArrayList<>();
-
-        // grep by exception type
-        for (ErrorSignature s : signatures) {
-            grepQueries.add("grep -n \"" + s.getExceptionType() + "\" app.log");
-        }
-
-        // extract up to 3 unique IDs (keep order)
-        LinkedHashSet<String> ids = new LinkedHashSet<>();
-        Matcher idMatcher = ID_PATTERN.matcher(safeLog);
-        while (idMatcher.find() && ids.size() < 3) {
-            ids.add(idMatcher.group(2));
-        }
-
-        for (String id : ids) {
-            grepQueries.add("grep -n \"" + id + "\" app.log");
-            grepQueries.add("grep -n \"ERROR\" app.log | grep \"" + id + "\"");
-        }
-
-        // timestamp hint (capture first timestamp if exists)
-        Matcher tsMatcher = TIMESTAMP_PATTERN.matcher(safeLog);
-        if (tsMatcher.find()) {
-            String ts = tsMatcher.group(1);
-            grepQueries.add("# Tip: start from the first seen timestamp and inspect ±5 minutes window");
-            grepQueries.add("grep -n \"" + ts.substring(0, 10) + "\" app.log | head -n 200");
-        } else {
-            grepQueries.add("# Tip: filter around the incident time window (±5 min) if you have timestamps");
-            grepQueries.add("# Example: grep -n \"2026-\" app.log | head -n 200");
-        }
-
-        response.setSuggestedGrepQueries(grepQueries);
-
-        // ---- Ticket generation ----
-        String title = "Incident: Log analysis result (" + response.getSeverity() + ")";
-        if (hasDbIssue) title = "Incident: Database connectivity issue (HIGH)";
-        else if (hasNpe) title = "Incident: NullPointerException in production (HIGH)";
-        else if (hasTimeout) title = "Incident: Timeout while calling dependency (MEDIUM)";
-
-        StringBuilder body = new StringBuilder();
-        body.append("Summary: ").append(response.getPossibleRootCause()).append("\n\n");
-
-        body.append("Top error signatures:\n");
-        for (ErrorSignature s : signatures) {
-            body.append("- ")
-                    .append(s.getExceptionType())
-                    .append(" (")
-                    .append(s.getCount())
-                    .append(" occurrences)");
-            if (s.getMessage() != null && !s.getMessage().isBlank()) {
-                body.append(" | example: ").append(s.getMessage());
-            }
-            body.append("\n");
-        }
-
-        if (!ids.isEmpty()) {
-            body.append("\nDetected IDs:\n");
-            for (String id : ids) body.append("- ").append(id).append("\n");
-        }
-
-        body.append("\nRecommended next steps:\n");
-        for (String s : steps) body.append("- ").append(s).append("\n");
-
-        body.append("\nContext to request:\n");
-        body.append("- Timestamp range (+/- 5 min)\n");
-        body.append("- Request ID / Correlation ID (if available)\n");
-        body.append("- Environment (prod/stage) and deployment version\n");
-
-        response.setTicketTitle(title);
-        response.setTicketBody(body.toString());
-
+        response.setDetectedIds(new ArrayList<>(ids));
         response.setDetectedIssues(issues);
         response.setNextSteps(steps);
 
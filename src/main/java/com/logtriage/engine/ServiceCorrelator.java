@@ -0,0 +1,470 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.CorrelatedEvent;
+import com.logtriage.model.CorrelationResponse;
+import com.logtriage.model.ServiceLogSummary;
+import com.logtriage.model.ServiceOccurrence;
+import com.logtriage.model.SharedId;
+import com.logtriage.model.SignaturePropagation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+
+// Correlates the logs of several services (one input per service) on a single timeline.
+// The inputs are merged by timestamp with a k-way heap merge: each input is read line by line
+// through a Cursor that only holds its next event, so memory depends on the number of inputs
+// (plus the bounded tables below), never on their size.
+//  - An event is a timestamped line (or a JSON line) plus the lines without a timestamp after it
+//    (stack frames). Inputs are assumed sorted: one whose timestamps go back (threads flushing
+//    late) is merged in file order, keyed by the running maximum of its timestamps.
+//  - Error events (ERROR / FATAL level or an exception) give each service's first error, the
+//    order in which services started failing, and per signature (exception type + normalized
+//    message, fingerprinted as in LogDiffer) the services it reached, in order.
+//  - Correlation ids are tracked in an LRU table of maxTrackedIds: merged in time order, the lines
+//    of one request across services are close together, so the ids evicted are long finished.
+public class ServiceCorrelator {
+
+    public static final int MAX_INPUTS = 64;
+    public static final int DEFAULT_MAX_SIGNATURES = 10_000;
+    public static final int DEFAULT_MAX_TRACKED_IDS = 100_000;
+
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+    private static final int MAX_MESSAGE_CHARS = 200;
+    private static final int MAX_EVENT_IDS = 8;
+
+    private final int maxSignatures;
+    private final int maxTrackedIds;
+
+    public ServiceCorrelator() {
+        this(DEFAULT_MAX_SIGNATURES, DEFAULT_MAX_TRACKED_IDS);
+    }
+
+    public ServiceCorrelator(int maxSignatures, int maxTrackedIds) {
+        this.maxSignatures = maxSignatures;
+        this.maxTrackedIds = maxTrackedIds;
+    }
+
+    // services[i] names inputs[i]; the streams are read to the end but not closed.
+    // timelineLimit caps the merged error events returned, limit the signatures and shared ids.
+    public CorrelationResponse correlate(List<String> services, List<InputStream> inputs,
+                                         int timelineLimit, int limit) throws IOException {
+        if (services.size() != inputs.size()) {
+            throw new IllegalArgumentException("One service name per input is required.");
+        }
+        if (inputs.size() > MAX_INPUTS) {
+            throw new IllegalArgumentException("At most " + MAX_INPUTS + " logs can be correlated.");
+        }
+
+        Merge merge = new Merge(services, timelineLimit, limit);
+        List<Cursor> cursors = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            cursors.add(new Cursor(i, inputs.get(i)));
+        }
+
+        // ties (same timestamp) go to the input listed first
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, cursors.size()),
+                Comparator.comparingLong((Cursor c) -> c.key).thenComparingInt(c -> c.index));
+        for (Cursor c : cursors) {
+            if (c.advance()) heap.add(c);
+        }
+        while (!heap.isEmpty()) {
+            Cursor c = heap.poll();
+            merge.accept(c);
+            if (c.advance()) heap.add(c);
+        }
+
+        return merge.result(cursors);
+    }
+
+    // ---- one input ----
+
+    private static final class Cursor {
+        final int index;
+        final BufferedReader reader;
+        final JsonLogLineParser jsonParser = new JsonLogLineParser();
+        final JsonLogLineParser.Fields fields = new JsonLogLineParser.Fields();
+
+        // first line of the next event, already read
+        String pending;
+        long pendingTs = LogTimestamps.NONE;
+
+        // current event
+        String header;
+        long ts;
+        long key = LogTimestamps.NONE;
+        int lines;
+        boolean levelError;
+        String type;
+        String message;
+        final List<String> ids = new ArrayList<>(MAX_EVENT_IDS);
+
+        // per-service totals
+        long lineCount;
+        long events;
+        long errorEvents;
+        long untimedLines;
+        long firstTs = LogTimestamps.NONE;
+        long lastTs = LogTimestamps.NONE;
+        boolean failed;
+        long firstErrorTs = LogTimestamps.NONE;
+        String firstErrorSignature;
+
+        Cursor(int index, InputStream in) {
+            this.index = index;
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+        }
+
+        // Reads the next event; false at the end of the input.
+        boolean advance() throws IOException {
+            String first = pending;
+            long firstLineTs = pendingTs;
+            pending = null;
+            if (first == null) {
+                first = reader.readLine();
+                if (first == null) return false;
+                firstLineTs = textTimestamp(first);
+            }
+            start(first, firstLineTs);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (JsonLogLineParser.looksLikeJson(line)) {
+                    pending = line;
+                    pendingTs = LogTimestamps.NONE;
+                    break;
+                }
+                long lineTs = textTimestamp(line);
+                if (lineTs != LogTimestamps.NONE) {
+                    pending = line;
+                    pendingTs = lineTs;
+                    break;
+                }
+                lines++;
+                exception(line);
+                ids(line);
+            }
+
+            // an error line without an exception in its event: the text after the level
+            if (type == null && levelError) {
+                type = "ERROR";
+                message = afterLevel(header);
+            }
+            if (ts > key) key = ts;
+            return true;
+        }
+
+        boolean isError() {
+            return type != null;
+        }
+
+        private void start(String line, long lineTs) {
+            header = line;
+            lines = 1;
+            levelError = false;
+            type = null;
+            message = null;
+            ids.clear();
+
+            if (JsonLogLineParser.looksLikeJson(line) && jsonParser.parse(line, fields)) {
+                ts = LogTimestamps.ofField(fields.timestamp);
+                String[] signature = RuleBasedLogAnalyzer.jsonSignature(fields);
+                if (signature != null) {
+                    type = signature[0];
+                    message = signature[1];
+                }
+                levelError = fields.isErrorLevel();
+                if (type == null && levelError) header = fields.message == null ? "" : "ERROR " + fields.message;
+                for (String id : fields.ids) addId(id);
+                for (String id : fields.traceIds) addId(id);
+                return;
+            }
+
+            ts = lineTs;
+            levelError = line.contains("ERROR") || line.contains("FATAL");
+            exception(line);
+            ids(line);
+        }
+
+        private void exception(String line) {
+            if (type != null || line.indexOf("Exception") < 0) return;
+            Matcher matcher = RuleBasedLogAnalyzer.EXCEPTION_PATTERN.matcher(line);
+            if (matcher.find()) {
+                type = matcher.group(1);
+                message = matcher.group(2);
+            }
+        }
+
+        private void ids(String line) {
+            if (!hasIdKey(line)) return;
+            Matcher matcher = RuleBasedLogAnalyzer.ID_PATTERN.matcher(line);
+            while (matcher.find()) addId(matcher.group(2));
+        }
+
+        private void addId(String id) {
+            if (id != null && !id.isBlank() && ids.size() < MAX_EVENT_IDS && !ids.contains(id)) ids.add(id);
+        }
+    }
+
+    // ---- merged state ----
+
+    private final class Merge {
+        final List<String> services;
+        final int timelineLimit;
+        final int limit;
+        final CorrelationResponse response = new CorrelationResponse();
+        long sequence;
+        long firstErrorTs = LogTimestamps.NONE;
+
+        final Map<Long, SignatureEntry> signatures = new HashMap<>();
+        long droppedSignatureOccurrences;
+
+        final PriorityQueue<IdEntry> topShared;
+        long evictedIds;
+        final LinkedHashMap<String, IdEntry> idTable = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdEntry> eldest) {
+                if (size() <= maxTrackedIds) return false;
+                evictedIds++;
+                offerShared(eldest.getValue());
+                return true;
+            }
+        };
+
+        Merge(List<String> services, int timelineLimit, int limit) {
+            this.services = services;
+            this.timelineLimit = timelineLimit;
+            this.limit = limit;
+            // worst of the kept ones on top
+            this.topShared = new PriorityQueue<>(SHARED_ORDER.reversed());
+        }
+
+        void accept(Cursor c) {
+            c.events++;
+            c.lineCount += c.lines;
+            if (c.ts == LogTimestamps.NONE) {
+                c.untimedLines += c.lines;
+            } else {
+                if (c.firstTs == LogTimestamps.NONE) c.firstTs = c.ts;
+                c.lastTs = Math.max(c.lastTs, c.ts);
+            }
+
+            boolean error = c.isError();
+            for (String id : c.ids) {
+                IdEntry entry = idTable.get(id);
+                if (entry == null) {
+                    entry = new IdEntry(sequence++, id);
+                    idTable.put(id, entry);
+                }
+                entry.add(c.index, c.ts, error);
+            }
+            if (!error) return;
+
+            c.errorEvents++;
+            String signature = c.message == null || c.message.isBlank() ? c.type : c.type + ": " + truncate(c.message);
+            if (!c.failed) {
+                c.failed = true;
+                c.firstErrorTs = c.ts;
+                c.firstErrorSignature = signature;
+                response.getFailureOrder().add(services.get(c.index));
+            }
+            if (response.getFirstError() == null || response.getTimeline().size() < timelineLimit) {
+                CorrelatedEvent event = new CorrelatedEvent(LogTimestamps.format(c.ts), services.get(c.index),
+                        c.type, c.message == null ? null : truncate(c.message), List.copyOf(c.ids));
+                if (response.getFirstError() == null) {
+                    response.setFirstError(event);
+                    firstErrorTs = c.ts;
+                }
+                if (response.getTimeline().size() < timelineLimit) response.getTimeline().add(event);
+            }
+
+            String normalized = LogDiffer.normalize(c.message);
+            long key = LogDiffer.fingerprint(c.type, normalized);
+            SignatureEntry entry = signatures.get(key);
+            if (entry == null) {
+                if (signatures.size() >= maxSignatures) {
+                    droppedSignatureOccurrences++;
+                    return;
+                }
+                entry = new SignatureEntry(sequence++, key, c.type, normalized, c.message == null ? "" : truncate(c.message), services.size());
+                signatures.put(key, entry);
+            }
+            entry.add(c.index, c.ts);
+        }
+
+        CorrelationResponse result(List<Cursor> cursors) {
+            long firstErrorMillis = LogTimestamps.toEpochMillis(firstErrorTs);
+            for (Cursor c : cursors) {
+                response.getServices().add(new ServiceLogSummary(
+                        services.get(c.index), c.lineCount, c.events, c.errorEvents, c.untimedLines,
+                        LogTimestamps.format(c.firstTs), LogTimestamps.format(c.lastTs),
+                        LogTimestamps.format(c.firstErrorTs), c.failed ? offset(firstErrorMillis, c.firstErrorTs) : null,
+                        c.firstErrorSignature));
+            }
+
+            List<SignatureEntry> ranked = new ArrayList<>(signatures.values());
+            ranked.sort(Comparator.comparingInt((SignatureEntry e) -> e.serviceCount).reversed()
+                    .thenComparingLong(e -> e.order));
+            for (SignatureEntry e : ranked.subList(0, Math.min(limit, ranked.size()))) {
+                response.getPropagation().add(new SignaturePropagation(String.format("%016x", e.key), e.type,
+                        e.message, e.example, e.count, occurrences(e.services, e.serviceCount, e.first, e.counts)));
+            }
+
+            for (IdEntry e : idTable.values()) offerShared(e);
+            List<IdEntry> shared = new ArrayList<>(topShared);
+            shared.sort(SHARED_ORDER);
+            for (IdEntry e : shared) {
+                response.getSharedIds().add(new SharedId(e.id, LogTimestamps.format(e.firstTs), LogTimestamps.format(e.lastTs),
+                        e.errors, occurrences(e.services, e.serviceCount, e.first, e.counts)));
+            }
+
+            response.setDroppedSignatureOccurrences(droppedSignatureOccurrences);
+            response.setEvictedIds(evictedIds);
+            return response;
+        }
+
+        private void offerShared(IdEntry e) {
+            if (e.serviceCount < 2 || limit <= 0) return;
+            topShared.add(e);
+            if (topShared.size() > limit) topShared.poll();
+        }
+
+        // services in order of first appearance, offsets from the first one
+        private List<ServiceOccurrence> occurrences(int[] order, int n, long[] first, int[] counts) {
+            List<ServiceOccurrence> list = new ArrayList<>(n);
+            long start = n == 0 ? LogTimestamps.NONE : LogTimestamps.toEpochMillis(first[order[0]]);
+            for (int i = 0; i < n; i++) {
+                int s = order[i];
+                list.add(new ServiceOccurrence(services.get(s), LogTimestamps.format(first[s]), offset(start, first[s]), counts[s]));
+            }
+            return list;
+        }
+    }
+
+    // most services first, then most errors, then earliest
+    private static final Comparator<IdEntry> SHARED_ORDER =
+            Comparator.comparingInt((IdEntry e) -> e.serviceCount).reversed()
+                    .thenComparing(Comparator.comparingInt((IdEntry e) -> e.errors).reversed())
+                    .thenComparingLong(e -> e.order);
+
+    // per-service first sighting and count, services kept in order of first appearance
+    private static class ServiceTally {
+        int[] services;
+        int serviceCount;
+        long[] first;
+        int[] counts;
+        long firstTs = LogTimestamps.NONE;
+        long lastTs = LogTimestamps.NONE;
+        // arrival order in the merge, for ties
+        final long order;
+
+        ServiceTally(long order, int capacity) {
+            this.order = order;
+            services = new int[capacity];
+            first = new long[capacity];
+            counts = new int[capacity];
+        }
+
+        void tally(int service, long ts) {
+            if (service >= counts.length) {
+                int size = Math.max(service + 1, counts.length * 2);
+                first = Arrays.copyOf(first, size);
+                counts = Arrays.copyOf(counts, size);
+            }
+            if (counts[service]++ == 0) {
+                if (serviceCount == services.length) services = Arrays.copyOf(services, services.length * 2);
+                services[serviceCount++] = service;
+                first[service] = ts;
+            }
+            if (ts != LogTimestamps.NONE) {
+                if (firstTs == LogTimestamps.NONE) firstTs = ts;
+                lastTs = Math.max(lastTs, ts);
+            }
+        }
+    }
+
+    private static final class SignatureEntry extends ServiceTally {
+        final long key;
+        final String type;
+        final String message;
+        final String example;
+        int count;
+
+        SignatureEntry(long order, long key, String type, String message, String example, int services) {
+            super(order, services);
+            this.key = key;
+            this.type = type;
+            this.message = message;
+            this.example = example;
+        }
+
+        void add(int service, long ts) {
+            count++;
+            tally(service, ts);
+        }
+    }
+
+    private static final class IdEntry extends ServiceTally {
+        final String id;
+        int errors;
+
+        IdEntry(long order, String id) {
+            // most ids are seen by one or two services
+            super(order, 2);
+            this.id = id;
+        }
+
+        void add(int service, long ts, boolean error) {
+            if (error) errors++;
+            tally(service, ts);
+        }
+    }
+
+    // ---- helpers ----
+
+    private static long textTimestamp(String line) {
+        return LogDiffer.mayStartWithTimestamp(line) ? LogTimestamps.leading(line) : LogTimestamps.NONE;
+    }
+
+    // "requestId=", "trace_id :", "x-correlation-id:" ...: every id key ends in "id" before its separator
+    static boolean hasIdKey(String line) {
+        int n = line.length();
+        for (int i = 1; i < n; i++) {
+            char c = line.charAt(i);
+            if ((c != 'd' && c != 'D') || (line.charAt(i - 1) != 'i' && line.charAt(i - 1) != 'I')) continue;
+            int j = i + 1;
+            while (j < n && Character.isWhitespace(line.charAt(j))) j++;
+            if (j < n && (line.charAt(j) == '=' || line.charAt(j) == ':')) return true;
+        }
+        return false;
+    }
+
+    private static String afterLevel(String header) {
+        int at = header.indexOf("ERROR");
+        if (at < 0) at = header.indexOf("FATAL");
+        int i = at < 0 ? 0 : at + 5;
+        while (i < header.length() && (Character.isWhitespace(header.charAt(i)) || "]:-|".indexOf(header.charAt(i)) >= 0)) i++;
+        return truncate(header.substring(i));
+    }
+
+    private static Long offset(long startMillis, long ts) {
+        long millis = LogTimestamps.toEpochMillis(ts);
+        if (startMillis == LogTimestamps.NONE || millis == LogTimestamps.NONE) return null;
+        return millis - startMillis;
+    }
+
+    private static String truncate(String s) {
+        return s.length() <= MAX_MESSAGE_CHARS ? s : s.substring(0, MAX_MESSAGE_CHARS) + "...";
+    }
+}
@@ -0,0 +1,268 @@
+package com.logtriage.engine;
+
+import java.util.*;
+
+// Space-Saving heavy-hitter counter over signature keys with a fixed number of slots.
+//
+// Error bounds (N = total observations, m = capacity):
+//  - while there are at most m distinct keys, every count is exact (error 0);
+//  - otherwise a reported count c with error e satisfies  c - e <= true count <= c,  and e <= N / m;
+//  - every key with true count > N / m is guaranteed to be reported.
+// Merging two summaries keeps these bounds for the combined stream.
+//
+// Each slot also keeps the first example seen, a small reservoir (Algorithm R) of examples
+// and the blast-radius sketches of the key (distinct ids / hosts / users, filled by the caller).
+public class SignatureCounter {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_SAMPLES = 3;
+
+    public static class Slot {
+        private String key;
+        private int count;
+        private int error;
+        private String firstExample;
+        private String[] samples;
+        private int sampleCount;
+        private int seen;
+        private int heapIndex;
+        private BlastRadiusSketch blastRadius;
+
+        public String key() {
+            return key;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        // Upper bound on how much count() may overestimate the true count.
+        public int error() {
+            return error;
+        }
+
+        public String firstExample() {
+            return firstExample;
+        }
+
+        public List<String> examples() {
+            return Arrays.asList(Arrays.copyOf(samples, sampleCount));
+        }
+
+        public BlastRadiusSketch blastRadius() {
+            if (blastRadius == null) blastRadius = new BlastRadiusSketch();
+            return blastRadius;
+        }
+
+        public boolean hasBlastRadius() {
+            return blastRadius != null && !blastRadius.isEmpty();
+        }
+    }
+
+    private final int capacity;
+    private final int samplesPerKey;
+    private final Map<String, Slot> slots = new HashMap<>();
+    private final Random random = new Random(42);
+
+    // min-heap on count
+    private Slot[] heap;
+    private int size;
+    private long total;
+
+    public SignatureCounter() {
+        this(DEFAULT_CAPACITY, DEFAULT_SAMPLES);
+    }
+
+    public SignatureCounter(int capacity, int samplesPerKey) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.capacity = capacity;
+        this.samplesPerKey = Math.max(1, samplesPerKey);
+        this.heap = new Slot[Math.min(capacity, 64)];
+    }
+
+    // Returns the slot now holding `key`.
+    public Slot add(String key, String example) {
+        total++;
+
+        Slot s = slots.get(key);
+        if (s != null) {
+            s.count++;
+            sample(s, example);
+            siftDown(s.heapIndex);
+            return s;
+        }
+
+        if (size < capacity) {
+            s = new Slot();
+            s.key = key;
+            s.count = 1;
+            s.samples = new String[samplesPerKey];
+            s.firstExample = example;
+            sample(s, example);
+            push(s);
+            slots.put(key, s);
+            return s;
+        }
+
+        // replace the minimum: the newcomer inherits its count as potential overestimation
+        Slot min = heap[0];
+        slots.remove(min.key);
+        min.key = key;
+        min.error = min.count;
+        min.count++;
+        min.firstExample = example;
+        min.sampleCount = 0;
+        min.seen = 0;
+        Arrays.fill(min.samples, null);
+        min.blastRadius = null;
+        sample(min, example);
+        slots.put(key, min);
+        siftDown(0);
+        return min;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isExact() {
+        for (int i = 0; i < size; i++) {
+            if (heap[i].error > 0) return false;
+        }
+        return true;
+    }
+
+    // Reported keys, highest count first.
+    public List<Slot> top() {
+        List<Slot> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) out.add(heap[i]);
+        out.sort((a, b) -> Integer.compare(b.count, a.count));
+        return out;
+    }
+
+    // Mergeable summaries: a key missing from a full summary may still have occurred up to its min count.
+    public SignatureCounter merge(SignatureCounter other) {
+        int minThis = size == capacity ? heap[0].count : 0;
+        int minOther = other.size == other.capacity ? other.heap[0].count : 0;
+
+        Map<String, Slot> combined = new HashMap<>();
+        for (Slot a : slots.values()) {
+            Slot b = other.slots.get(a.key);
+            Slot m = copy(a);
+            if (b != null) {
+                m.count += b.count;
+                m.error += b.error;
+                mergeSamples(m, b);
+                if (b.blastRadius != null) m.blastRadius().merge(b.blastRadius);
+            } else {
+                m.count += minOther;
+                m.error += minOther;
+            }
+            combined.put(m.key, m);
+        }
+        for (Slot b : other.slots.values()) {
+            if (combined.containsKey(b.key)) continue;
+            Slot m = copy(b);
+            m.count += minThis;
+            m.error += minThis;
+            combined.put(m.key, m);
+        }
+
+        List<Slot> keep = new ArrayList<>(combined.values());
+        keep.sort((x, y) -> Integer.compare(y.count, x.count));
+        if (keep.size() > capacity) keep = keep.subList(0, capacity);
+
+        slots.clear();
+        heap = new Slot[Math.max(heap.length, keep.size())];
+        size = 0;
+        for (Slot s : keep) {
+            push(s);
+            slots.put(s.key, s);
+        }
+        total += other.total;
+        return this;
+    }
+
+    private Slot copy(Slot s) {
+        Slot c = new Slot();
+        c.key = s.key;
+        c.count = s.count;
+        c.error = s.error;
+        c.firstExample = s.firstExample;
+        c.samples = Arrays.copyOf(s.samples, samplesPerKey);
+        c.sampleCount = Math.min(s.sampleCount, samplesPerKey);
+        c.seen = s.seen;
+        if (s.blastRadius != null) c.blastRadius = new BlastRadiusSketch().merge(s.blastRadius);
+        return c;
+    }
+
+    // Algorithm R: the i-th example replaces a random sample with probability samplesPerKey / i.
+    private void sample(Slot s, String example) {
+        s.seen++;
+        if (s.sampleCount < samplesPerKey) {
+            s.samples[s.sampleCount++] = example;
+            return;
+        }
+        int j = random.nextInt(s.seen);
+        if (j < samplesPerKey) s.samples[j] = example;
+    }
+
+    // Weighted merge of two reservoirs, each side drawn in proportion to how many examples it saw.
+    private void mergeSamples(Slot into, Slot from) {
+        List<String> a = new ArrayList<>(Arrays.asList(into.samples).subList(0, into.sampleCount));
+        List<String> b = new ArrayList<>(Arrays.asList(from.samples).subList(0, from.sampleCount));
+        long wa = into.seen;
+        long wb = from.seen;
+
+        int n = 0;
+        String[] merged = new String[samplesPerKey];
+        while (n < samplesPerKey && (!a.isEmpty() || !b.isEmpty())) {
+            boolean takeA = b.isEmpty() || (!a.isEmpty() && random.nextDouble() * (wa + wb) < wa);
+            merged[n++] = takeA ? a.remove(a.size() - 1) : b.remove(b.size() - 1);
+        }
+        into.samples = merged;
+        into.sampleCount = n;
+        into.seen += from.seen;
+    }
+
+    private void push(Slot s) {
+        if (size == heap.length) heap = Arrays.copyOf(heap, Math.min(capacity, size * 2));
+        heap[size] = s;
+        s.heapIndex = size;
+        size++;
+        siftUp(s.heapIndex);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= heap[i].count) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= size) return;
+            int r = l + 1;
+            int smallest = (r < size && heap[r].count < heap[l].count) ? r : l;
+            if (heap[i].count <= heap[smallest].count) return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Slot t = heap[i];
+        heap[i] = heap[j];
+        heap[j] = t;
+        heap[i].heapIndex = i;
+        heap[j].heapIndex = j;
+    }
+}
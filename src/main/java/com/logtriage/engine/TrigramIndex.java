@@ -0,0 +1,210 @@
+package com.logtriage.engine;
+
+import java.util.Arrays;
+
+// Case-folded trigram index over blocks of BLOCK_LINES lines.
+// Postings are delta/varint encoded block numbers, so the index stays well below the text size;
+// candidates() only narrows the search, callers must still verify each line in a candidate block.
+public class TrigramIndex {
+
+    public static final int BLOCK_LINES = 64;
+
+    private static final int EMPTY = -1;
+
+    // open addressing: trigram key -> slot
+    private int[] keys = new int[1 << 12];
+    private int[] slotOfKey = new int[1 << 12];
+    private int mask = keys.length - 1;
+
+    private byte[][] postings = new byte[256][];
+    private int[] postingLen = new int[256];
+    private int[] lastBlock = new int[256];
+    private int slots;
+
+    private int blockCount;
+
+    public TrigramIndex() {
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void addLine(int line, String text) {
+        int block = line / BLOCK_LINES;
+        blockCount = Math.max(blockCount, block + 1);
+
+        int n = text.length();
+        if (n < 3) return;
+
+        int c1 = fold(text.charAt(0));
+        int c2 = fold(text.charAt(1));
+        for (int i = 2; i < n; i++) {
+            int c3 = fold(text.charAt(i));
+            add((c1 << 16) | (c2 << 8) | c3, block);
+            c1 = c2;
+            c2 = c3;
+        }
+    }
+
+    // Release growth slack once ingestion is done.
+    public void trim() {
+        for (int i = 0; i < slots; i++) {
+            if (postings[i].length != postingLen[i]) postings[i] = Arrays.copyOf(postings[i], postingLen[i]);
+        }
+        postings = Arrays.copyOf(postings, slots);
+        postingLen = Arrays.copyOf(postingLen, slots);
+        lastBlock = Arrays.copyOf(lastBlock, slots);
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    // Approximate heap footprint (16-byte array headers, compressed references).
+    public long estimatedBytes() {
+        long bytes = 16L * 5 + 4L * (keys.length + slotOfKey.length + postings.length + postingLen.length + lastBlock.length);
+        for (int i = 0; i < slots; i++) bytes += 16 + postings[i].length;
+        return bytes;
+    }
+
+    // Sorted candidate blocks that may contain the term, or null if the term is too short to narrow.
+    public int[] candidates(String term) {
+        if (term == null || term.length() < 3) return null;
+
+        int[] result = null;
+        int c1 = fold(term.charAt(0));
+        int c2 = fold(term.charAt(1));
+        for (int i = 2; i < term.length(); i++) {
+            int c3 = fold(term.charAt(i));
+            int slot = find((c1 << 16) | (c2 << 8) | c3);
+            if (slot == EMPTY) return new int[0];
+
+            int[] blocks = decode(slot);
+            result = (result == null) ? blocks : intersect(result, blocks);
+            if (result.length == 0) return result;
+
+            c1 = c2;
+            c2 = c3;
+        }
+        return result;
+    }
+
+    public static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int fold(char c) {
+        return Character.toLowerCase(c) & 0xFF;
+    }
+
+    private void add(int key, int block) {
+        int slot = find(key);
+        if (slot == EMPTY) slot = insert(key);
+
+        int last = lastBlock[slot];
+        if (last == block) return;
+
+        writeVarint(slot, block - last);
+        lastBlock[slot] = block;
+    }
+
+    private int find(int key) {
+        int i = mix(key) & mask;
+        while (true) {
+            int k = keys[i];
+            if (k == key) return slotOfKey[i];
+            if (k == EMPTY) return EMPTY;
+            i = (i + 1) & mask;
+        }
+    }
+
+    private int insert(int key) {
+        if (slots == postings.length) {
+            int cap = Math.max(256, slots * 2);
+            postings = Arrays.copyOf(postings, cap);
+            postingLen = Arrays.copyOf(postingLen, cap);
+            lastBlock = Arrays.copyOf(lastBlock, cap);
+        }
+        int slot = slots++;
+        postings[slot] = new byte[8];
+        lastBlock[slot] = -1;
+
+        if (slots * 2 > keys.length) rehash();
+
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY) i = (i + 1) & mask;
+        keys[i] = key;
+        slotOfKey[i] = slot;
+        return slot;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldSlots = slotOfKey;
+
+        keys = new int[oldKeys.length * 2];
+        slotOfKey = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            slotOfKey[i] = oldSlots[j];
+        }
+    }
+
+    private void writeVarint(int slot, int value) {
+        byte[] p = postings[slot];
+        int n = postingLen[slot];
+        if (n + 5 > p.length) {
+            p = Arrays.copyOf(p, Math.max(8, p.length * 2));
+            postings[slot] = p;
+        }
+        while ((value & ~0x7F) != 0) {
+            p[n++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        p[n++] = (byte) value;
+        postingLen[slot] = n;
+    }
+
+    private int[] decode(int slot) {
+        byte[] p = postings[slot];
+        int len = postingLen[slot];
+
+        int[] out = new int[Math.min(len, blockCount)];
+        int n = 0;
+        int block = -1;
+        int i = 0;
+        while (i < len) {
+            int v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = p[i++];
+                v |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            block += v;
+            out[n++] = block;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,40 @@
+package com.logtriage.ingest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Draws every byte read from a shared budget, so all inputs of one request (e.g. zip entries
+// decompressed in parallel) together never inflate past the configured limit.
+public class BoundedInputStream extends FilterInputStream {
+
+    private final AtomicLong budget;
+    private final long maxBytes;
+
+    public BoundedInputStream(InputStream in, AtomicLong budget, long maxBytes) {
+        super(in);
+        this.budget = budget;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) consume(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        int n = super.read(buf, off, len);
+        if (n > 0) consume(n);
+        return n;
+    }
+
+    private void consume(int n) throws IOException {
+        if (budget.addAndGet(-n) < 0) {
+            throw new DecompressedSizeExceededException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.logtriage.ingest;
+
+import java.io.IOException;
+
+// IOException so it can surface from inside InputStream.read() (Jackson, readers).
+public class DecompressedSizeExceededException extends IOException {
+
+    public DecompressedSizeExceededException(long maxBytes) {
+        super("Decompressed log exceeds the limit of " + (maxBytes >= 1024 * 1024
+                ? (maxBytes / (1024 * 1024)) + " MB."
+                : (maxBytes / 1024) + " KB."));
+    }
+}
@@ -0,0 +1,28 @@
+package com.logtriage.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// A named log source whose (already decompressed) stream is opened lazily by the reader thread.
+public class LogInput {
+
+    public interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    private final String name;
+    private final Opener opener;
+
+    public LogInput(String name, Opener opener) {
+        this.name = name;
+        this.opener = opener;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public InputStream open() throws IOException {
+        return opener.open();
+    }
+}
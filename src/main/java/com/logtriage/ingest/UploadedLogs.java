@@ -0,0 +1,148 @@
+package com.logtriage.ingest;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Turns an upload (.log/.txt, .gz, .zip with several logs) into streaming LogInputs.
+// Nothing is inflated up front: gzip is decoded while the analyzer reads, zip entries are read
+// straight from the spooled upload via ZipFile so they can be consumed in parallel.
+// A file already on the server (fromPath) is read the same way, in place.
+public class UploadedLogs implements Closeable {
+
+    private static final int MAX_ZIP_ENTRIES = 64;
+    private static final int READ_BUFFER_CHARS = 64 * 1024;
+
+    private final List<LogInput> inputs = new ArrayList<>();
+    private final AtomicLong budget;
+    private final long maxBytes;
+
+    private Path spooled;
+    private ZipFile zip;
+
+    private UploadedLogs(long maxDecompressedBytes) {
+        this.maxBytes = maxDecompressedBytes;
+        this.budget = new AtomicLong(maxDecompressedBytes);
+    }
+
+    public static UploadedLogs from(MultipartFile file, long maxDecompressedBytes) throws IOException {
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename();
+        String lower = filename.toLowerCase();
+
+        UploadedLogs logs = new UploadedLogs(maxDecompressedBytes);
+        try {
+            if (lower.endsWith(".zip")) {
+                logs.openZip(file);
+            } else if (lower.endsWith(".gz") || lower.endsWith(".gzip")) {
+                logs.inputs.add(new LogInput(stripGz(filename),
+                        () -> logs.bounded(new GZIPInputStream(file.getInputStream(), 64 * 1024))));
+            } else if (lower.endsWith(".log") || lower.endsWith(".txt")) {
+                logs.inputs.add(new LogInput(filename, () -> logs.bounded(file.getInputStream())));
+            } else {
+                throw new IllegalArgumentException("Only .log, .txt, .gz or .zip files are supported.");
+            }
+        } catch (IOException | RuntimeException e) {
+            logs.close();
+            throw e;
+        }
+        return logs;
+    }
+
+    // .gz and .zip as for uploads; any other file is read as text (rotated logs: app.log.1, ...)
+    public static UploadedLogs fromPath(Path file, long maxDecompressedBytes) throws IOException {
+        String name = file.getFileName().toString();
+        String lower = name.toLowerCase();
+
+        UploadedLogs logs = new UploadedLogs(maxDecompressedBytes);
+        try {
+            if (lower.endsWith(".zip")) {
+                logs.openZip(file);
+            } else if (lower.endsWith(".gz") || lower.endsWith(".gzip")) {
+                logs.inputs.add(new LogInput(stripGz(name),
+                        () -> logs.bounded(new GZIPInputStream(Files.newInputStream(file), 64 * 1024))));
+            } else {
+                logs.inputs.add(new LogInput(name, () -> logs.bounded(Files.newInputStream(file))));
+            }
+        } catch (IOException | RuntimeException e) {
+            logs.close();
+            throw e;
+        }
+        return logs;
+    }
+
+    public List<LogInput> inputs() {
+        return inputs;
+    }
+
+    // Decodes a whole input as UTF-8 text; the shared budget caps how much can be inflated.
+    public static String readText(InputStream in) throws IOException {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buf = new char[READ_BUFFER_CHARS];
+            int n;
+            while ((n = reader.read(buf)) > 0) {
+                sb.append(buf, 0, n);
+            }
+            return sb.toString();
+        }
+    }
+
+    private void openZip(MultipartFile file) throws IOException {
+        spooled = Files.createTempFile("log-triage-", ".zip");
+        file.transferTo(spooled);
+        openZip(spooled);
+    }
+
+    private void openZip(Path file) throws IOException {
+        zip = new ZipFile(file.toFile());
+
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (entry.isDirectory() || name.startsWith("__MACOSX/") || name.endsWith(".DS_Store")) continue;
+
+            if (inputs.size() == MAX_ZIP_ENTRIES) {
+                throw new IllegalArgumentException("Zip contains more than " + MAX_ZIP_ENTRIES + " log files.");
+            }
+
+            boolean gz = name.toLowerCase().endsWith(".gz");
+            inputs.add(new LogInput(gz ? stripGz(name) : name, () -> {
+                InputStream raw = zip.getInputStream(entry);
+                return bounded(gz ? new GZIPInputStream(raw, 64 * 1024) : raw);
+            }));
+        }
+
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Zip archive contains no log files.");
+        }
+    }
+
+    private InputStream bounded(InputStream in) {
+        return new BoundedInputStream(in, budget, maxBytes);
+    }
+
+    private static String stripGz(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (zip != null) zip.close();
+        } finally {
+            if (spooled != null) Files.deleteIfExists(spooled);
+        }
+    }
+}
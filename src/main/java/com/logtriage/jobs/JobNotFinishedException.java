@@ -0,0 +1,9 @@
+package com.logtriage.jobs;
+
+// The job exists but has no result (yet): mapped to 409 Conflict.
+public class JobNotFinishedException extends RuntimeException {
+
+    public JobNotFinishedException(String message) {
+        super(message);
+    }
+}
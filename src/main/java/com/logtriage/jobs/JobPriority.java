@@ -0,0 +1,16 @@
+package com.logtriage.jobs;
+
+public enum JobPriority {
+    HIGH,
+    NORMAL,
+    LOW;
+
+    public static JobPriority parse(String value) {
+        if (value == null || value.isBlank()) return NORMAL;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported job priority: " + value + " (expected high, normal or low)");
+        }
+    }
+}
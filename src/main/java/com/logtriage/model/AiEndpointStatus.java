@@ -0,0 +1,24 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Routing state of one remote AI endpoint (GET /api/ai/endpoints), best first.
+// latencyMs / successRate are the EWMAs used for ranking (latency = time to the first insight,
+// null until measured); hedgeAfterMs is how long a request to it waits before a hedge is sent.
+@Data
+@AllArgsConstructor
+public class AiEndpointStatus {
+    private String name;
+    private String model;
+    private String baseUrl;
+    private double score;
+    private Long latencyMs;
+    private double successRate;
+    private long hedgeAfterMs;
+    private int samples;
+    private long requests;
+    private long failures;
+    private long hedgesSent;
+    private long hedgesWon;
+}
@@ -0,0 +1,60 @@
+package com.logtriage.model;
+
+import com.logtriage.jobs.JobPriority;
+import com.logtriage.jobs.JobState;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Status of an asynchronous analysis job; also the job.json persisted for it.
+@Data
+@NoArgsConstructor
+public class AnalysisJob {
+    private String jobId;
+    private JobState state;
+    private JobPriority priority;
+    private String format;
+
+    // uploaded file name, or the server-side path of a path job
+    private String source;
+    private boolean uploaded;
+
+    private String submittedAt;
+    private String startedAt;
+    private String finishedAt;
+
+    // runs started; > 1 when a restart interrupted an earlier run
+    private int attempts;
+
+    // progress: input bytes as stored (compressed for .gz / .zip), lines and error signatures so far
+    private long inputBytes;
+    private long bytesRead;
+    private double progress;
+    private long linesScanned;
+    private int errorCount;
+    private List<ErrorSignature> topErrorSignatures = new ArrayList<>();
+
+    private String error;
+
+    public AnalysisJob(AnalysisJob other) {
+        this.jobId = other.jobId;
+        this.state = other.state;
+        this.priority = other.priority;
+        this.format = other.format;
+        this.source = other.source;
+        this.uploaded = other.uploaded;
+        this.submittedAt = other.submittedAt;
+        this.startedAt = other.startedAt;
+        this.finishedAt = other.finishedAt;
+        this.attempts = other.attempts;
+        this.inputBytes = other.inputBytes;
+        this.bytesRead = other.bytesRead;
+        this.progress = other.progress;
+        this.linesScanned = other.linesScanned;
+        this.errorCount = other.errorCount;
+        this.topErrorSignatures = new ArrayList<>(other.topErrorSignatures);
+        this.error = other.error;
+    }
+}
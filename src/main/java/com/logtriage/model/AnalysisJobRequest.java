@@ -0,0 +1,18 @@
+package com.logtriage.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+// Job over a file already on the server (must be under jobs.allowed-dirs).
+@Data
+public class AnalysisJobRequest {
+
+    @NotBlank
+    private String path;
+
+    // high | normal | low
+    private String priority;
+
+    // auto | text | json
+    private String format;
+}
@@ -0,0 +1,16 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estimated distinct values seen alongside one error signature (HyperLogLog, ~3% error).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlastRadius {
+    private long requestIds;
+    private long traceIds;
+    private long hosts;
+    private long users;
+}
@@ -0,0 +1,20 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One error event of the merged multi-service timeline.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorrelatedEvent {
+    private String timestamp;
+    private String service;
+    // exception type, or "ERROR" for an error line without one
+    private String exceptionType;
+    private String message;
+    private List<String> ids;
+}
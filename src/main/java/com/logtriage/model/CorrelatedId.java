@@ -0,0 +1,12 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CorrelatedId {
+    private String id;
+    private int lineCount;
+    private int errorCount;
+}
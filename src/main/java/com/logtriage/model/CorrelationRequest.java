@@ -0,0 +1,15 @@
+package com.logtriage.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+// Correlation over logs already on the server, one per service (each under jobs.allowed-dirs;
+// .gz is inflated while read, a .zip counts one service per entry).
+@Data
+public class CorrelationRequest {
+
+    @NotEmpty
+    private List<String> paths;
+}
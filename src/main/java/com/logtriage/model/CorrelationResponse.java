@@ -0,0 +1,31 @@
+package com.logtriage.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CorrelationResponse {
+
+    // in upload order
+    private List<ServiceLogSummary> services = new ArrayList<>();
+
+    // services with errors, by the time of their first error
+    private List<String> failureOrder = new ArrayList<>();
+    private CorrelatedEvent firstError;
+
+    // first error events across all services, in timestamp order
+    private List<CorrelatedEvent> timeline = new ArrayList<>();
+
+    // signatures in the most services first, then by first appearance
+    private List<SignaturePropagation> propagation = new ArrayList<>();
+    private List<SharedId> sharedIds = new ArrayList<>();
+
+    // occurrences of signatures beyond the signature cap (counted per service, not tracked)
+    private long droppedSignatureOccurrences;
+    // ids dropped from the LRU id table before the end of the merge
+    private long evictedIds;
+
+    private long tookMs;
+}
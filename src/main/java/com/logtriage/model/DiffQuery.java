@@ -0,0 +1,20 @@
+package com.logtriage.model;
+
+import lombok.Data;
+
+// Options of a before/after diff. With a single upload the before*/after* ranges split it in two;
+// timestamps may be partial ("2026-03-18 10:15").
+@Data
+public class DiffQuery {
+    private String beforeFrom;
+    private String beforeTo;
+    private String afterFrom;
+    private String afterTo;
+
+    // a shared signature is reported as increased when its rate grows by this factor ...
+    private double minIncrease = 2.0;
+    // ... and it occurred at least this often after
+    private int minCount = 5;
+
+    private int limit = 50;
+}
@@ -0,0 +1,12 @@
+package com.logtriage.model;
+
+import lombok.Data;
+
+// Diff over logs already on the server (under jobs.allowed-dirs): before + after, or one file split by the
+// before*/after* ranges of the DiffQuery. .gz is inflated while read, a .zip counts all its entries.
+@Data
+public class DiffRequest {
+    private String before;
+    private String after;
+    private String file;
+}
@@ -0,0 +1,20 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What one side of a diff contained.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiffWindow {
+    private long lines;
+    private long occurrences;
+    private int distinctSignatures;
+    private String firstTimestamp;
+    private String lastTimestamp;
+
+    // occurrences of signatures beyond the fingerprint cap (counted, not compared)
+    private long droppedOccurrences;
+}
@@ -2,11 +2,29 @@ package com.logtriage.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class ErrorSignature {
     private String exceptionType;
     private String message;
     private int count;
+
+    // count may overestimate the true count by at most this much (0 = exact)
+    private int countError;
+
+    // a few representative messages, sampled uniformly over all occurrences
+    private List<String> examples = new ArrayList<>();
+
+    // distinct requests / traces / hosts / users hit by this signature; null when none were seen
+    private BlastRadius blastRadius;
+
+    public ErrorSignature(String exceptionType, String message, int count) {
+        this(exceptionType, message, count, 0, new ArrayList<>(), null);
+    }
 }
@@ -0,0 +1,27 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A past analysis kept in the incident index, with the ticket / fix recorded for it afterwards.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Incident {
+    private long incidentId;
+    private String analyzedAt;
+    private String severity;
+    private List<String> detectedIssues = new ArrayList<>();
+    private String possibleRootCause;
+
+    // "ExceptionType: message", most frequent first
+    private List<String> topSignatures = new ArrayList<>();
+
+    private String ticketRef;
+    private String resolution;
+    private String resolvedAt;
+}
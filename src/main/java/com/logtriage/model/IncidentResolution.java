@@ -0,0 +1,17 @@
+package com.logtriage.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class IncidentResolution {
+
+    // e.g. a Jira / ServiceNow key or URL
+    @Size(max = 500)
+    private String ticketRef;
+
+    @NotBlank
+    @Size(max = 4000)
+    private String resolution;
+}
@@ -7,6 +7,9 @@ public class LogAnalysisRequest {
     @NotBlank
     private String logContent;
 
+    // auto (default), text or json (JSON lines: Logback JSON / ECS)
+    private String format;
+
     public String getLogContent() {
         return logContent;
     }
@@ -14,4 +17,12 @@ public class LogAnalysisRequest {
     public void setLogContent(String logContent) {
         this.logContent = logContent;
     }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
 }
@@ -8,6 +8,18 @@ import java.util.List;
 @Data
 public class LogAnalysisResponse {
 
+    // handle for follow-up queries (trace timeline, id stats) on the stored upload
+    private String analysisId;
+
+    // id of this analysis in the incident index (null when it has no error signatures)
+    private Long incidentId;
+
+    // most similar past incidents, with the ticket / fix recorded for them
+    private List<SimilarIncident> similarIncidents = new ArrayList<>();
+
+    // per-input breakdown when several logs were analyzed together (zip entries)
+    private List<LogSource> sources = new ArrayList<>();
+
     private String severity;
     private List<String> detectedIssues = new ArrayList<>();
     private String possibleRootCause;
@@ -20,10 +32,15 @@ public class LogAnalysisResponse {
     private String ticketBody;
 
     private List<String> suggestedGrepQueries = new ArrayList<>();
+    private List<String> suggestedSearches = new ArrayList<>();
 
     // AI meta
     private boolean aiUsed;
     private String aiProvider;
     private String aiError;
     private Long aiLatencyMs;
+
+    // set when the in-process classifier answered (aiProvider = "local")
+    private String aiLabel;
+    private Double aiConfidence;
 }
@@ -0,0 +1,21 @@
+package com.logtriage.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class LogDiffResponse {
+    private DiffWindow before;
+    private DiffWindow after;
+
+    // "per minute" when both windows carry timestamps, otherwise "per 1k lines"
+    private String rateUnit;
+
+    private List<SignatureChange> newSignatures = new ArrayList<>();
+    private List<SignatureChange> disappearedSignatures = new ArrayList<>();
+    private List<SignatureChange> increasedSignatures = new ArrayList<>();
+
+    private long tookMs;
+}
@@ -0,0 +1,15 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogSource {
+    private String name;
+    private String analysisId;
+    private int lineCount;
+    private int errorCount;
+}
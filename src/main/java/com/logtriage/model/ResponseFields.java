@@ -0,0 +1,89 @@
+package com.logtriage.model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Projection of a LogAnalysisResponse (?fields=severity,topErrorSignatures). The analysis only runs
+// the stages the requested fields depend on, and only those fields are returned:
+//  - ticketTitle, ticketBody, suggestedGrepQueries, suggestedSearches are each formatted only when asked for;
+//  - the upload is indexed for search and stored only for analysisId / suggestedSearches / sources;
+//  - possibleRootCause, nextSteps, ticketBody and the ai* fields are the ones AI enrichment changes:
+//    without any of them neither the local classifier nor the remote LLM is called;
+//  - similar incidents are looked up only for similarIncidents / ticketBody, and the analysis is recorded in the
+//    incident index only when one of those or incidentId is asked for: other projections leave no incident behind.
+// Without fields (ALL) everything is computed, as before.
+public final class ResponseFields {
+
+    public static final ResponseFields ALL = new ResponseFields(null);
+
+    private static final Set<String> NAMES = responseFieldNames();
+    private static final Set<String> AI_FIELDS = Set.of(
+            "possibleRootCause", "nextSteps", "ticketBody",
+            "aiUsed", "aiProvider", "aiError", "aiLatencyMs", "aiLabel", "aiConfidence");
+
+    // null = all fields
+    private final Set<String> names;
+
+    private ResponseFields(Set<String> names) {
+        this.names = names;
+    }
+
+    // comma-separated field names; blank = ALL
+    public static ResponseFields parse(String fields) {
+        if (fields == null || fields.isBlank()) return ALL;
+
+        Set<String> names = new LinkedHashSet<>();
+        for (String part : fields.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) continue;
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name + " (expected any of " + String.join(", ", NAMES) + ")");
+            }
+            names.add(name);
+        }
+        return names.isEmpty() ? ALL : new ResponseFields(Collections.unmodifiableSet(names));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public Set<String> names() {
+        return names == null ? NAMES : names;
+    }
+
+    public boolean includes(String field) {
+        return names == null || names.contains(field);
+    }
+
+    public boolean needsAi() {
+        if (names == null) return true;
+        for (String name : names) {
+            if (AI_FIELDS.contains(name)) return true;
+        }
+        return false;
+    }
+
+    public boolean needsSimilarIncidents() {
+        return includes("similarIncidents") || includes("ticketBody");
+    }
+
+    public boolean needsIncidents() {
+        return needsSimilarIncidents() || includes("incidentId");
+    }
+
+    public boolean needsStore() {
+        return includes("analysisId") || includes("suggestedSearches") || includes("sources");
+    }
+
+    private static Set<String> responseFieldNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Field f : LogAnalysisResponse.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(f.getModifiers())) names.add(f.getName());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+}
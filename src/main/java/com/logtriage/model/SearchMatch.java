@@ -0,0 +1,15 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SearchMatch {
+    private int lineNumber;
+    private String text;
+    private List<String> before;
+    private List<String> after;
+}
@@ -0,0 +1,16 @@
+package com.logtriage.model;
+
+import lombok.Data;
+
+// All given filters are ANDed. Timestamps may be partial ("2026-03-18 10:15").
+@Data
+public class SearchQuery {
+    private String q;
+    private String exceptionType;
+    private String id;
+    private String from;
+    private String to;
+    private boolean ignoreCase;
+    private int context = 2;
+    private int limit = 100;
+}
@@ -0,0 +1,17 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SearchResult {
+    private String analysisId;
+    private int returned;
+    private boolean truncated;
+    private int blocksScanned;
+    private long tookMs;
+    private List<SearchMatch> matches;
+}
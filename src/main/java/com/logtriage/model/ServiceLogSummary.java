@@ -0,0 +1,24 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One input of a correlation. firstErrorOffsetMs: how long after the first error of any service
+// this one started failing (0 for the service that failed first).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceLogSummary {
+    private String service;
+    private long lines;
+    private long events;
+    private long errorEvents;
+    // lines of events without a timestamp (before the first timestamped line, JSON lines without one)
+    private long untimedLines;
+    private String firstTimestamp;
+    private String lastTimestamp;
+    private String firstErrorTimestamp;
+    private Long firstErrorOffsetMs;
+    private String firstErrorSignature;
+}
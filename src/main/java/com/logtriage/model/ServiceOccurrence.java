@@ -0,0 +1,17 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Where a signature or correlation id showed up: first time in this service, and how long after
+// its first appearance in any service (null without timestamps).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceOccurrence {
+    private String service;
+    private String firstSeen;
+    private Long offsetMs;
+    private int count;
+}
@@ -0,0 +1,21 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A correlation / request / trace id found in the logs of more than one service.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SharedId {
+    private String id;
+    private String firstSeen;
+    private String lastSeen;
+    private int errorEvents;
+    // count = events of the service carrying the id
+    private List<ServiceOccurrence> services = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One normalized signature compared across the before/after windows.
+// Rates are occurrences per LogDiffResponse.rateUnit; rateChange = rateAfter / rateBefore (null if either is 0).
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignatureChange {
+    private String fingerprint;
+    private String exceptionType;
+    private String normalizedMessage;
+    private String example;
+    private int countBefore;
+    private int countAfter;
+    private double rateBefore;
+    private double rateAfter;
+    private Double rateChange;
+}
@@ -0,0 +1,21 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// An error signature (exception type + normalized message) and the services it reached, in order.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignaturePropagation {
+    private String fingerprint;
+    private String exceptionType;
+    private String message;
+    private String example;
+    private int count;
+    private List<ServiceOccurrence> services = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarIncident {
+    // estimated Jaccard similarity of the signature / template feature sets (0..1)
+    private double similarity;
+    private Incident incident;
+}
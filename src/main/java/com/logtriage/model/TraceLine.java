@@ -0,0 +1,12 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TraceLine {
+    private int lineNumber;
+    private boolean error;
+    private String text;
+}
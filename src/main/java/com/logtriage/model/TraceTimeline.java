@@ -0,0 +1,17 @@
+package com.logtriage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TraceTimeline {
+    private String analysisId;
+    private String id;
+    private int lineCount;
+    private int errorCount;
+    private boolean truncated;
+    private List<TraceLine> lines;
+}
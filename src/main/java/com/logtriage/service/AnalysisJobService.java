@@ -0,0 +1,567 @@
+package com.logtriage.service;
+
+import com.logtriage.admission.AdmissionRejectedException;
+import com.logtriage.engine.AnalyzedLog;
+import com.logtriage.engine.LogChunker;
+import com.logtriage.engine.LogFormat;
+import com.logtriage.engine.LogScan;
+import com.logtriage.ingest.BoundedInputStream;
+import com.logtriage.ingest.CountingInputStream;
+import com.logtriage.jobs.JobNotFinishedException;
+import com.logtriage.jobs.JobPriority;
+import com.logtriage.jobs.JobState;
+import com.logtriage.model.AnalysisJob;
+import com.logtriage.model.ErrorSignature;
+import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.model.LogSource;
+import com.logtriage.store.JobStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Asynchronous analysis of logs too large for one request: the input is stored (or read in place
+// from an allowed server path), queued by priority, and scanned in chunks by a bounded worker pool.
+// Job status, progress and the final result are persisted by JobStore: after a restart, finished
+// jobs are served from disk and unfinished ones are queued again and start over.
+@Slf4j
+@Service
+public class AnalysisJobService {
+
+    private static final int PARTIAL_SIGNATURES = 10;
+    private static final int AI_INPUT_CHARS = 6000;
+    private static final int MIN_CHUNK_CHARS = 64 * 1024;
+    private static final int MAX_LIST = 100;
+
+    private final LogAnalysisService analysisService;
+    // null when jobs.dir couldn't be opened (unavailable says why)
+    private final JobStore store;
+    private final String unavailable;
+    private final int maxQueued;
+    private final int chunkChars;
+    private final long maxInputBytes;
+    private final long maxDecompressedBytes;
+    private final List<Path> allowedDirs = new ArrayList<>();
+    private final Duration retention;
+    private final int maxAttempts;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor workers;
+    private volatile boolean shuttingDown;
+
+    public AnalysisJobService(
+            LogAnalysisService analysisService,
+            @Value("${jobs.dir:data/jobs}") String dir,
+            @Value("${jobs.workers:0}") int workers,
+            @Value("${jobs.max-queued:100}") int maxQueued,
+            @Value("${jobs.chunk-size:8MB}") DataSize chunkSize,
+            @Value("${jobs.max-input-size:10GB}") DataSize maxInputSize,
+            @Value("${jobs.max-decompressed-size:50GB}") DataSize maxDecompressedSize,
+            @Value("${jobs.allowed-dirs:}") List<String> allowedDirs,
+            @Value("${jobs.retention:7d}") Duration retention,
+            @Value("${jobs.max-attempts:3}") int maxAttempts
+    ) {
+        this.analysisService = analysisService;
+        this.maxQueued = maxQueued;
+        this.chunkChars = (int) Math.max(MIN_CHUNK_CHARS, Math.min(Integer.MAX_VALUE - 8, chunkSize.toBytes()));
+        this.maxInputBytes = maxInputSize.toBytes();
+        this.maxDecompressedBytes = maxDecompressedSize.toBytes();
+        this.retention = retention;
+        this.maxAttempts = maxAttempts;
+        for (String d : allowedDirs) {
+            if (!d.isBlank()) this.allowedDirs.add(Path.of(d.trim()).toAbsolutePath().normalize());
+        }
+
+        // 0 = half the CPUs. Waiting jobs are ordered by the queue (priority, then submission);
+        // execute() rather than submit() keeps the Job itself in the queue, so that ordering applies.
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "analysis-job");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // a store that can't be read doesn't stop the synchronous endpoints: the app starts without jobs
+        JobStore opened = null;
+        String error = null;
+        try {
+            opened = JobStore.open(Path.of(dir));
+        } catch (IOException e) {
+            error = "Job store is unavailable (" + dir + "): " + e.getMessage();
+            log.warn("{} - /api/jobs is disabled", error);
+        }
+        this.store = opened;
+        this.unavailable = error;
+
+        if (store != null) {
+            try {
+                recover(dir);
+            } catch (IOException e) {
+                log.warn("Could not reload the jobs saved in {}: {}", dir, e.getMessage());
+            }
+        }
+    }
+
+    // ---- submit ----
+
+    // Log sent as the request body; the name decides how it is read (.gz, .zip, anything else as text).
+    public AnalysisJob submitUpload(InputStream body, String name, String priority, String format) throws IOException {
+        requireStore();
+        Job job = newJob(fileName(name), true, priority, format);
+        reserveQueueSlot();
+        try {
+            job.status.setInputBytes(store.storeUpload(job.status, body, maxInputBytes));
+            store.save(job.status);
+        } catch (IOException | RuntimeException e) {
+            queued.decrementAndGet();
+            deleteQuietly(job.status.getJobId());
+            throw e;
+        }
+        return enqueue(job);
+    }
+
+    // Log already on this machine, read in place; it must be under one of jobs.allowed-dirs.
+    public AnalysisJob submitPath(String path, String priority, String format) throws IOException {
+        requireStore();
+        Path file = checkAllowed(path);
+        Job job = newJob(file.toString(), false, priority, format);
+        job.status.setInputBytes(Files.size(file));
+        reserveQueueSlot();
+        try {
+            store.save(job.status);
+        } catch (IOException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+        return enqueue(job);
+    }
+
+    private Job newJob(String source, boolean uploaded, String priority, String format) {
+        AnalysisJob s = new AnalysisJob();
+        s.setJobId(UUID.randomUUID().toString());
+        s.setState(JobState.QUEUED);
+        s.setPriority(JobPriority.parse(priority));
+        s.setFormat(LogFormat.parse(format).name());
+        s.setSource(source);
+        s.setUploaded(uploaded);
+        s.setSubmittedAt(Instant.now().toString());
+        return new Job(s);
+    }
+
+    private void reserveQueueSlot() {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new AdmissionRejectedException("Job queue is full (" + maxQueued + " jobs waiting).", 30);
+        }
+    }
+
+    private AnalysisJob enqueue(Job job) {
+        jobs.put(job.status.getJobId(), job);
+        workers.execute(job);
+        expire();
+        return snapshot(job);
+    }
+
+    // ---- queries ----
+
+    public AnalysisJob get(String jobId) {
+        return snapshot(require(jobId));
+    }
+
+    // newest first
+    public List<AnalysisJob> list(int limit) {
+        requireStore();
+        if (limit < 1 || limit > MAX_LIST) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIST + ".");
+        }
+        return jobs.values().stream()
+                .map(this::snapshot)
+                .sorted(Comparator.comparing((AnalysisJob s) -> Instant.parse(s.getSubmittedAt())).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public LogAnalysisResponse result(String jobId) {
+        AnalysisJob s = get(jobId);
+        if (s.getState() != JobState.SUCCEEDED) {
+            throw new JobNotFinishedException("Job " + jobId + " is " + s.getState()
+                    + (s.getError() != null ? ": " + s.getError() : "."));
+        }
+        try {
+            return store.readResult(jobId)
+                    .orElseThrow(() -> new NotFoundException("Result of job " + jobId + " is missing."));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Cancels a queued or running job (a running one stops at its next chunk);
+    // a finished job is removed together with its result.
+    public AnalysisJob cancel(String jobId) {
+        Job job = require(jobId);
+        AnalysisJob s;
+        synchronized (job) {
+            switch (job.status.getState()) {
+                case QUEUED -> {
+                    if (workers.remove(job)) queued.decrementAndGet();
+                    job.status.setState(JobState.CANCELLED);
+                    job.status.setFinishedAt(Instant.now().toString());
+                    persist(job);
+                }
+                case RUNNING -> job.cancelRequested = true;
+                default -> {
+                    jobs.remove(jobId);
+                    deleteQuietly(jobId);
+                }
+            }
+            s = new AnalysisJob(job.status);
+        }
+        if (s.getState() == JobState.CANCELLED) deleteUploadQuietly(s);
+        return s;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // running jobs stay RUNNING on disk and start over on the next start
+        shuttingDown = true;
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // ---- execution ----
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.status.getState() != JobState.QUEUED) return;
+            AnalysisJob s = job.status;
+            s.setState(JobState.RUNNING);
+            s.setStartedAt(Instant.now().toString());
+            s.setAttempts(s.getAttempts() + 1);
+            persist(job);
+        }
+
+        String jobId = job.status.getJobId();
+        try {
+            LogAnalysisResponse result = analyze(job);
+            store.saveResult(jobId, result);
+            finish(job, JobState.SUCCEEDED, null);
+        } catch (Exception e) {
+            if (shuttingDown) {
+                log.info("Job {} interrupted by shutdown, it will run again after the restart", jobId);
+                return;
+            }
+            if (e instanceof CancellationException) {
+                finish(job, JobState.CANCELLED, null);
+            } else {
+                log.warn("Job {} failed: {}", jobId, e.toString());
+                finish(job, JobState.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        }
+    }
+
+    private LogAnalysisResponse analyze(Job job) throws IOException {
+        AnalysisJob s = snapshot(job);
+        LogFormat format = LogFormat.parse(s.getFormat());
+        String name = s.getSource().toLowerCase();
+        Scan scan = new Scan(job, analysisService.newScan(), new AtomicLong(maxDecompressedBytes));
+        List<LogSource> sources = new ArrayList<>();
+
+        try (CountingInputStream raw = new CountingInputStream(Files.newInputStream(store.inputPath(s)))) {
+            scan.raw = raw;
+            InputStream buffered = new BufferedInputStream(raw, 64 * 1024);
+
+            if (name.endsWith(".zip")) {
+                // entries are read in place, one after the other
+                ZipInputStream zip = new ZipInputStream(buffered);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String entryName = entry.getName();
+                    if (entry.isDirectory() || entryName.startsWith("__MACOSX/") || entryName.endsWith(".DS_Store")) continue;
+
+                    InputStream in = new FilterInputStream(zip) {
+                        @Override
+                        public void close() {
+                            // the zip stream stays open for the next entry
+                        }
+                    };
+                    try (InputStream entryIn = isGzip(entryName) ? new GZIPInputStream(in, 64 * 1024) : in) {
+                        sources.add(scanSource(scan, stripGz(entryName), entryIn, format));
+                    }
+                }
+                if (sources.isEmpty()) throw new IllegalArgumentException("Zip archive contains no log files.");
+            } else if (isGzip(name)) {
+                sources.add(scanSource(scan, stripGz(fileName(s.getSource())), new GZIPInputStream(buffered, 64 * 1024), format));
+            } else {
+                sources.add(scanSource(scan, fileName(s.getSource()), buffered, format));
+            }
+        }
+
+        String aiInput = scan.errorLines.length() > 0 ? scan.errorLines.toString() : scan.head;
+        return analysisService.complete(scan.merged, sources, aiInput == null ? "" : aiInput);
+    }
+
+    private LogSource scanSource(Scan scan, String name, InputStream in, LogFormat format) throws IOException {
+        InputStream bounded = new BoundedInputStream(in, scan.budget, maxDecompressedBytes);
+        LogChunker chunker = new LogChunker(new InputStreamReader(bounded, StandardCharsets.UTF_8), chunkChars);
+        LogFormat resolved = format;
+        long lines = 0;
+        int errors = 0;
+
+        String chunk;
+        while ((chunk = chunker.next()) != null) {
+            if (scan.job.cancelRequested || shuttingDown) throw new CancellationException();
+
+            AnalyzedLog analyzed = new AnalyzedLog(chunk);
+            // AUTO is decided on the first chunk, so all chunks of a source are read the same way
+            if (resolved == LogFormat.AUTO) resolved = format.resolve(analyzed);
+            LogScan chunkScan = analysisService.scanChunk(analyzed, resolved);
+            scan.merged.merge(chunkScan);
+
+            lines += analyzed.lineCount();
+            errors += chunkScan.errorCount();
+            scan.collectAiInput(analyzed);
+            progress(scan, analyzed.lineCount());
+        }
+        return new LogSource(name, null, (int) Math.min(Integer.MAX_VALUE, lines), errors);
+    }
+
+    private void progress(Scan scan, int newLines) {
+        List<ErrorSignature> top = analysisService.topSignatures(scan.merged, PARTIAL_SIGNATURES);
+        long bytesRead = scan.raw.count();
+        Job job = scan.job;
+        synchronized (job) {
+            AnalysisJob s = job.status;
+            s.setBytesRead(bytesRead);
+            s.setProgress(s.getInputBytes() > 0 ? Math.min(1.0, Math.round(1000.0 * bytesRead / s.getInputBytes()) / 1000.0) : 0);
+            s.setLinesScanned(s.getLinesScanned() + newLines);
+            s.setErrorCount(scan.merged.errorCount());
+            s.setTopErrorSignatures(top);
+            persist(job);
+        }
+    }
+
+    private void finish(Job job, JobState state, String error) {
+        AnalysisJob s;
+        synchronized (job) {
+            job.status.setState(state);
+            job.status.setFinishedAt(Instant.now().toString());
+            job.status.setError(error);
+            if (state == JobState.SUCCEEDED) job.status.setProgress(1.0);
+            persist(job);
+            s = new AnalysisJob(job.status);
+        }
+        deleteUploadQuietly(s);
+        expire();
+    }
+
+    // ---- persistence ----
+
+    private void recover(String dir) throws IOException {
+        List<AnalysisJob> saved = new ArrayList<>(store.loadAll());
+        // in queue order: idle workers take the first jobs directly, without going through the queue
+        saved.sort(Comparator.comparing(AnalysisJob::getPriority)
+                .thenComparing(s -> Instant.parse(s.getSubmittedAt())));
+
+        int requeued = 0;
+        int givenUp = 0;
+        for (AnalysisJob s : saved) {
+            boolean crashLoop = s.getState() == JobState.RUNNING && s.getAttempts() >= maxAttempts;
+            if (crashLoop) {
+                // the node went down every time this job ran (e.g. out of memory on it): don't start it again
+                s.setState(JobState.FAILED);
+                s.setFinishedAt(Instant.now().toString());
+                s.setError("Interrupted " + s.getAttempts() + " times while running, not started again (jobs.max-attempts="
+                        + maxAttempts + "); the node may have run out of memory on this log.");
+                log.warn("Job {} was interrupted {} times while running, marked FAILED", s.getJobId(), s.getAttempts());
+            } else if (!s.getState().isFinished()) {
+                // partial scans are not persisted: interrupted jobs start over
+                s.setState(JobState.QUEUED);
+                s.setStartedAt(null);
+                s.setBytesRead(0);
+                s.setProgress(0);
+                s.setLinesScanned(0);
+                s.setErrorCount(0);
+                s.setTopErrorSignatures(new ArrayList<>());
+            }
+            Job job = new Job(s);
+            jobs.put(s.getJobId(), job);
+            if (crashLoop) {
+                persist(job);
+                deleteUploadQuietly(s);
+                givenUp++;
+            } else if (s.getState() == JobState.QUEUED) {
+                persist(job);
+                queued.incrementAndGet();
+                workers.execute(job);
+                requeued++;
+            }
+        }
+        expire();
+        log.info("Job store {}: {} jobs, {} queued again, {} given up", dir, jobs.size(), requeued, givenUp);
+    }
+
+    // finished jobs older than jobs.retention are removed with their results
+    private void expire() {
+        Instant cutoff = Instant.now().minus(retention);
+        for (Job job : jobs.values()) {
+            AnalysisJob s = snapshot(job);
+            if (s.getState().isFinished() && s.getFinishedAt() != null && Instant.parse(s.getFinishedAt()).isBefore(cutoff)) {
+                jobs.remove(s.getJobId());
+                deleteQuietly(s.getJobId());
+            }
+        }
+    }
+
+    // caller holds the job's lock
+    private void persist(Job job) {
+        try {
+            store.save(job.status);
+        } catch (IOException e) {
+            log.warn("Could not save job {}: {}", job.status.getJobId(), e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(String jobId) {
+        try {
+            store.delete(jobId);
+        } catch (IOException e) {
+            log.warn("Could not delete job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void deleteUploadQuietly(AnalysisJob s) {
+        try {
+            store.deleteUpload(s);
+        } catch (IOException e) {
+            log.warn("Could not delete the input of job {}: {}", s.getJobId(), e.getMessage());
+        }
+    }
+
+    // ---- helpers ----
+
+    private void requireStore() {
+        if (store == null) throw new FeatureUnavailableException(unavailable);
+    }
+
+    private Job require(String jobId) {
+        requireStore();
+        Job job = jobs.get(jobId);
+        if (job == null) throw new NotFoundException("Job not found: " + jobId);
+        return job;
+    }
+
+    private AnalysisJob snapshot(Job job) {
+        synchronized (job) {
+            return new AnalysisJob(job.status);
+        }
+    }
+
+    // A readable file under jobs.allowed-dirs (also the rule for other server-side inputs, e.g. correlation).
+    // Symlinks are resolved, so a link inside an allowed dir can't point outside of it.
+    public Path checkAllowed(String path) throws IOException {
+        if (allowedDirs.isEmpty()) {
+            throw new IllegalArgumentException("Jobs over server-side paths are disabled (jobs.allowed-dirs is empty).");
+        }
+        Path file;
+        try {
+            file = Path.of(path).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        if (allowedDirs.stream().noneMatch(file::startsWith)) {
+            throw new IllegalArgumentException("Path is outside jobs.allowed-dirs: " + path);
+        }
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            throw new IllegalArgumentException("Not a readable file: " + path);
+        }
+        Path real = file.toRealPath();
+        for (Path dir : allowedDirs) {
+            if (Files.isDirectory(dir) && real.startsWith(dir.toRealPath())) return real;
+        }
+        throw new IllegalArgumentException("Path is outside jobs.allowed-dirs: " + path);
+    }
+
+    private static String fileName(String name) {
+        if (name == null || name.isBlank()) return "upload.log";
+        String trimmed = name.trim();
+        int slash = Math.max(trimmed.lastIndexOf('/'), trimmed.lastIndexOf('\\'));
+        String base = trimmed.substring(slash + 1);
+        return base.isEmpty() ? "upload.log" : base.substring(0, Math.min(base.length(), 255));
+    }
+
+    private static boolean isGzip(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".gz") || lower.endsWith(".gzip");
+    }
+
+    private static String stripGz(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // A queued job; ordered by priority, then submission.
+    private final class Job implements Runnable, Comparable<Job> {
+        final AnalysisJob status;
+        final long seq = sequence.incrementAndGet();
+        volatile boolean cancelRequested;
+
+        Job(AnalysisJob status) {
+            this.status = status;
+        }
+
+        @Override
+        public void run() {
+            queued.decrementAndGet();
+            AnalysisJobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = status.getPriority().compareTo(other.status.getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+
+    // State of one job run across its sources (zip entries) and chunks.
+    private static final class Scan {
+        final Job job;
+        final LogScan merged;
+        final AtomicLong budget;
+        final StringBuilder errorLines = new StringBuilder();
+        CountingInputStream raw;
+        String head;
+
+        Scan(Job job, LogScan merged, AtomicLong budget) {
+            this.job = job;
+            this.merged = merged;
+            this.budget = budget;
+        }
+
+        // AI input: the first error lines (the head of a big log is mostly startup noise),
+        // or the head when there are none
+        void collectAiInput(AnalyzedLog chunk) {
+            if (head == null) head = chunk.text().substring(0, Math.min(AI_INPUT_CHARS, chunk.text().length()));
+            for (int i = 0; i < chunk.lineCount() && errorLines.length() < AI_INPUT_CHARS; i++) {
+                if (chunk.isError(i)) errorLines.append(chunk.line(i)).append('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.logtriage.service;
+
+import com.logtriage.engine.ServiceCorrelator;
+import com.logtriage.ingest.LogInput;
+import com.logtriage.ingest.UploadedLogs;
+import com.logtriage.model.CorrelationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class CorrelationService {
+
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_TIMELINE = 1000;
+
+    private final ServiceCorrelator correlator;
+    private final AnalysisJobService jobService;
+    private final long maxInputBytes;
+
+    public CorrelationService(
+            AnalysisJobService jobService,
+            @Value("${analysis.correlate.max-signatures:10000}") int maxSignatures,
+            @Value("${analysis.correlate.max-tracked-ids:100000}") int maxTrackedIds,
+            @Value("${analysis.correlate.max-input-size:1GB}") DataSize maxInputSize
+    ) {
+        this.correlator = new ServiceCorrelator(maxSignatures, maxTrackedIds);
+        this.jobService = jobService;
+        this.maxInputBytes = maxInputSize.toBytes();
+    }
+
+    // Logs already on the server, read in place: no request size limit applies, only
+    // analysis.correlate.max-input-size per file. Paths must be under jobs.allowed-dirs.
+    public CorrelationResponse correlatePaths(List<String> paths, int timeline, int limit) throws IOException {
+        if (paths.size() > ServiceCorrelator.MAX_INPUTS) {
+            throw new IllegalArgumentException("At most " + ServiceCorrelator.MAX_INPUTS + " logs can be correlated.");
+        }
+        List<Path> files = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            files.add(jobService.checkAllowed(path));
+        }
+
+        List<UploadedLogs> opened = new ArrayList<>(files.size());
+        try {
+            List<LogInput> inputs = new ArrayList<>();
+            for (Path file : files) {
+                UploadedLogs logs = UploadedLogs.fromPath(file, maxInputBytes);
+                opened.add(logs);
+                inputs.addAll(logs.inputs());
+            }
+            return correlate(inputs, timeline, limit);
+        } finally {
+            for (UploadedLogs logs : opened) {
+                try {
+                    logs.close();
+                } catch (IOException ignored) {
+                    // best effort: nothing is spooled for files read in place
+                }
+            }
+        }
+    }
+
+    // One input per service, named after its file; all of them are read at once, a line at a time.
+    public CorrelationResponse correlate(List<LogInput> inputs, int timeline, int limit) throws IOException {
+        if (inputs.size() < 2) {
+            throw new IllegalArgumentException("Upload at least two logs (one per service) to correlate.");
+        }
+        if (inputs.size() > ServiceCorrelator.MAX_INPUTS) {
+            throw new IllegalArgumentException("At most " + ServiceCorrelator.MAX_INPUTS + " logs can be correlated.");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        if (timeline < 1 || timeline > MAX_TIMELINE) {
+            throw new IllegalArgumentException("timeline must be between 1 and " + MAX_TIMELINE + ".");
+        }
+
+        long start = System.nanoTime();
+        List<String> services = serviceNames(inputs);
+        List<InputStream> streams = new ArrayList<>(inputs.size());
+        try {
+            for (LogInput input : inputs) {
+                streams.add(input.open());
+            }
+            CorrelationResponse response = correlator.correlate(services, streams, timeline, limit);
+            response.setTookMs((System.nanoTime() - start) / 1_000_000);
+            return response;
+        } finally {
+            for (InputStream in : streams) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                    // best effort: everything needed was read
+                }
+            }
+        }
+    }
+
+    // "logs/orders-api.log" -> "orders-api"; repeated names get a #n suffix
+    static List<String> serviceNames(List<LogInput> inputs) {
+        Set<String> used = new HashSet<>();
+        List<String> names = new ArrayList<>(inputs.size());
+        for (LogInput input : inputs) {
+            String name = input.getName() == null ? "" : input.getName();
+            name = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+            String lower = name.toLowerCase();
+            if (lower.endsWith(".log") || lower.endsWith(".txt")) name = name.substring(0, name.length() - 4);
+            if (name.isBlank()) name = "service";
+
+            String unique = name;
+            for (int n = 2; !used.add(unique); n++) unique = name + "#" + n;
+            names.add(unique);
+        }
+        return names;
+    }
+}
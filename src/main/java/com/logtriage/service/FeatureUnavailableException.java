@@ -0,0 +1,9 @@
+package com.logtriage.service;
+
+// The endpoint's feature is disabled by configuration or failed to start: mapped to 503 Service Unavailable.
+public class FeatureUnavailableException extends RuntimeException {
+
+    public FeatureUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package com.logtriage.service;
+
+import com.logtriage.engine.IncidentFeatures;
+import com.logtriage.engine.MinHash;
+import com.logtriage.model.ErrorSignature;
+import com.logtriage.model.Incident;
+import com.logtriage.model.IncidentResolution;
+import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.store.IncidentIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+public class IncidentService {
+
+    private static final int MAX_LIMIT = 50;
+
+    // null when incidents.enabled=false or the index couldn't be opened (unavailable says why)
+    private final IncidentIndex index;
+    private final String unavailable;
+    private final int similarLimit;
+    private final double minSimilarity;
+
+    public IncidentService(
+            @Value("${incidents.enabled:true}") boolean enabled,
+            @Value("${incidents.dir:data/incidents}") String dir,
+            @Value("${incidents.similar-limit:5}") int similarLimit,
+            @Value("${incidents.min-similarity:0.3}") double minSimilarity
+    ) {
+        if (similarLimit < 1 || similarLimit > MAX_LIMIT) {
+            throw new IllegalArgumentException("incidents.similar-limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+        this.similarLimit = similarLimit;
+        this.minSimilarity = minSimilarity;
+
+        if (!enabled) {
+            this.index = null;
+            this.unavailable = "Incident index is disabled (incidents.enabled=false).";
+            return;
+        }
+
+        // like matchAndRecord, index I/O errors never stop the analyses: the app starts without it
+        long start = System.nanoTime();
+        IncidentIndex opened = null;
+        String error = null;
+        try {
+            opened = IncidentIndex.open(Path.of(dir));
+            log.info("Incident index {} opened: {} incidents in {} ms",
+                    dir, opened.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            error = "Incident index is unavailable (" + dir + "): " + e.getMessage();
+            log.warn("{} - analyses run without incident matching", error);
+        }
+        this.index = opened;
+        this.unavailable = error;
+    }
+
+    // Attaches the most similar past incidents to the response, then records it as a new incident.
+    // Logs without error signatures are not incidents. Index I/O errors never fail the analysis.
+    public void matchAndRecord(LogAnalysisResponse r) {
+        matchAndRecord(r, true);
+    }
+
+    // match = false: only recorded, no similarity lookup (the caller doesn't return similarIncidents)
+    public void matchAndRecord(LogAnalysisResponse r, boolean match) {
+        if (index == null || r.getTopErrorSignatures() == null || r.getTopErrorSignatures().isEmpty()) return;
+
+        int[] sketch = MinHash.sketch(IncidentFeatures.of(r));
+        try {
+            if (match) r.setSimilarIncidents(index.similar(sketch, similarLimit, minSimilarity));
+            r.setIncidentId(index.add(toIncident(r), sketch));
+        } catch (IOException e) {
+            log.warn("Incident index unavailable: {}", e.getMessage());
+        }
+    }
+
+    public Incident get(long incidentId) {
+        try {
+            return requireIndex().get(incidentId)
+                    .orElseThrow(() -> new NotFoundException("Incident not found: " + incidentId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Incident resolve(long incidentId, IncidentResolution resolution) {
+        try {
+            return requireIndex().resolve(incidentId, blankToNull(resolution.getTicketRef()), resolution.getResolution().trim())
+                    .orElseThrow(() -> new NotFoundException("Incident not found: " + incidentId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (index != null) index.close();
+    }
+
+    private IncidentIndex requireIndex() {
+        if (index == null) throw new FeatureUnavailableException(unavailable);
+        return index;
+    }
+
+    private static Incident toIncident(LogAnalysisResponse r) {
+        List<String> signatures = new ArrayList<>();
+        for (ErrorSignature s : r.getTopErrorSignatures()) {
+            signatures.add(s.getMessage() == null || s.getMessage().isBlank()
+                    ? s.getExceptionType()
+                    : s.getExceptionType() + ": " + s.getMessage());
+        }
+        return new Incident(0, Instant.now().toString(), r.getSeverity(), new ArrayList<>(r.getDetectedIssues()),
+                r.getPossibleRootCause(), signatures, null, null, null);
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+}
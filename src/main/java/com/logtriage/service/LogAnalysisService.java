@@ -1,87 +1,383 @@
 package com.logtriage.service;
 
-import com.logtriage.ai.HuggingFaceAiClient;
+import com.logtriage.ai.AiLogAnalyzer;
+import com.logtriage.ai.AiMode;
+import com.logtriage.ai.AiRouter;
+import com.logtriage.ai.LocalPrediction;
+import com.logtriage.ai.RoutedInsight;
+import com.logtriage.engine.AnalyzedLog;
+import com.logtriage.engine.LogFormat;
+import com.logtriage.engine.LogScan;
 import com.logtriage.engine.RuleBasedLogAnalyzer;
+import com.logtriage.ingest.LogInput;
+import com.logtriage.ingest.UploadedLogs;
 import com.logtriage.model.AiInsight;
+import com.logtriage.model.ErrorSignature;
 import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.model.LogSource;
+import com.logtriage.model.ResponseFields;
+import com.logtriage.store.AnalysisStore;
 import com.logtriage.ticket.TicketFormatter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
 @Service
 public class LogAnalysisService {
 
-    private final RuleBasedLogAnalyzer ruleAnalyzer = new RuleBasedLogAnalyzer();
-    private final HuggingFaceAiClient hfClient;
-    private final TicketFormatter ticketFormatter = new TicketFormatter();
+    // the prompt keeps ~6000 chars of log anyway
+    private static final int AI_INPUT_CHARS = 6000;
 
-    public LogAnalysisService(HuggingFaceAiClient hfClient) {
-        this.hfClient = hfClient;
+    private final RuleBasedLogAnalyzer ruleAnalyzer;
+    private final AiRouter aiRouter;
+    private final AiLogAnalyzer localModel;
+    private final AiMode aiMode;
+    private final double minLocalConfidence;
+    private final TicketFormatter ticketFormatter = new TicketFormatter();
+    private final AnalysisStore analysisStore;
+    private final IncidentService incidentService;
+
+    // parallel decompression + scan of multi-entry uploads
+    private final ExecutorService ingestPool = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            r -> {
+                Thread t = new Thread(r, "log-ingest");
+                t.setDaemon(true);
+                return t;
+            });
+
+    public LogAnalysisService(
+            AiRouter aiRouter,
+            AiLogAnalyzer localModel,
+            AnalysisStore analysisStore,
+            IncidentService incidentService,
+            @Value("${ai.mode:local-first}") String aiMode,
+            @Value("${ai.local.min-confidence:0.25}") double minLocalConfidence,
+            @Value("${analysis.signature-capacity:1024}") int signatureCapacity,
+            @Value("${analysis.blast-radius.host-pattern:" + RuleBasedLogAnalyzer.DEFAULT_HOST_PATTERN + "}") String hostPattern,
+            @Value("${analysis.blast-radius.user-pattern:" + RuleBasedLogAnalyzer.DEFAULT_USER_PATTERN + "}") String userPattern
+    ) {
+        this.ruleAnalyzer = new RuleBasedLogAnalyzer(signatureCapacity, compileOrNull(hostPattern), compileOrNull(userPattern));
+        this.aiRouter = aiRouter;
+        this.localModel = localModel;
+        this.aiMode = AiMode.parse(aiMode);
+        this.minLocalConfidence = minLocalConfidence;
+        this.analysisStore = analysisStore;
+        this.incidentService = incidentService;
     }
 
     public LogAnalysisResponse analyze(String log) {
+        return analyze(log, LogFormat.AUTO);
+    }
+
+    public LogAnalysisResponse analyze(String log, LogFormat format) {
+        return analyze(log, format, ResponseFields.ALL);
+    }
+
+    // Only the stages the requested fields depend on run (see ResponseFields), each once.
+    public LogAnalysisResponse analyze(String log, LogFormat format, ResponseFields fields) {
 
         // 1) Always compute rule-based baseline
-        LogAnalysisResponse r = ruleAnalyzer.analyze(log);
+        LogAnalysisResponse r = baseline(log, format, fields);
 
-        // Defaults
-        r.setAiUsed(false);
-        r.setAiProvider("huggingface");
-        r.setAiError(null);
-        r.setAiLatencyMs(null);
+        // 2) AI enrichment, ticket and suggestions
+        return finish(r, log, fields);
+    }
+
+    public LogAnalysisResponse analyzeInputs(List<LogInput> inputs, LogFormat format) throws IOException {
+        return analyzeInputs(inputs, format, ResponseFields.ALL);
+    }
+
+    // Uploaded inputs (plain, gzip, or zip entries). Several inputs are decompressed and
+    // scanned in parallel, each stored separately, and their scans merged into one response.
+    public LogAnalysisResponse analyzeInputs(List<LogInput> inputs, LogFormat format, ResponseFields fields) throws IOException {
+        if (inputs.size() == 1) {
+            try (InputStream in = inputs.get(0).open()) {
+                return analyze(UploadedLogs.readText(in), format, fields);
+            }
+        }
+
+        List<Future<ScannedSource>> futures = new ArrayList<>();
+        for (LogInput input : inputs) {
+            futures.add(ingestPool.submit(() -> scanSource(input, format, fields.needsStore())));
+        }
+
+        List<ScannedSource> scanned = new ArrayList<>();
+        try {
+            for (Future<ScannedSource> f : futures) {
+                scanned.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading uploaded logs", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+
+        LogScan merged = ruleAnalyzer.newScan();
+        List<LogSource> sources = new ArrayList<>();
+        StringBuilder aiInput = new StringBuilder();
+        int excerpt = AI_INPUT_CHARS / scanned.size();
+
+        for (ScannedSource src : scanned) {
+            merged.merge(src.scan());
+            sources.add(new LogSource(src.name(), src.analysisId(), src.log().lineCount(), src.scan().errorCount()));
+
+            String text = src.log().text();
+            aiInput.append("=== ").append(src.name()).append(" ===\n")
+                    .append(text, 0, Math.min(excerpt, text.length())).append("\n");
+        }
+
+        return complete(merged, sources, aiInput.toString(), fields);
+    }
+
+    // ---- very large inputs (async jobs) ----
+    // The log is scanned chunk by chunk and the chunk scans merged, as for zip entries;
+    // chunks are not kept in the AnalysisStore, so the result has no analysisId.
+
+    public LogScan newScan() {
+        return ruleAnalyzer.newScan();
+    }
+
+    public LogScan scanChunk(AnalyzedLog chunk, LogFormat format) {
+        return ruleAnalyzer.scan(chunk, format);
+    }
+
+    // current top signatures of a scan still in progress
+    public List<ErrorSignature> topSignatures(LogScan scan, int limit) {
+        List<ErrorSignature> top = ruleAnalyzer.summarize(scan).getTopErrorSignatures();
+        return new ArrayList<>(top.subList(0, Math.min(limit, top.size())));
+    }
+
+    // Summary, incident matching and AI enrichment of merged scans.
+    public LogAnalysisResponse complete(LogScan merged, List<LogSource> sources, String aiInput) {
+        return complete(merged, sources, aiInput, ResponseFields.ALL);
+    }
+
+    private LogAnalysisResponse complete(LogScan merged, List<LogSource> sources, String aiInput, ResponseFields fields) {
+        LogAnalysisResponse r = ruleAnalyzer.summarize(merged);
+        r.setSources(sources);
+        resetAiMeta(r);
+        recordIncident(r, fields);
+
+        return finish(r, aiInput, fields);
+    }
+
+    private ScannedSource scanSource(LogInput input, LogFormat format, boolean store) throws IOException {
+        String text;
+        try (InputStream in = input.open()) {
+            text = UploadedLogs.readText(in);
+        }
+        AnalyzedLog analyzed = new AnalyzedLog(text, store);
+        LogScan scan = ruleAnalyzer.scan(analyzed, format);
+        return new ScannedSource(input.getName(), store ? analysisStore.put(analyzed) : null, analyzed, scan);
+    }
+
+    private record ScannedSource(String name, String analysisId, AnalyzedLog log, LogScan scan) {
+    }
+
+    // AI enrichment only when a requested field depends on it, then each requested ticket / suggestion
+    // field is formatted once, from the final cause and steps.
+    private LogAnalysisResponse finish(LogAnalysisResponse r, String aiInput, ResponseFields fields) {
+        String aiSummary = fields.needsAi() ? withAi(r, aiInput) : null;
+        return format(r, aiSummary, fields);
+    }
+
+    // Local classifier first (sub-millisecond); the remote LLM only when it isn't confident
+    // (ai.mode=local-first), never (local), or always first (remote).
+    // A failed remote call still falls back to a confident local prediction before the rules.
+    // Returns the AI summary for the ticket, null when the rules had to do.
+    private String withAi(LogAnalysisResponse r, String aiInput) {
+        long t0 = System.nanoTime();
+        LocalPrediction local = localModel.classify(aiInput);
+        long localMs = (System.nanoTime() - t0) / 1_000_000;
+        boolean confident = isConfident(local);
+
+        if (aiMode != AiMode.REMOTE && confident) {
+            return enrichLocal(r, local, localMs);
+        }
+        if (aiMode == AiMode.LOCAL) {
+            fallback(r, lowConfidence(local));
+            return null;
+        }
 
-        // 2) AI enrichment
         try {
-            long t0 = System.nanoTime();
-            AiInsight ai = hfClient.analyze(log);
             long t1 = System.nanoTime();
-            r.setAiLatencyMs((t1 - t0) / 1_000_000);
+            RoutedInsight ai = aiRouter.analyze(aiInput);
+            r.setAiLatencyMs((System.nanoTime() - t1) / 1_000_000);
+            r.setAiProvider(ai.getProvider());
 
-            r.setAiUsed(true);
+            return enrich(r, ai.getInsight());
 
-            // enrich cause
-            if (ai.getAiLikelyCause() != null && !ai.getAiLikelyCause().isBlank()) {
-                r.setPossibleRootCause(ai.getAiLikelyCause().trim());
+        } catch (Exception e) {
+            if (confident) {
+                r.setAiError(e.getMessage());
+                return enrichLocal(r, local, localMs);
             }
+            fallback(r, e);
+            return null;
+        }
+    }
 
-            // enrich steps (append, then cap to 5 total)
-            if (ai.getAiNextSteps() != null && !ai.getAiNextSteps().isEmpty()) {
-                r.getNextSteps().addAll(ai.getAiNextSteps());
+    // Streaming variant: "insight" events carry partial AI insights as soon as each section
+    // is parsed, the final "result" event carries the same response analyze() would return.
+    public Flux<ServerSentEvent<Object>> analyzeStream(String log, LogFormat format) {
+        return Flux.defer(() -> {
+            LogAnalysisResponse r = baseline(log, format, ResponseFields.ALL);
+
+            long l0 = System.nanoTime();
+            LocalPrediction local = localModel.classify(log);
+            long localMs = (System.nanoTime() - l0) / 1_000_000;
+            boolean confident = isConfident(local);
+            if ((aiMode != AiMode.REMOTE && confident) || aiMode == AiMode.LOCAL) {
+                if (!confident) {
+                    fallback(r, lowConfidence(local));
+                    return Flux.just(ServerSentEvent.<Object>builder(format(r, null, ResponseFields.ALL)).event("result").build());
+                }
+                String aiSummary = enrichLocal(r, local, localMs);
+                return Flux.just(
+                        ServerSentEvent.<Object>builder(local.getInsight()).event("insight").build(),
+                        ServerSentEvent.<Object>builder(format(r, aiSummary, ResponseFields.ALL)).event("result").build());
             }
-            capNextSteps(r, 5);
 
+            AtomicReference<RoutedInsight> last = new AtomicReference<>();
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            long t0 = System.nanoTime();
 
+            Flux<ServerSentEvent<Object>> insights = aiRouter.analyzeStream(log)
+                    .doOnNext(last::set)
+                    .map(ai -> ServerSentEvent.<Object>builder(ai.getInsight()).event("insight").build())
+                    .onErrorResume(Exception.class, e -> {
+                        failure.set(e);
+                        return Flux.empty();
+                    });
+
+            Mono<ServerSentEvent<Object>> result = Mono.fromSupplier(() -> {
+                String aiSummary = null;
+                if (failure.get() != null || last.get() == null) {
+                    Exception e = failure.get() != null ? failure.get() : new IllegalStateException("AI stream returned no content");
+                    if (confident) {
+                        r.setAiError(e.getMessage());
+                        aiSummary = enrichLocal(r, local, localMs);
+                    } else {
+                        fallback(r, e);
+                    }
+                } else {
+                    r.setAiLatencyMs((System.nanoTime() - t0) / 1_000_000);
+                    r.setAiProvider(last.get().getProvider());
+                    aiSummary = enrich(r, last.get().getInsight());
+                }
+                return ServerSentEvent.<Object>builder(format(r, aiSummary, ResponseFields.ALL)).event("result").build();
+            });
+
+            return insights.concatWith(result);
+        });
+    }
 
-            String aiSummary = (ai.getAiSummary() == null || ai.getAiSummary().isBlank())
-                    ? null
-                    : ai.getAiSummary().trim();
+    // The log is only indexed for search and stored when the caller wants its analysisId.
+    private LogAnalysisResponse baseline(String log, LogFormat format, ResponseFields fields) {
+        AnalyzedLog analyzed = new AnalyzedLog(log, fields.needsStore());
+        LogAnalysisResponse r = ruleAnalyzer.summarize(ruleAnalyzer.scan(analyzed, format));
+        if (fields.needsStore()) r.setAnalysisId(analysisStore.put(analyzed));
+        resetAiMeta(r);
+        recordIncident(r, fields);
+        return r;
+    }
 
-            // 3) Title strategy
-            r.setTicketTitle(buildTitle(r));
+    // Projections without similarIncidents / ticketBody / incidentId skip the incident index entirely.
+    private void recordIncident(LogAnalysisResponse r, ResponseFields fields) {
+        if (fields.needsIncidents()) incidentService.matchAndRecord(r, fields.needsSimilarIncidents());
+    }
 
-            // 4) Ticket body (formatted)
-            String body = ticketFormatter.format(r);
-            if (aiSummary != null) {
-                body = "AI Summary:\n- " + aiSummary + "\n\n" + body;
-            }
-            r.setTicketBody(body);
+    private void resetAiMeta(LogAnalysisResponse r) {
+        // Defaults
+        r.setAiUsed(false);
+        r.setAiProvider(aiRouter.defaultProvider());
+        r.setAiError(null);
+        r.setAiLatencyMs(null);
+        r.setAiLabel(null);
+        r.setAiConfidence(null);
+    }
 
-            // 5) Suggested greps
-            r.setSuggestedGrepQueries(TicketFormatter.buildSuggestedGrepQueries(r, "app.log"));
+    private boolean isConfident(LocalPrediction p) {
+        return p != null && p.getConfidence() >= minLocalConfidence;
+    }
+
+    private IllegalStateException lowConfidence(LocalPrediction p) {
+        if (p == null) return new IllegalStateException("Local incident model has no training corpus");
+        return new IllegalStateException(String.format(Locale.ROOT,
+                "Local model confidence %.3f is below ai.local.min-confidence %.3f", p.getConfidence(), minLocalConfidence));
+    }
 
-            return r;
+    private String enrichLocal(LogAnalysisResponse r, LocalPrediction p, long latencyMs) {
+        r.setAiProvider("local");
+        r.setAiLabel(p.getLabel());
+        r.setAiConfidence(Math.round(p.getConfidence() * 1000) / 1000.0);
+        r.setAiLatencyMs(latencyMs);
+        return enrich(r, p.getInsight());
+    }
 
-        } catch (Exception e) {
-            r.setAiUsed(false);
-            r.setAiError(e.getMessage());
+    // AI cause and steps into the response; returns the AI summary (null if blank) for the ticket body
+    private String enrich(LogAnalysisResponse r, AiInsight ai) {
+        r.setAiUsed(true);
+
+        // enrich cause
+        if (ai.getAiLikelyCause() != null && !ai.getAiLikelyCause().isBlank()) {
+            r.setPossibleRootCause(ai.getAiLikelyCause().trim());
+        }
+
+        // enrich steps (append, then cap to 5 total)
+        if (ai.getAiNextSteps() != null && !ai.getAiNextSteps().isEmpty()) {
+            r.getNextSteps().addAll(ai.getAiNextSteps());
+        }
+        capNextSteps(r, 5);
+
+        return (ai.getAiSummary() == null || ai.getAiSummary().isBlank())
+                ? null
+                : ai.getAiSummary().trim();
+    }
 
+    private void fallback(LogAnalysisResponse r, Exception e) {
+        r.setAiUsed(false);
+        r.setAiError(e.getMessage());
+    }
 
-            r.setTicketTitle(buildTitle(r));
-            r.setTicketBody(ticketFormatter.format(r));
+    // Ticket title / body and suggestions, each built only when requested
+    private LogAnalysisResponse format(LogAnalysisResponse r, String aiSummary, ResponseFields fields) {
+        if (fields.includes("ticketTitle")) {
+            r.setTicketTitle(TicketFormatter.buildTitle(r));
+        }
+        if (fields.includes("ticketBody")) {
+            String body = ticketFormatter.format(r);
+            if (aiSummary != null) {
+                body = "AI Summary:\n- " + aiSummary + "\n\n" + body;
+            }
+            r.setTicketBody(body);
+        }
+        if (fields.includes("suggestedGrepQueries")) {
             r.setSuggestedGrepQueries(TicketFormatter.buildSuggestedGrepQueries(r, "app.log"));
-            return r;
         }
+        if (fields.includes("suggestedSearches")) {
+            r.setSuggestedSearches(TicketFormatter.buildSuggestedSearches(r));
+        }
+        return r;
     }
 
     private void capNextSteps(LogAnalysisResponse r, int max) {
@@ -92,17 +388,6 @@ public class LogAnalysisService {
         }
     }
 
-    private String buildTitle(LogAnalysisResponse r) {
-        String sev = (r.getSeverity() == null) ? "UNKNOWN" : r.getSeverity();
-
-        String issues = String.join(" | ", r.getDetectedIssues() == null ? List.of() : r.getDetectedIssues()).toLowerCase();
-
-        if (issues.contains("database")) return "Incident: Database connectivity issue (" + sev + ")";
-        if (issues.contains("timeout")) return "Incident: Timeout / downstream latency (" + sev + ")";
-        if (issues.contains("nullpointer")) return "Incident: NullPointerException (" + sev + ")";
-        return "Incident: Application error (" + sev + ")";
-    }
-
     private void normalizeNextSteps(LogAnalysisResponse r, int max) {
         List<String> steps = r.getNextSteps();
         if (steps == null) return;
@@ -136,4 +421,8 @@ public class LogAnalysisService {
         r.setNextSteps(deduped);
     }
 
+    // blank pattern = extractor disabled
+    private static Pattern compileOrNull(String regex) {
+        return (regex == null || regex.isBlank()) ? null : Pattern.compile(regex);
+    }
 }
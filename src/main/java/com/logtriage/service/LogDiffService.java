@@ -0,0 +1,169 @@
+package com.logtriage.service;
+
+import com.logtriage.admission.AdmissionFilter;
+import com.logtriage.engine.LogDiffer;
+import com.logtriage.engine.LogTimestamps;
+import com.logtriage.ingest.LogInput;
+import com.logtriage.ingest.UploadedLogs;
+import com.logtriage.model.DiffQuery;
+import com.logtriage.model.LogDiffResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+public class LogDiffService {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final int maxFingerprints;
+    private final AnalysisJobService jobService;
+    private final long maxInputBytes;
+
+    // the before inputs are streamed here while the calling thread reads the after inputs; one thread per
+    // request the large admission lane lets in, so a diff doesn't wait behind the others
+    private final ExecutorService diffPool;
+
+    public LogDiffService(
+            AnalysisJobService jobService,
+            @Value("${analysis.diff.max-fingerprints:200000}") int maxFingerprints,
+            @Value("${analysis.diff.max-input-size:1GB}") DataSize maxInputSize,
+            @Value("${admission.large.max-concurrent:0}") int largeConcurrent
+    ) {
+        this.jobService = jobService;
+        this.maxFingerprints = maxFingerprints;
+        this.maxInputBytes = maxInputSize.toBytes();
+        this.diffPool = Executors.newFixedThreadPool(AdmissionFilter.largeConcurrency(largeConcurrent), r -> {
+            Thread t = new Thread(r, "log-diff");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        diffPool.shutdownNow();
+    }
+
+    // Logs already on the server, streamed in place: no request size limit applies, only
+    // analysis.diff.max-input-size per side. Paths must be under jobs.allowed-dirs.
+    public LogDiffResponse diffPaths(String before, String after, String file, DiffQuery query) throws IOException {
+        boolean twoLogs = !isBlank(before) && !isBlank(after);
+        boolean oneLog = !isBlank(file);
+        if (twoLogs == oneLog) {
+            throw new IllegalArgumentException("Give either 'before' and 'after', or a single 'file' with time ranges.");
+        }
+
+        if (oneLog) {
+            try (UploadedLogs logs = UploadedLogs.fromPath(jobService.checkAllowed(file), maxInputBytes)) {
+                return diffRanges(logs.inputs(), query);
+            }
+        }
+        Path beforeFile = jobService.checkAllowed(before);
+        Path afterFile = jobService.checkAllowed(after);
+        try (UploadedLogs b = UploadedLogs.fromPath(beforeFile, maxInputBytes);
+             UploadedLogs a = UploadedLogs.fromPath(afterFile, maxInputBytes)) {
+            return diff(b.inputs(), a.inputs(), query);
+        }
+    }
+
+    // Two logs: everything in `before` vs everything in `after`.
+    public LogDiffResponse diff(List<LogInput> before, List<LogInput> after, DiffQuery query) throws IOException {
+        validate(query);
+        long start = System.nanoTime();
+
+        Future<LogDiffer.Side> b = diffPool.submit(() -> scanAll(before));
+        LogDiffer.Side afterSide;
+        try {
+            afterSide = scanAll(after);
+        } catch (IOException | RuntimeException e) {
+            b.cancel(true);
+            throw e;
+        }
+        LogDiffer.Side beforeSide = await(b);
+
+        return compare(beforeSide, afterSide, query, start);
+    }
+
+    // One log split into two time windows by the before*/after* bounds of the query.
+    public LogDiffResponse diffRanges(List<LogInput> inputs, DiffQuery query) throws IOException {
+        validate(query);
+        if (query.getBeforeFrom() == null || query.getBeforeTo() == null
+                || query.getAfterFrom() == null || query.getAfterTo() == null) {
+            throw new IllegalArgumentException("beforeFrom, beforeTo, afterFrom and afterTo are required to diff one log.");
+        }
+        long beforeFrom = LogTimestamps.lowerBound(query.getBeforeFrom());
+        long beforeTo = LogTimestamps.upperBound(query.getBeforeTo());
+        long afterFrom = LogTimestamps.lowerBound(query.getAfterFrom());
+        long afterTo = LogTimestamps.upperBound(query.getAfterTo());
+        if (beforeFrom > beforeTo || afterFrom > afterTo) {
+            throw new IllegalArgumentException("Each time range must start before it ends.");
+        }
+
+        long start = System.nanoTime();
+        LogDiffer differ = new LogDiffer(maxFingerprints);
+        LogDiffer.Side before = differ.newSide();
+        LogDiffer.Side after = differ.newSide();
+        for (LogInput input : inputs) {
+            try (InputStream in = input.open()) {
+                differ.scanRanges(in, before, beforeFrom, beforeTo, after, afterFrom, afterTo);
+            }
+        }
+        return compare(before, after, query, start);
+    }
+
+    private LogDiffer.Side scanAll(List<LogInput> inputs) throws IOException {
+        LogDiffer differ = new LogDiffer(maxFingerprints);
+        LogDiffer.Side side = differ.newSide();
+        for (LogInput input : inputs) {
+            try (InputStream in = input.open()) {
+                differ.scan(in, side);
+            }
+        }
+        return side;
+    }
+
+    private LogDiffResponse compare(LogDiffer.Side before, LogDiffer.Side after, DiffQuery query, long start) {
+        LogDiffResponse response = new LogDiffer(maxFingerprints)
+                .compare(before, after, query.getMinIncrease(), query.getMinCount(), query.getLimit());
+        response.setTookMs((System.nanoTime() - start) / 1_000_000);
+        return response;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static void validate(DiffQuery query) {
+        if (query.getMinIncrease() < 1.0) {
+            throw new IllegalArgumentException("minIncrease must be >= 1.");
+        }
+        if (query.getLimit() < 1 || query.getLimit() > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+    }
+
+    private static LogDiffer.Side await(Future<LogDiffer.Side> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading logs to diff", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.logtriage.service;
+
+// A requested analysis, id, incident or job doesn't exist (or has expired): mapped to 404 Not Found.
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
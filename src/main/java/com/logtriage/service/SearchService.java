@@ -0,0 +1,27 @@
+package com.logtriage.service;
+
+import com.logtriage.engine.LogSearcher;
+import com.logtriage.model.SearchQuery;
+import com.logtriage.model.SearchResult;
+import com.logtriage.store.AnalysisStore;
+import org.springframework.stereotype.Service;
+
+
+@Service
+public class SearchService {
+
+    private final AnalysisStore analysisStore;
+    private final LogSearcher searcher = new LogSearcher();
+
+    public SearchService(AnalysisStore analysisStore) {
+        this.analysisStore = analysisStore;
+    }
+
+    public SearchResult search(String analysisId, SearchQuery query) {
+        SearchResult result = analysisStore.get(analysisId)
+                .map(analyzed -> searcher.search(analyzed, query))
+                .orElseThrow(() -> new NotFoundException("Analysis not found or expired: " + analysisId));
+        result.setAnalysisId(analysisId);
+        return result;
+    }
+}
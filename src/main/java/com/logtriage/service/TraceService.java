@@ -0,0 +1,57 @@
+package com.logtriage.service;
+
+import com.logtriage.engine.AnalyzedLog;
+import com.logtriage.engine.CorrelationIndex;
+import com.logtriage.model.CorrelatedId;
+import com.logtriage.model.TraceLine;
+import com.logtriage.model.TraceTimeline;
+import com.logtriage.store.AnalysisStore;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class TraceService {
+
+    private final AnalysisStore analysisStore;
+
+    public TraceService(AnalysisStore analysisStore) {
+        this.analysisStore = analysisStore;
+    }
+
+    // Every line the id appears on, in log order (capped at maxLines).
+    public TraceTimeline timeline(String analysisId, String id, int maxLines) {
+        AnalyzedLog analyzed = load(analysisId);
+        CorrelationIndex index = analyzed.correlationIndex();
+        if (!index.contains(id)) {
+            throw new NotFoundException("ID not found in analysis: " + id);
+        }
+
+        int[] lines = index.lines(id);
+        int n = Math.min(lines.length, Math.max(1, maxLines));
+
+        List<TraceLine> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int line = lines[i];
+            out.add(new TraceLine(line + 1, analyzed.isError(line), analyzed.line(line)));
+        }
+
+        return new TraceTimeline(analysisId, id, lines.length, index.errorCount(id), n < lines.length, out);
+    }
+
+    public List<CorrelatedId> topErrorIds(String analysisId, int limit) {
+        CorrelationIndex index = load(analysisId).correlationIndex();
+
+        List<CorrelatedId> out = new ArrayList<>();
+        for (String id : index.topByErrors(Math.max(1, limit))) {
+            out.add(new CorrelatedId(id, index.lineCount(id), index.errorCount(id)));
+        }
+        return out;
+    }
+
+    private AnalyzedLog load(String analysisId) {
+        return analysisStore.get(analysisId)
+                .orElseThrow(() -> new NotFoundException("Analysis not found or expired: " + analysisId));
+    }
+}
@@ -0,0 +1,166 @@
+package com.logtriage.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logtriage.ai.AiLogAnalyzer;
+import com.logtriage.ai.LocalPrediction;
+import com.logtriage.engine.AnalyzedLog;
+import com.logtriage.engine.LogDiffer;
+import com.logtriage.engine.LogFormat;
+import com.logtriage.engine.LogSearcher;
+import com.logtriage.engine.RuleBasedLogAnalyzer;
+import com.logtriage.model.LogAnalysisRequest;
+import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.model.SearchQuery;
+import com.logtriage.ticket.TicketFormatter;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+// Runs synthetic logs through the analyzer, local classifier, search, diff, ticket formatter and JSON serialization
+// before the app reports ready, so the first real request doesn't pay for class loading and a cold JIT.
+// ApplicationRunners complete before Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC,
+// so readiness (GET /api/health/readiness) stays 503 until this is done.
+// With warmup.exit-when-done the JVM exits afterwards: that is the CDS training run of the fast-startup image,
+// so the archive also covers the classes only loaded by the analysis path.
+@Slf4j
+@Component
+public class AnalyzerWarmup implements ApplicationRunner {
+
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+    private final boolean exitWhenDone;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ConfigurableApplicationContext context;
+    private final AiLogAnalyzer localModel;
+
+    public AnalyzerWarmup(
+            ObjectMapper objectMapper,
+            Validator validator,
+            ConfigurableApplicationContext context,
+            AiLogAnalyzer localModel,
+            @Value("${warmup.enabled:true}") boolean enabled,
+            @Value("${warmup.iterations:20}") int iterations,
+            @Value("${warmup.max-duration:3s}") Duration maxDuration,
+            @Value("${warmup.exit-when-done:false}") boolean exitWhenDone
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.context = context;
+        this.localModel = localModel;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled) return;
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+
+        String textLog = syntheticTextLog(600);
+        String jsonLog = syntheticJsonLog(200);
+        RuleBasedLogAnalyzer analyzer = new RuleBasedLogAnalyzer();
+        LogSearcher searcher = new LogSearcher();
+        TicketFormatter formatter = new TicketFormatter();
+
+        SearchQuery query = new SearchQuery();
+        query.setQ("timed out");
+        query.setExceptionType("SocketTimeoutException");
+
+        int done = 0;
+        long bytes = 0;
+        LogAnalysisRequest sample = new LogAnalysisRequest();
+        sample.setLogContent(textLog);
+        byte[] requestJson = objectMapper.writeValueAsBytes(sample);
+
+        while (done < iterations && System.nanoTime() < deadline) {
+            // request binding + @Valid, as the controller does it
+            LogAnalysisRequest request = objectMapper.readValue(requestJson, LogAnalysisRequest.class);
+            validator.validate(request);
+
+            AnalyzedLog text = new AnalyzedLog(request.getLogContent(), true);
+            LogAnalysisResponse r = analyzer.summarize(analyzer.scan(text, LogFormat.AUTO));
+            r.setTicketTitle(TicketFormatter.buildTitle(r));
+            r.setTicketBody(formatter.format(r));
+            r.setSuggestedGrepQueries(TicketFormatter.buildSuggestedGrepQueries(r, "app.log"));
+            r.setSuggestedSearches(TicketFormatter.buildSuggestedSearches(r));
+            bytes += objectMapper.writeValueAsBytes(r).length;
+
+            LocalPrediction prediction = localModel.classify(request.getLogContent());
+            if (prediction != null) bytes += objectMapper.writeValueAsBytes(prediction.getInsight()).length;
+
+            bytes += objectMapper.writeValueAsBytes(searcher.search(text, query)).length;
+
+            LogAnalysisResponse json = analyzer.summarize(analyzer.scan(new AnalyzedLog(jsonLog), LogFormat.AUTO));
+            bytes += objectMapper.writeValueAsBytes(json).length;
+
+            LogDiffer differ = new LogDiffer();
+            LogDiffer.Side before = differ.newSide();
+            LogDiffer.Side after = differ.newSide();
+            differ.scan(new ByteArrayInputStream(jsonLog.getBytes(StandardCharsets.UTF_8)), before);
+            differ.scan(new ByteArrayInputStream(textLog.getBytes(StandardCharsets.UTF_8)), after);
+            bytes += objectMapper.writeValueAsBytes(differ.compare(before, after, 2.0, 5, 10)).length;
+
+            done++;
+        }
+
+        log.info("Warm-up finished: {} iterations, {} KB serialized in {} ms",
+                done, bytes / 1024, (System.nanoTime() - start) / 1_000_000);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private static String syntheticTextLog(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 120);
+        for (int i = 0; i < lines; i++) {
+            String ts = String.format("2026-03-18 10:%02d:%02d.%03d ", (i / 60) % 60, i % 60, i % 1000);
+            switch (i % 10) {
+                case 0 -> sb.append(ts).append("ERROR [http-nio-8080-exec-").append(i % 8)
+                        .append("] host=api-").append(i % 3).append(" user=u").append(i % 50)
+                        .append(" requestId=req-").append(100000 + i).append(" request failed\n")
+                        .append("java.lang.NullPointerException: order ").append(i).append(" has no customer\n")
+                        .append("\tat com.example.orders.OrderService.process(OrderService.java:42)\n");
+                case 3 -> sb.append(ts).append("WARN traceId=trace-").append(200000 + i)
+                        .append(" java.net.SocketTimeoutException: Read timed out\n");
+                case 7 -> sb.append(ts).append("ERROR java.sql.SQLTransientConnectionException: ")
+                        .append("HikariPool-1 - Connection is not available, request timed out after 30000ms\n");
+                default -> sb.append(ts).append("INFO [main] c.e.orders.OrderController : handled order ")
+                        .append(i).append(" in ").append(i % 500).append("ms\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String syntheticJsonLog(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 200);
+        for (int i = 0; i < lines; i++) {
+            sb.append("{\"@timestamp\":\"2026-03-18T11:").append(String.format("%02d:%02d", (i / 60) % 60, i % 60))
+                    .append(".000Z\",\"level\":\"").append(i % 5 == 0 ? "ERROR" : "INFO")
+                    .append("\",\"message\":\"request ").append(i).append(" handled\"")
+                    .append(",\"host\":{\"name\":\"api-").append(i % 3).append("\"}")
+                    .append(",\"trace\":{\"id\":\"trace-").append(300000 + i).append("\"}");
+            if (i % 5 == 0) {
+                sb.append(",\"error\":{\"type\":\"java.lang.IllegalStateException\",\"message\":\"pool closed\"")
+                        .append(",\"stack_trace\":\"java.lang.IllegalStateException: pool closed\\n\\tat a.B.c(B.java:1)\"}");
+            }
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+}
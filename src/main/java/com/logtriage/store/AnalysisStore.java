@@ -0,0 +1,90 @@
+package com.logtriage.store;
+
+import com.logtriage.engine.AnalyzedLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Keeps recent analyzed uploads (text + indexes) so follow-up queries (trace, search)
+// can run against them without re-uploading. Entries expire after the retention period;
+// beyond max-entries or max-bytes (AnalyzedLog.estimatedBytes) the least recently used ones
+// are evicted first. A log larger than max-bytes on its own is not stored at all.
+@Slf4j
+@Component
+public class AnalysisStore {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long retentionMillis;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public AnalysisStore(
+            @Value("${analysis-store.max-entries:20}") int maxEntries,
+            @Value("${analysis-store.retention-minutes:60}") int retentionMinutes,
+            @Value("${analysis-store.max-bytes:0}") DataSize maxBytes
+    ) {
+        this.maxEntries = maxEntries;
+        // 0 = a quarter of the max heap
+        this.maxBytes = maxBytes.toBytes() > 0 ? maxBytes.toBytes() : Runtime.getRuntime().maxMemory() / 4;
+        this.retentionMillis = Duration.ofMinutes(retentionMinutes).toMillis();
+    }
+
+    // The analysisId, or null if the log alone is over max-bytes.
+    public synchronized String put(AnalyzedLog analyzed) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        long size = analyzed.estimatedBytes();
+        if (size > maxBytes) {
+            log.info("Not keeping an analyzed log of ~{} MB: over analysis-store.max-bytes ({} MB)",
+                    size >> 20, maxBytes >> 20);
+            return null;
+        }
+
+        String analysisId = UUID.randomUUID().toString();
+        entries.put(analysisId, new Entry(analyzed, now, size));
+        bytes += size;
+
+        // access order: the first entries are the least recently used
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= it.next().bytes;
+            it.remove();
+        }
+        return analysisId;
+    }
+
+    public synchronized Optional<AnalyzedLog> get(String analysisId) {
+        evictExpired(System.currentTimeMillis());
+
+        Entry e = entries.get(analysisId);
+        return e == null ? Optional.empty() : Optional.of(e.analyzed);
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (now - e.storedAt > retentionMillis) {
+                bytes -= e.bytes;
+                it.remove();
+            }
+        }
+    }
+
+    private record Entry(AnalyzedLog analyzed, long storedAt, long bytes) {
+    }
+}
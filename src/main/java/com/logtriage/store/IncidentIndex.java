@@ -0,0 +1,331 @@
+package com.logtriage.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logtriage.engine.MinHash;
+import com.logtriage.model.Incident;
+import com.logtriage.model.SimilarIncident;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+// Persistent MinHash/LSH index of past incidents. Two files in the index directory:
+//  - sketches.bin: a header, then fixed-size records [meta offset, meta length, K signature ints].
+//    The file is memory-mapped, so opening the index only maps it and rebuilds the LSH buckets
+//    from the mapped signatures; nothing is parsed.
+//  - incidents.jsonl: append-only incident metadata. A resolution update appends a new version
+//    and repoints the record, so records never move.
+// LSH: BANDS bands of ROWS slots each. Two incidents with Jaccard similarity s share a band bucket
+// with probability 1 - (1 - s^ROWS)^BANDS: ~0.12 at s=0.3, ~0.64 at s=0.5, >0.99 at s=0.8.
+// Candidates are then ranked by their full signature similarity.
+public class IncidentIndex implements Closeable {
+
+    private static final int MAGIC = 0x4c54_4958; // "LTIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int COUNT_OFFSET = 16;
+    private static final int RECORD_BYTES = 16 + MinHash.K * 4;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    // newest records compared per band bucket: the bucket of a recurring incident grows without bound
+    private static final int MAX_CHAIN = 64;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel sketchChannel;
+    private final FileChannel metaChannel;
+
+    private MappedByteBuffer sketches;
+    private int capacity;
+    private int count;
+
+    // per band: open addressing bucket key -> newest record + 1 (0 = empty slot);
+    // older records of the same bucket are chained through next[record * BANDS + band] (also + 1)
+    private final int[][] bucketKeys = new int[MinHash.BANDS][];
+    private final int[][] bucketHeads = new int[MinHash.BANDS][];
+    private final int[] bucketsUsed = new int[MinHash.BANDS];
+    private int[] next;
+
+    private IncidentIndex(Path dir) throws IOException {
+        this.sketchChannel = FileChannel.open(dir.resolve("sketches.bin"), CREATE, READ, WRITE);
+        this.metaChannel = FileChannel.open(dir.resolve("incidents.jsonl"), CREATE, READ, WRITE);
+
+        long size = sketchChannel.size();
+        if (size == 0) {
+            map(INITIAL_CAPACITY);
+            sketches.putInt(0, MAGIC);
+            sketches.putInt(4, VERSION);
+            sketches.putInt(8, MinHash.K);
+            sketches.putInt(12, MinHash.BANDS);
+            sketches.putLong(COUNT_OFFSET, 0);
+        } else {
+            if (size < HEADER_BYTES) throw new IllegalStateException("Incident index is truncated: " + dir);
+            map((int) Math.min(MAX_CAPACITY, (size - HEADER_BYTES) / RECORD_BYTES));
+            if (sketches.getInt(0) != MAGIC || sketches.getInt(4) != VERSION
+                    || sketches.getInt(8) != MinHash.K || sketches.getInt(12) != MinHash.BANDS) {
+                throw new IllegalStateException("Incident index was written with a different layout: " + dir);
+            }
+            count = (int) sketches.getLong(COUNT_OFFSET);
+        }
+
+        next = new int[capacity * MinHash.BANDS];
+        int initialBuckets = Integer.highestOneBit(Math.max(16, count) * 2);
+        for (int b = 0; b < MinHash.BANDS; b++) {
+            bucketKeys[b] = new int[initialBuckets];
+            bucketHeads[b] = new int[initialBuckets];
+        }
+        int[] sig = new int[MinHash.K];
+        for (int rec = 0; rec < count; rec++) {
+            readSketch(rec, sig);
+            insert(rec, sig);
+        }
+    }
+
+    public static IncidentIndex open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        return new IncidentIndex(dir);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Stores the incident (its id is assigned here) and returns the id.
+    public long add(Incident incident, int[] sketch) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (count == capacity) grow();
+            int rec = count;
+            incident.setIncidentId(rec);
+
+            int base = recordOffset(rec);
+            for (int i = 0; i < MinHash.K; i++) {
+                sketches.putInt(base + 16 + 4 * i, sketch[i]);
+            }
+            writeMeta(rec, incident);
+
+            // the count is published last: a crash before this leaves the record unused
+            count++;
+            sketches.putLong(COUNT_OFFSET, count);
+            insert(rec, sketch);
+            return rec;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to `limit` stored incidents with estimated similarity >= minSimilarity, most similar first
+    // (newer first on ties).
+    public List<SimilarIncident> similar(int[] sketch, int limit, double minSimilarity) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] candidates = new int[MinHash.BANDS * MAX_CHAIN];
+            int n = 0;
+            for (int band = 0; band < MinHash.BANDS; band++) {
+                int rec = head(band, MinHash.bandKey(sketch, band)) - 1;
+                for (int steps = 0; rec >= 0 && steps < MAX_CHAIN; steps++) {
+                    candidates[n++] = rec;
+                    rec = next[rec * MinHash.BANDS + band] - 1;
+                }
+            }
+            Arrays.sort(candidates, 0, n);
+
+            // top `limit` by matching slots; candidates are visited newest last, so ">=" keeps newer first on ties
+            int[] topRec = new int[limit];
+            int[] topSame = new int[limit];
+            int found = 0;
+            int minSame = (int) Math.ceil(minSimilarity * MinHash.K);
+            for (int i = 0; i < n; i++) {
+                int rec = candidates[i];
+                if (i > 0 && rec == candidates[i - 1]) continue;
+                int same = sameSlots(rec, sketch);
+                if (same < minSame || (found == limit && same < topSame[limit - 1])) continue;
+
+                int pos = found == limit ? limit - 1 : found++;
+                while (pos > 0 && topSame[pos - 1] <= same) {
+                    topSame[pos] = topSame[pos - 1];
+                    topRec[pos] = topRec[pos - 1];
+                    pos--;
+                }
+                topSame[pos] = same;
+                topRec[pos] = rec;
+            }
+
+            List<SimilarIncident> out = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                out.add(new SimilarIncident((double) topSame[i] / MinHash.K, readMeta(topRec[i])));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Incident> get(long incidentId) throws IOException {
+        lock.readLock().lock();
+        try {
+            if (incidentId < 0 || incidentId >= count) return Optional.empty();
+            return Optional.of(readMeta((int) incidentId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Incident> resolve(long incidentId, String ticketRef, String resolution) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (incidentId < 0 || incidentId >= count) return Optional.empty();
+            int rec = (int) incidentId;
+            Incident incident = readMeta(rec);
+            incident.setTicketRef(ticketRef);
+            incident.setResolution(resolution);
+            incident.setResolvedAt(Instant.now().toString());
+            writeMeta(rec, incident);
+            return Optional.of(incident);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            sketches.force();
+            metaChannel.force(false);
+            sketchChannel.close();
+            metaChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- records ----
+
+    private void map(int newCapacity) throws IOException {
+        sketches = sketchChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) newCapacity * RECORD_BYTES);
+        capacity = newCapacity;
+    }
+
+    private void grow() throws IOException {
+        if (capacity == MAX_CAPACITY) throw new IllegalStateException("Incident index is full (" + capacity + " incidents)");
+        map((int) Math.min(MAX_CAPACITY, capacity * 2L));
+        next = Arrays.copyOf(next, capacity * MinHash.BANDS);
+    }
+
+    private static int recordOffset(int rec) {
+        return HEADER_BYTES + rec * RECORD_BYTES;
+    }
+
+    private void readSketch(int rec, int[] into) {
+        int base = recordOffset(rec) + 16;
+        for (int i = 0; i < MinHash.K; i++) into[i] = sketches.getInt(base + 4 * i);
+    }
+
+    private int sameSlots(int rec, int[] sketch) {
+        int base = recordOffset(rec) + 16;
+        int same = 0;
+        for (int i = 0; i < MinHash.K; i++) {
+            if (sketches.getInt(base + 4 * i) == sketch[i]) same++;
+        }
+        return same;
+    }
+
+    private Incident readMeta(int rec) throws IOException {
+        int base = recordOffset(rec);
+        long offset = sketches.getLong(base);
+        int length = sketches.getInt(base + 8);
+
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (metaChannel.read(buf, offset + buf.position()) < 0) {
+                throw new IOException("Incident metadata is truncated (incident " + rec + ")");
+            }
+        }
+        return mapper.readValue(buf.array(), Incident.class);
+    }
+
+    private void writeMeta(int rec, Incident incident) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(incident);
+        ByteBuffer buf = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+
+        long offset = metaChannel.size();
+        while (buf.hasRemaining()) {
+            metaChannel.write(buf, offset + buf.position());
+        }
+        int base = recordOffset(rec);
+        sketches.putLong(base, offset);
+        sketches.putInt(base + 8, json.length);
+    }
+
+    // ---- LSH buckets ----
+
+    private void insert(int rec, int[] sketch) {
+        for (int band = 0; band < MinHash.BANDS; band++) {
+            int key = MinHash.bandKey(sketch, band);
+            int[] keys = bucketKeys[band];
+            int[] heads = bucketHeads[band];
+            int mask = keys.length - 1;
+            int slot = key & mask;
+            while (heads[slot] != 0 && keys[slot] != key) slot = (slot + 1) & mask;
+
+            if (heads[slot] == 0) {
+                keys[slot] = key;
+                bucketsUsed[band]++;
+            }
+            next[rec * MinHash.BANDS + band] = heads[slot];
+            heads[slot] = rec + 1;
+
+            if (bucketsUsed[band] * 2 > keys.length) rehash(band);
+        }
+    }
+
+    private int head(int band, int key) {
+        int[] keys = bucketKeys[band];
+        int[] heads = bucketHeads[band];
+        int mask = keys.length - 1;
+        int slot = key & mask;
+        while (heads[slot] != 0) {
+            if (keys[slot] == key) return heads[slot];
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    private void rehash(int band) {
+        int[] oldKeys = bucketKeys[band];
+        int[] oldHeads = bucketHeads[band];
+        int[] keys = new int[oldKeys.length * 2];
+        int[] heads = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldHeads[i] == 0) continue;
+            int slot = oldKeys[i] & mask;
+            while (heads[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            heads[slot] = oldHeads[i];
+        }
+        bucketKeys[band] = keys;
+        bucketHeads[band] = heads;
+    }
+}
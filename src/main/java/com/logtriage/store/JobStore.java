@@ -0,0 +1,136 @@
+package com.logtriage.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logtriage.model.AnalysisJob;
+import com.logtriage.model.LogAnalysisResponse;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// On-disk state of the analysis jobs, one directory per job:
+//  - job.json: the job status, rewritten on every change (temp file + atomic rename, so a crash
+//    leaves either the old or the new version);
+//  - input.<ext>: the uploaded log, deleted once the job has finished;
+//  - result.json: the final analysis of a succeeded job, served as is on every fetch.
+public class JobStore {
+
+    private static final String JOB_FILE = "job.json";
+    private static final String RESULT_FILE = "result.json";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path dir;
+
+    private JobStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public static JobStore open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        // fail now rather than on the first job (e.g. a root-owned dir when running as another user)
+        if (!Files.isWritable(dir)) throw new AccessDeniedException(dir.toString(), null, "not writable");
+        return new JobStore(dir);
+    }
+
+    // Every readable job.json; job dirs without one (e.g. left by an interrupted upload) are removed.
+    public List<AnalysisJob> loadAll() throws IOException {
+        List<AnalysisJob> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path jobDir : dirs) {
+                try {
+                    jobs.add(mapper.readValue(jobDir.resolve(JOB_FILE).toFile(), AnalysisJob.class));
+                } catch (IOException e) {
+                    delete(jobDir.getFileName().toString());
+                }
+            }
+        }
+        return jobs;
+    }
+
+    public void save(AnalysisJob job) throws IOException {
+        Files.createDirectories(jobDir(job.getJobId()));
+        writeAtomically(jobDir(job.getJobId()).resolve(JOB_FILE), mapper.writeValueAsBytes(job));
+    }
+
+    public void saveResult(String jobId, LogAnalysisResponse result) throws IOException {
+        writeAtomically(jobDir(jobId).resolve(RESULT_FILE), mapper.writeValueAsBytes(result));
+    }
+
+    public Optional<LogAnalysisResponse> readResult(String jobId) throws IOException {
+        Path file = jobDir(jobId).resolve(RESULT_FILE);
+        try {
+            return Optional.of(mapper.readValue(file.toFile(), LogAnalysisResponse.class));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Copies an upload into the job dir (413 beyond maxBytes); returns the stored size.
+    public long storeUpload(AnalysisJob job, InputStream body, long maxBytes) throws IOException {
+        Path target = uploadPath(job);
+        Files.createDirectories(target.getParent());
+        byte[] buf = new byte[64 * 1024];
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int n;
+            while ((n = body.read(buf)) > 0) {
+                size += n;
+                if (size > maxBytes) throw new MaxUploadSizeExceededException(maxBytes);
+                out.write(buf, 0, n);
+            }
+        }
+        return size;
+    }
+
+    // the file a job reads: its stored upload, or the server-side path it was submitted with
+    public Path inputPath(AnalysisJob job) {
+        return job.isUploaded() ? uploadPath(job) : Path.of(job.getSource());
+    }
+
+    public void deleteUpload(AnalysisJob job) throws IOException {
+        if (job.isUploaded()) Files.deleteIfExists(uploadPath(job));
+    }
+
+    public void delete(String jobId) throws IOException {
+        Path jobDir = jobDir(jobId);
+        if (!Files.exists(jobDir)) return;
+        try (Stream<Path> files = Files.walk(jobDir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private Path uploadPath(AnalysisJob job) {
+        String name = job.getSource().toLowerCase();
+        String ext = name.endsWith(".zip") ? ".zip" : name.endsWith(".gz") || name.endsWith(".gzip") ? ".gz" : ".log";
+        return jobDir(job.getJobId()).resolve("input" + ext);
+    }
+
+    private Path jobDir(String jobId) {
+        return dir.resolve(jobId);
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(tmp, content);
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.logtriage.ticket;
 
+import com.logtriage.model.BlastRadius;
 import com.logtriage.model.ErrorSignature;
+import com.logtriage.model.Incident;
 import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.model.SimilarIncident;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.stream.Collectors;
 
 public class TicketFormatter {
@@ -24,7 +30,15 @@ public class TicketFormatter {
             for (ErrorSignature s : sigs) {
                 sb.append("- ")
                         .append(nullSafe(s.getExceptionType()))
-                        .append(" (").append(s.getCount()).append(" occurrences)");
+                        .append(" (").append(s.getCount()).append(" occurrences");
+                if (s.getCountError() > 0) {
+                    sb.append(", approx. -").append(s.getCountError());
+                }
+                sb.append(")");
+                String radius = blastRadius(s.getBlastRadius());
+                if (!radius.isEmpty()) {
+                    sb.append(" | affected: ").append(radius);
+                }
                 if (s.getMessage() != null && !s.getMessage().isBlank()) {
                     sb.append(" | example: ").append(s.getMessage());
                 }
@@ -53,6 +67,25 @@ public class TicketFormatter {
             sb.append("\n");
         }
 
+        // Similar past incidents (optional)
+        if (r.getSimilarIncidents() != null && !r.getSimilarIncidents().isEmpty()) {
+            sb.append("Similar past incidents:\n");
+            for (SimilarIncident similar : r.getSimilarIncidents()) {
+                Incident i = similar.getIncident();
+                sb.append("- #").append(i.getIncidentId())
+                        .append(" (").append(Math.round(similar.getSimilarity() * 100)).append("% similar, ")
+                        .append(nullSafe(i.getAnalyzedAt())).append(")");
+                if (i.getTicketRef() != null) {
+                    sb.append(" | ticket: ").append(i.getTicketRef());
+                }
+                if (i.getResolution() != null) {
+                    sb.append(" | fix: ").append(i.getResolution());
+                }
+                sb.append("\n");
+            }
+            sb.append("\n");
+        }
+
         // Context to request (standard support checklist)
         sb.append("Context to request:\n")
                 .append("- Timestamp range (+/- 5 min)\n")
@@ -62,6 +95,28 @@ public class TicketFormatter {
         return sb.toString();
     }
 
+    public static String buildTitle(LogAnalysisResponse r) {
+        String sev = (r.getSeverity() == null) ? "UNKNOWN" : r.getSeverity();
+
+        String issues = String.join(" | ", r.getDetectedIssues() == null ? List.of() : r.getDetectedIssues()).toLowerCase();
+
+        if (issues.contains("database")) return "Incident: Database connectivity issue (" + sev + ")";
+        if (issues.contains("timeout")) return "Incident: Timeout / downstream latency (" + sev + ")";
+        if (issues.contains("nullpointer")) return "Incident: NullPointerException (" + sev + ")";
+        return "Incident: Application error (" + sev + ")";
+    }
+
+    // "~12 requests, 3 hosts" - estimated distinct counts, zero dimensions left out
+    private static String blastRadius(BlastRadius b) {
+        if (b == null) return "";
+        StringJoiner parts = new StringJoiner(", ");
+        if (b.getRequestIds() > 0) parts.add("~" + b.getRequestIds() + " requests");
+        if (b.getTraceIds() > 0) parts.add("~" + b.getTraceIds() + " traces");
+        if (b.getHosts() > 0) parts.add("~" + b.getHosts() + " hosts");
+        if (b.getUsers() > 0) parts.add("~" + b.getUsers() + " users");
+        return parts.toString();
+    }
+
     public static List<String> buildSuggestedGrepQueries(LogAnalysisResponse r, String filename) {
         String file = (filename == null || filename.isBlank()) ? "app.log" : filename;
 
@@ -91,6 +146,26 @@ public class TicketFormatter {
         return concat(base, bySigs, byIds, hint);
     }
 
+    // Same searches as the grep suggestions, but runnable server-side against the stored upload.
+    public static List<String> buildSuggestedSearches(LogAnalysisResponse r) {
+        if (r.getAnalysisId() == null) return List.of();
+        String base = "/api/logs/analyses/" + r.getAnalysisId() + "/search?";
+
+        List<String> bySigs = (r.getTopErrorSignatures() == null) ? List.of() :
+                r.getTopErrorSignatures().stream()
+                        .map(s -> base + "exceptionType=" + urlEncode(s.getExceptionType()))
+                        .distinct()
+                        .collect(Collectors.toList());
+
+        List<String> byIds = (r.getDetectedIds() == null) ? List.of() :
+                r.getDetectedIds().stream()
+                        .map(id -> base + "id=" + urlEncode(id))
+                        .distinct()
+                        .collect(Collectors.toList());
+
+        return concat(List.of(base + "q=ERROR"), bySigs, byIds, List.of());
+    }
+
     private static List<String> concat(List<String> a, List<String> b, List<String> c, List<String> d) {
         return new java.util.ArrayList<>() {{
             addAll(a); addAll(b); addAll(c); addAll(d);
@@ -101,6 +176,10 @@ public class TicketFormatter {
         return (s == null) ? "" : s.trim();
     }
 
+    private static String urlEncode(String s) {
+        return URLEncoder.encode(s == null ? "" : s, StandardCharsets.UTF_8);
+    }
+
     private static String safeGrep(String s) {
         if (s == null) return "";
         return s.replace("\"", "\\\"");
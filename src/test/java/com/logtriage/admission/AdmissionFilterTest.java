@@ -0,0 +1,61 @@
+package com.logtriage.admission;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    // one slot per lane, no queue: a second request in the same lane is shed at once
+    private final AdmissionFilter filter = new AdmissionFilter(true, DataSize.ofKilobytes(256),
+            1, 0, Duration.ofMillis(100), 1, 0, Duration.ofMillis(100));
+
+    @Test
+    void shouldSendOnlySmallJsonPastesToTheSmallLane() {
+        assertEquals("small", filter.laneFor(post("/api/logs/analyze", MediaType.APPLICATION_JSON_VALUE, 1024)).name());
+
+        // a 10 KB .gz file inflates to far more than its Content-Length
+        assertEquals("large", filter.laneFor(post("/api/logs/analyze/file", "multipart/form-data; boundary=x", 10_240)).name());
+        assertEquals("large", filter.laneFor(post("/api/logs/analyze/file", "Multipart/Form-Data; boundary=x", 10_240)).name());
+        assertEquals("large", filter.laneFor(post("/api/logs/correlate", MediaType.APPLICATION_JSON_VALUE, 200)).name());
+        assertEquals("large", filter.laneFor(post("/api/logs/diff", "multipart/form-data; boundary=x", 2048)).name());
+        assertEquals("large", filter.laneFor(post("/api/logs/analyze", MediaType.APPLICATION_JSON_VALUE, 512 * 1024)).name());
+
+        MockHttpServletRequest gzip = post("/api/logs/analyze", MediaType.APPLICATION_JSON_VALUE, 1024);
+        gzip.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        assertEquals("large", filter.laneFor(gzip).name());
+    }
+
+    @Test
+    void shouldShedUploadsWhileTheLargeLaneIsBusyAndStillAdmitPastes() throws Exception {
+        MockHttpServletResponse upload = new MockHttpServletResponse();
+        MockHttpServletResponse nextUpload = new MockHttpServletResponse();
+        MockHttpServletResponse paste = new MockHttpServletResponse();
+
+        // the second upload and the paste arrive while the first upload holds the large lane
+        filter.doFilter(post("/api/logs/analyze/file", "multipart/form-data; boundary=x", 10_240), upload, (req, res) -> {
+            filter.doFilter(post("/api/logs/correlate", "multipart/form-data; boundary=x", 10_240), nextUpload, (r, s) -> { });
+            filter.doFilter(post("/api/logs/analyze", MediaType.APPLICATION_JSON_VALUE, 1024), paste, (r, s) -> { });
+        });
+
+        assertEquals(HttpServletResponse.SC_OK, upload.getStatus());
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, nextUpload.getStatus());
+        assertNotNull(nextUpload.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpServletResponse.SC_OK, paste.getStatus());
+    }
+
+    private static MockHttpServletRequest post(String uri, String contentType, int length) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContentType(contentType);
+        request.setContent(new byte[length]);
+        return request;
+    }
+}
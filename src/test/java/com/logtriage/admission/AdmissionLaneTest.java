@@ -0,0 +1,50 @@
+package com.logtriage.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLaneTest {
+
+    @Test
+    void shouldShedImmediatelyWhenQueueIsFull() throws Exception {
+        AdmissionLane lane = new AdmissionLane("small", 1, 0, Duration.ofSeconds(5));
+        long admitted = lane.acquire();
+
+        long start = System.nanoTime();
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, lane::acquire);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        lane.release(admitted);
+        lane.release(lane.acquire());
+        assertEquals(0, lane.inFlight());
+    }
+
+    @Test
+    void shouldAdmitQueuedRequestOnceASlotFreesUpAndShedAfterDeadline() throws Exception {
+        AdmissionLane lane = new AdmissionLane("large", 1, 4, Duration.ofMillis(300));
+        long first = lane.acquire();
+
+        CompletableFuture<Long> queued = CompletableFuture.supplyAsync(() -> {
+            try {
+                return lane.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        lane.release(first);
+        long second = queued.get(1, TimeUnit.SECONDS);
+
+        // the slot is held now: the next request waits out the deadline
+        long start = System.nanoTime();
+        assertThrows(AdmissionRejectedException.class, lane::acquire);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+        lane.release(second);
+    }
+}
@@ -0,0 +1,44 @@
+package com.logtriage.ai;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiLogAnalyzerTest {
+
+    @Test
+    void shouldClassifyUnseenVariantsOfKnownIncidents() throws IOException {
+        AiLogAnalyzer model = new AiLogAnalyzer(new ClassPathResource("incidents/corpus.jsonl"));
+
+        LocalPrediction db = model.classify("""
+                2026-05-02 09:12:44.101 ERROR [billing-worker-3] c.a.billing.InvoiceJob : run failed
+                org.postgresql.util.PSQLException: Connection to pg-prod-7:5432 refused. Check that the hostname and port are correct
+                Caused by: java.net.ConnectException: Connection refused
+                """);
+        LocalPrediction disk = model.classify("""
+                2026-05-02 03:00:01 ERROR c.a.export.CsvExporter : export aborted
+                java.io.IOException: No space left on device
+                """);
+
+        assertEquals("db-connection-refused", db.getLabel());
+        assertEquals("disk-full", disk.getLabel());
+        assertTrue(db.getConfidence() >= 0.25);
+        assertNotNull(db.getInsight().getAiLikelyCause());
+        assertFalse(db.getInsight().getAiNextSteps().isEmpty());
+    }
+
+    @Test
+    void shouldReportLowConfidenceForUnrelatedLogs() throws IOException {
+        AiLogAnalyzer model = new AiLogAnalyzer(new ClassPathResource("incidents/corpus.jsonl"));
+
+        LocalPrediction p = model.classify("""
+                2026-05-02 10:00:00 INFO c.a.web.Startup : cache warmed with 1200 entries
+                2026-05-02 10:00:01 INFO c.a.web.Startup : listening on port 8080
+                """);
+
+        assertTrue(p.getConfidence() < 0.15);
+    }
+}
@@ -0,0 +1,220 @@
+package com.logtriage.ai;
+
+import com.logtriage.model.AiEndpointStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiRouterTest {
+
+    private static final String ANSWER = """
+            SUMMARY: Database connections are exhausted.
+            LIKELY_CAUSE: The pool is too small for the load.
+            NEXT_STEPS:
+            - Check pool metrics
+            - Check slow queries
+            - Check DB health
+            - Check recent deploys
+            - Raise the pool size
+            """;
+
+    @Test
+    void shouldLearnWhichEndpointIsFasterAndPrewarmConnections() throws Exception {
+        MockLlm slow = new MockLlm(300, 200);
+        MockLlm fast = new MockLlm(10, 200);
+        try {
+            // hedging off: plain EWMA routing
+            AiRouter router = router(0, Duration.ofSeconds(5), slow, fast);
+            router.prewarm().block(Duration.ofSeconds(5));
+            assertEquals(2, slow.pings.get());
+            assertEquals(2, fast.pings.get());
+
+            // unmeasured endpoints are tried first, in configured order, then the fast one wins
+            assertEquals("ep0", router.analyze("ERROR boom").getProvider());
+            for (int i = 0; i < 5; i++) {
+                RoutedInsight insight = router.analyze("ERROR boom");
+                assertEquals("ep1", insight.getProvider());
+                assertEquals(5, insight.getInsight().getAiNextSteps().size());
+            }
+            assertEquals(1, slow.chats.get());
+            assertEquals(5, fast.chats.get());
+
+            List<AiEndpointStatus> status = router.status();
+            assertEquals("ep1", status.get(0).getName());
+            assertTrue(status.get(0).getLatencyMs() < status.get(1).getLatencyMs());
+        } finally {
+            slow.stop();
+            fast.stop();
+        }
+    }
+
+    @Test
+    void shouldHedgeToNextEndpointWhenFirstIsSlowAndCancelIt() throws Exception {
+        MockLlm stuck = new MockLlm(3000, 200);
+        MockLlm fast = new MockLlm(10, 200);
+        try {
+            AiRouter router = router(95, Duration.ofMillis(100), stuck, fast);
+
+            long start = System.nanoTime();
+            RoutedInsight insight = router.analyze("ERROR boom");
+            long ms = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals("ep1", insight.getProvider());
+            assertTrue(insight.isHedged());
+            assertTrue(ms < 2000, "took " + ms + " ms");
+
+            // the loser was cancelled before answering and now ranks behind the winner
+            List<AiEndpointStatus> status = router.status();
+            assertEquals("ep1", status.get(0).getName());
+            assertEquals(1, status.get(0).getHedgesWon());
+            assertEquals(0, status.get(1).getSamples());
+            assertTrue(status.get(1).getLatencyMs() >= 100);
+
+            assertFalse(router.analyze("ERROR boom").isHedged());
+            assertEquals(1, stuck.chats.get());
+        } finally {
+            stuck.stop();
+            fast.stop();
+        }
+    }
+
+    @Test
+    void shouldHedgeImmediatelyWhenFirstFailsAndReportAllFailures() throws Exception {
+        MockLlm broken = new MockLlm(0, 503);
+        MockLlm fast = new MockLlm(10, 200);
+        MockLlm alsoBroken = new MockLlm(0, 500);
+        try {
+            AiRouter router = router(95, Duration.ofSeconds(10), broken, fast);
+            long start = System.nanoTime();
+            assertEquals("ep1", router.analyze("ERROR boom").getProvider());
+            assertTrue((System.nanoTime() - start) / 1_000_000 < 5000);
+            assertEquals(1, router.status().get(1).getFailures());
+
+            AiRouter failing = router(95, Duration.ofSeconds(10), broken, alsoBroken);
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> failing.analyze("ERROR boom"));
+            assertTrue(e.getMessage().contains("ep0 HTTP 503"), e.getMessage());
+            assertTrue(e.getMessage().contains("ep1 HTTP 500"), e.getMessage());
+        } finally {
+            broken.stop();
+            fast.stop();
+            alsoBroken.stop();
+        }
+    }
+
+    @Test
+    void shouldGiveUpOnAnAnswerThatTricklesPastTheTimeout() throws Exception {
+        // every chunk comes well within the 1 s timeout, the whole answer doesn't
+        MockLlm trickling = new MockLlm(10, 300, 200);
+        try {
+            AiRouter router = router(1, 0, Duration.ofSeconds(10), trickling);
+            long start = System.nanoTime();
+            IllegalStateException e = assertThrows(IllegalStateException.class, () -> router.analyze("ERROR boom"));
+            long ms = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(e.getMessage().contains("within 1s"), e.getMessage());
+            assertTrue(ms < 1800, "gave up after " + ms + " ms");
+        } finally {
+            trickling.stop();
+        }
+    }
+
+    private static AiRouter router(double hedgePercentile, Duration hedgeDelay, MockLlm... servers) {
+        return router(10, hedgePercentile, hedgeDelay, servers);
+    }
+
+    private static AiRouter router(int timeoutSeconds, double hedgePercentile, Duration hedgeDelay, MockLlm... servers) {
+        Map<String, Object> props = new HashMap<>();
+        for (int i = 0; i < servers.length; i++) {
+            props.put("ai.remote.endpoints[" + i + "].name", "ep" + i);
+            props.put("ai.remote.endpoints[" + i + "].base-url", servers[i].baseUrl());
+            props.put("ai.remote.endpoints[" + i + "].model", "mock-" + i);
+        }
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("test", props));
+        return new AiRouter(WebClient.builder(), env, "remote", timeoutSeconds, 4, 2,
+                hedgePercentile, hedgeDelay, Duration.ofMinutes(10));
+    }
+
+    // OpenAI-compatible chat server: streams ANSWER a line per SSE chunk after firstChunkDelayMs,
+    // chunkDelayMs apart
+    private static class MockLlm {
+        final HttpServer server;
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final AtomicInteger chats = new AtomicInteger();
+        final AtomicInteger pings = new AtomicInteger();
+
+        MockLlm(long firstChunkDelayMs, int status) throws IOException {
+            this(firstChunkDelayMs, 0, status);
+        }
+
+        MockLlm(long firstChunkDelayMs, long chunkDelayMs, int status) throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(executor);
+            server.createContext("/v1/models", ex -> {
+                pings.incrementAndGet();
+                respond(ex, 200, "{\"data\":[]}");
+            });
+            server.createContext("/v1/chat/completions", ex -> {
+                chats.incrementAndGet();
+                ex.getRequestBody().readAllBytes();
+                if (status != 200) {
+                    respond(ex, status, "{\"error\":\"unavailable\"}");
+                    return;
+                }
+                try {
+                    Thread.sleep(firstChunkDelayMs);
+                    ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+                    ex.sendResponseHeaders(200, 0);
+                    try (OutputStream out = ex.getResponseBody()) {
+                        for (String line : ANSWER.split("(?<=\n)")) {
+                            String json = "{\"choices\":[{\"delta\":{\"content\":"
+                                    + "\"" + line.replace("\n", "\\n") + "\"}}]}";
+                            out.write(("data: " + json + "\n\n").getBytes(StandardCharsets.UTF_8));
+                            out.flush();
+                            Thread.sleep(chunkDelayMs);
+                        }
+                        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (InterruptedException | IOException e) {
+                    ex.close();
+                }
+            });
+            server.start();
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+        }
+
+        void stop() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        private static void respond(HttpExchange ex, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.logtriage.ai;
+
+import com.logtriage.model.AiInsight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingInsightParserTest {
+
+    @Test
+    void shouldEmitSectionsAsSoonAsTheirLineIsComplete() {
+        StreamingInsightParser parser = new StreamingInsightParser(5);
+
+        assertTrue(parser.accept("SUMMARY: DB is ").isEmpty());
+        List<AiInsight> afterSummary = parser.accept("down.\nLIKELY_");
+
+        assertEquals(1, afterSummary.size());
+        assertEquals("DB is down.", afterSummary.get(0).getAiSummary());
+
+        List<AiInsight> afterCause = parser.accept("CAUSE: Pool exhausted\nNEXT_STEPS:\n- Check pool\n");
+        assertEquals(2, afterCause.size());
+        assertEquals("Pool exhausted", afterCause.get(0).getAiLikelyCause());
+        assertEquals(List.of("Check pool"), afterCause.get(1).getAiNextSteps());
+    }
+
+    @Test
+    void shouldStopAfterMaxSteps() {
+        StreamingInsightParser parser = new StreamingInsightParser(5);
+        List<AiInsight> emitted = new ArrayList<>();
+
+        emitted.addAll(parser.accept("SUMMARY: s\nLIKELY_CAUSE: c\nNEXT_STEPS:\n"));
+        for (int i = 1; i <= 7; i++) {
+            emitted.addAll(parser.accept("- step " + i + "\n"));
+        }
+
+        assertTrue(parser.isComplete());
+        assertEquals(5, emitted.get(emitted.size() - 1).getAiNextSteps().size());
+        assertEquals(5, parser.finish().getAiNextSteps().size());
+    }
+
+    @Test
+    void shouldApplyDefaultsOnFinish() {
+        StreamingInsightParser parser = new StreamingInsightParser(5);
+        parser.accept("SUMMARY: only a summary");
+
+        AiInsight insight = parser.finish();
+
+        assertEquals("only a summary", insight.getAiSummary());
+        assertFalse(insight.getAiLikelyCause().isBlank());
+        assertEquals(3, insight.getAiNextSteps().size());
+    }
+}
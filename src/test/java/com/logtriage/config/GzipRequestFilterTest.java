@@ -0,0 +1,100 @@
+package com.logtriage.config;
+
+import com.logtriage.ingest.DecompressedSizeExceededException;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipRequestFilterTest {
+
+    private static final String BODY = "{\"logContent\": \"" + "2026-03-18 10:00:00 ERROR boom\\n".repeat(2000) + "\"}";
+
+    private final GzipRequestFilter filter = new GzipRequestFilter(DataSize.ofKilobytes(256));
+
+    @Test
+    void shouldInflateBodyForBlockingReads() throws Exception {
+        AtomicReference<String> read = new AtomicReference<>();
+        filter.doFilter(gzipRequest(BODY), new MockHttpServletResponse(), (req, res) -> {
+            assertEquals(-1, req.getContentLengthLong());
+            read.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        });
+        assertEquals(BODY, read.get());
+    }
+
+    @Test
+    void shouldInflateBodyForAsyncReads() throws Exception {
+        Collector collector = new Collector();
+        filter.doFilter(gzipRequest(BODY), new MockHttpServletResponse(), (req, res) -> {
+            req.startAsync();
+            collector.in = req.getInputStream();
+            collector.in.setReadListener(collector);
+        });
+        assertNull(collector.error);
+        assertTrue(collector.allRead);
+        assertEquals(BODY, collector.out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReportOversizedBodyToTheReadListener() throws Exception {
+        GzipRequestFilter small = new GzipRequestFilter(DataSize.ofKilobytes(1));
+        Collector collector = new Collector();
+        small.doFilter(gzipRequest(BODY), new MockHttpServletResponse(), (req, res) -> {
+            req.startAsync();
+            collector.in = req.getInputStream();
+            collector.in.setReadListener(collector);
+        });
+        assertInstanceOf(DecompressedSizeExceededException.class, collector.error);
+        assertFalse(collector.allRead);
+    }
+
+    private static MockHttpServletRequest gzipRequest(String body) throws IOException {
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gz)) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/logs/analyze");
+        request.setAsyncSupported(true);
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.setContent(gz.toByteArray());
+        return request;
+    }
+
+    // a typical non-blocking reader: reads while the stream is ready, a small buffer at a time
+    private static final class Collector implements ReadListener {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ServletInputStream in;
+        boolean allRead;
+        Throwable error;
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            byte[] buf = new byte[512];
+            while (in.isReady() && !in.isFinished()) {
+                int n = in.read(buf);
+                if (n > 0) out.write(buf, 0, n);
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            allRead = true;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+    }
+}
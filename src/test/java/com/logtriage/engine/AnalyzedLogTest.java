@@ -0,0 +1,39 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.LogAnalysisResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyzedLogTest {
+
+    @Test
+    void shouldSplitLinesLikeStringSplit() {
+        String text = "a\r\nb\n\nc\n\n";
+        AnalyzedLog log = new AnalyzedLog(text);
+
+        String[] expected = text.split("\\r?\\n");
+        assertEquals(expected.length, log.lineCount());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], log.line(i));
+        }
+    }
+
+    @Test
+    void shouldKeepLineOffsetsAfterSupplementaryCharacters() {
+        String text = "INFO start 😀 ok\n"
+                + "ERROR java.lang.IllegalStateException: boom requestId=abcdef123\n"
+                + "INFO done 💥💥\n";
+        AnalyzedLog log = new AnalyzedLog(text);
+
+        assertEquals(3, log.lineCount());
+        assertEquals("INFO start 😀 ok", log.line(0));
+        assertEquals("ERROR java.lang.IllegalStateException: boom requestId=abcdef123", log.line(1));
+        assertEquals("INFO done 💥💥", log.line(2));
+
+        LogAnalysisResponse res = new RuleBasedLogAnalyzer().analyze(log);
+        assertEquals("IllegalStateException", res.getTopErrorSignatures().get(0).getExceptionType());
+        assertEquals("boom requestId=abcdef123", res.getTopErrorSignatures().get(0).getMessage());
+        assertTrue(log.correlationIndex().contains("abcdef123"));
+    }
+}
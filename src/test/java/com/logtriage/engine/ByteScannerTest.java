@@ -0,0 +1,79 @@
+package com.logtriage.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteScannerTest {
+
+    private static final String[] PARTS = {
+            "Exception", "exception", "ERROR", "error", "requestId", "TRACE_ID", "x-correlation-id", "id", "Id",
+            " ", "\t", ":", "=", "\n", "é", "中", "\uD83D\uDE00", "K", "x", "Ex", "ERRO", "abc123"
+    };
+
+    private static final Pattern ID_KEY = Pattern.compile(
+            "(?i)(correlationId|correlation_id|requestId|request_id|traceId|trace_id|x-request-id|x-correlation-id)\\s*[:=]");
+
+    @Test
+    void shouldFindTheSameMatchesAsString() {
+        Random random = new Random(7);
+        byte[] exception = ByteScanner.ascii("Exception");
+        byte[] error = ByteScanner.ascii("error");
+
+        for (int k = 0; k < 2000; k++) {
+            StringBuilder sb = new StringBuilder();
+            int n = random.nextInt(40);
+            for (int j = 0; j < n; j++) sb.append(PARTS[random.nextInt(PARTS.length)]);
+            String s = sb.toString();
+            byte[] a = ByteScanner.latin1(s);
+            int from = s.isEmpty() ? 0 : random.nextInt(s.length());
+
+            assertEquals(s.indexOf('\n', from), ByteScanner.indexOf(a, from, a.length, (byte) '\n'), s);
+            assertEquals(s.indexOf("Exception", from), ByteScanner.indexOf(a, from, a.length, exception), s);
+            // ASCII-only folding: the Kelvin sign must not match 'k', unlike String.toLowerCase
+            assertEquals(asciiLower(s).indexOf("error", from), ByteScanner.indexOfIgnoreCase(a, from, a.length, error), s);
+
+            Matcher m = ID_KEY.matcher(s);
+            int expected = m.find() ? m.end() - 1 : -1;
+            assertEquals(expected, ByteScanner.indexOfIdKey(a, 0, a.length), s);
+        }
+    }
+
+    @Test
+    void shouldKeepStringOffsetsForSurrogatePairs() {
+        String s = "INFO \uD83D\uDE00 ok\nERROR \uD83D\uDCA5 Exception";
+        byte[] a = ByteScanner.latin1(s);
+
+        assertEquals(s.length(), a.length);
+        assertEquals(s.indexOf('\n'), ByteScanner.indexOf(a, 0, a.length, (byte) '\n'));
+        assertEquals(s.indexOf("Exception"), ByteScanner.indexOf(a, 0, a.length, ByteScanner.ascii("Exception")));
+        assertEquals('?', a[5]);
+        assertEquals('?', a[6]);
+    }
+
+    @Test
+    void cursorShouldReportEachMatchOncePerRange() {
+        String s = "INFO ok\nERROR Exception one\nINFO ok\nWARN Exception two\n";
+        byte[] a = ByteScanner.latin1(s);
+        ByteScanner.Cursor cursor = new ByteScanner.Cursor(a, ByteScanner.ascii("Exception"));
+
+        int start = 0;
+        StringBuilder hits = new StringBuilder();
+        while (start < a.length) {
+            int end = ByteScanner.indexOf(a, start, a.length, (byte) '\n');
+            hits.append(cursor.within(start, end) ? '1' : '0');
+            start = end + 1;
+        }
+        assertEquals("0101", hits.toString());
+    }
+
+    private static String asciiLower(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (char c : s.toCharArray()) sb.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        return sb.toString();
+    }
+}
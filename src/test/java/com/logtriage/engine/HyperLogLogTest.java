@@ -0,0 +1,33 @@
+package com.logtriage.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void shouldEstimateDistinctValuesWithinFewPercent() {
+        HyperLogLog small = new HyperLogLog();
+        for (int i = 0; i < 50; i++) small.add("req-" + (i % 10));
+        assertEquals(10, small.estimate());
+
+        HyperLogLog large = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) large.add("req-" + i);
+        long estimate = large.estimate();
+        assertTrue(Math.abs(estimate - 200_000) < 200_000 * 0.1, "estimate " + estimate);
+        assertEquals(1024, large.sizeInBytes());
+    }
+
+    @Test
+    void shouldMergeIntoUnionEstimate() {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) a.add("user-" + i);
+        for (int i = 20_000; i < 50_000; i++) b.add("user-" + i);
+
+        long union = a.merge(b).estimate();
+
+        assertTrue(Math.abs(union - 50_000) < 50_000 * 0.1, "union " + union);
+    }
+}
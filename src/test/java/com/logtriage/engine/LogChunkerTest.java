@@ -0,0 +1,60 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.LogAnalysisResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogChunkerTest {
+
+    @Test
+    void shouldCutOnlyWhereAnEventStarts() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("2026-03-18 10:00:00.000 ERROR java.lang.IllegalStateException: boom ").append(i).append('\n');
+            sb.append("\tat com.myapp.Service.call(Service.java:42)\n");
+            sb.append("Caused by: java.io.IOException: broken pipe\n");
+        }
+        String log = sb.toString();
+
+        List<String> chunks = new ArrayList<>();
+        LogChunker chunker = new LogChunker(new StringReader(log), 4096);
+        for (String chunk; (chunk = chunker.next()) != null; ) chunks.add(chunk);
+
+        assertTrue(chunks.size() > 10);
+        assertEquals(log, String.join("", chunks));
+        for (String chunk : chunks) {
+            assertTrue(chunk.length() <= 4096);
+            assertTrue(chunk.startsWith("2026-"), chunk.substring(0, 20));
+        }
+    }
+
+    @Test
+    void shouldScanChunksLikeTheWholeLog() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append("2026-03-18 10:00:00.000 INFO ok requestId=req-").append(10000 + i).append('\n');
+            if (i % 7 == 0) sb.append("2026-03-18 10:00:01.000 ERROR java.net.SocketTimeoutException: Read timed out\n");
+            if (i % 11 == 0) sb.append("2026-03-18 10:00:02.000 ERROR java.lang.NullPointerException: x is null\n");
+        }
+        String log = sb.toString();
+        RuleBasedLogAnalyzer analyzer = new RuleBasedLogAnalyzer();
+
+        LogScan merged = analyzer.newScan();
+        LogChunker chunker = new LogChunker(new StringReader(log), 8192);
+        for (String chunk; (chunk = chunker.next()) != null; ) {
+            merged.merge(analyzer.scan(new AnalyzedLog(chunk), LogFormat.TEXT));
+        }
+
+        LogAnalysisResponse whole = analyzer.analyze(log);
+        LogAnalysisResponse chunked = analyzer.summarize(merged);
+        assertEquals(whole.getTopErrorSignatures(), chunked.getTopErrorSignatures());
+        assertEquals(whole.getDetectedIssues(), chunked.getDetectedIssues());
+        assertEquals(whole.getDetectedIds(), chunked.getDetectedIds());
+    }
+}
@@ -0,0 +1,93 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.LogDiffResponse;
+import com.logtriage.model.SignatureChange;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogDifferTest {
+
+    @Test
+    void shouldReportNewDisappearedAndIncreasedSignatures() throws IOException {
+        StringBuilder before = new StringBuilder();
+        StringBuilder after = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            before.append(String.format("2026-03-18 10:%02d:00 INFO ok%n", i));
+            after.append(String.format("2026-03-18 11:%02d:00 INFO ok%n", i));
+            if (i % 10 == 0) {
+                before.append("2026-03-18 10:00:00 ERROR java.net.SocketTimeoutException: Read timed out after ")
+                        .append(1000 + i).append(" ms\n");
+                before.append("java.lang.IllegalStateException: cache warmup incomplete\n");
+            }
+            if (i % 2 == 0) {
+                after.append("2026-03-18 11:00:00 ERROR java.net.SocketTimeoutException: Read timed out after ")
+                        .append(2000 + i).append(" ms\n");
+            }
+            if (i % 20 == 0) {
+                after.append("2026-03-18 11:00:00 ERROR java.lang.NullPointerException: order ")
+                        .append(i).append(" has no customer\n");
+            }
+        }
+
+        LogDiffer differ = new LogDiffer();
+        LogDiffer.Side b = differ.newSide();
+        LogDiffer.Side a = differ.newSide();
+        differ.scan(stream(before), b);
+        differ.scan(stream(after), a);
+        LogDiffResponse diff = differ.compare(b, a, 2.0, 5, 10);
+
+        assertEquals("per minute", diff.getRateUnit());
+
+        assertEquals(1, diff.getNewSignatures().size());
+        SignatureChange npe = diff.getNewSignatures().get(0);
+        assertEquals("NullPointerException", npe.getExceptionType());
+        assertEquals("order # has no customer", npe.getNormalizedMessage());
+        assertEquals(3, npe.getCountAfter());
+        assertNull(npe.getRateChange());
+
+        assertEquals("IllegalStateException", diff.getDisappearedSignatures().get(0).getExceptionType());
+
+        SignatureChange timeout = diff.getIncreasedSignatures().get(0);
+        assertEquals("SocketTimeoutException", timeout.getExceptionType());
+        assertEquals(6, timeout.getCountBefore());
+        assertEquals(30, timeout.getCountAfter());
+        assertEquals(5.0, timeout.getRateChange());
+    }
+
+    @Test
+    void shouldSplitOneLogByTimeRangesWithStackLinesFollowingTheirEvent() throws IOException {
+        String log = String.join("\n",
+                "2026-03-18 09:59:00 ERROR request failed",
+                "java.lang.IllegalStateException: pool closed",
+                "\tat a.B.c(B.java:1)",
+                "2026-03-18 10:01:00 INFO deploy finished",
+                "2026-03-18 10:02:00 ERROR request failed",
+                "java.lang.NullPointerException: user 42 is null",
+                "2026-03-18 10:03:00 INFO ok");
+
+        LogDiffer differ = new LogDiffer();
+        LogDiffer.Side b = differ.newSide();
+        LogDiffer.Side a = differ.newSide();
+        differ.scanRanges(stream(log), b,
+                LogTimestamps.lowerBound("2026-03-18 09:00"), LogTimestamps.upperBound("2026-03-18 09:59"),
+                a, LogTimestamps.lowerBound("2026-03-18 10:00"), LogTimestamps.upperBound("2026-03-18 10:59"));
+        LogDiffResponse diff = differ.compare(b, a, 2.0, 1, 10);
+
+        assertEquals(3, diff.getBefore().getLines());
+        assertEquals(4, diff.getAfter().getLines());
+        assertEquals("NullPointerException", diff.getNewSignatures().get(0).getExceptionType());
+        assertEquals("user # is null", diff.getNewSignatures().get(0).getNormalizedMessage());
+        assertEquals("IllegalStateException", diff.getDisappearedSignatures().get(0).getExceptionType());
+        assertEquals("2026-03-18 10:01:00.000", diff.getAfter().getFirstTimestamp());
+    }
+
+    private static InputStream stream(CharSequence s) {
+        return new ByteArrayInputStream(s.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
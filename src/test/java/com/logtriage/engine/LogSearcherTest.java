@@ -0,0 +1,81 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.SearchMatch;
+import com.logtriage.model.SearchQuery;
+import com.logtriage.model.SearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSearcherTest {
+
+    private static AnalyzedLog indexedLog() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            String ts = String.format("2026-03-18 10:%02d:%02d.000", i / 60, i % 60);
+            if (i == 130) {
+                sb.append(ts).append(" ERROR java.net.SocketTimeoutException: Read timed out requestId=req-abcdef\n");
+                sb.append("\tat com.myapp.Client.call(Client.java:10)\n");
+            } else if (i == 400) {
+                sb.append(ts).append(" ERROR java.net.SocketTimeoutException: connect timed out\n");
+            } else {
+                sb.append(ts).append(" INFO heartbeat ok\n");
+            }
+        }
+        AnalyzedLog log = new AnalyzedLog(sb.toString(), true);
+        new RuleBasedLogAnalyzer().analyze(log);
+        return log;
+    }
+
+    @Test
+    void shouldFindSubstringWithContext() {
+        SearchQuery q = new SearchQuery();
+        q.setQ("Read timed out");
+        q.setContext(1);
+
+        SearchResult res = new LogSearcher().search(indexedLog(), q);
+
+        assertEquals(1, res.getReturned());
+        SearchMatch m = res.getMatches().get(0);
+        assertEquals(131, m.getLineNumber());
+        assertEquals(1, m.getBefore().size());
+        assertTrue(m.getAfter().get(0).contains("Client.call"));
+        assertEquals(1, res.getBlocksScanned());
+    }
+
+    @Test
+    void shouldCombineExceptionTypeAndTimeRange() {
+        SearchQuery q = new SearchQuery();
+        q.setExceptionType("SocketTimeoutException");
+        q.setFrom("2026-03-18 10:05");
+
+        SearchResult res = new LogSearcher().search(indexedLog(), q);
+
+        assertEquals(1, res.getReturned());
+        assertTrue(res.getMatches().get(0).getText().contains("connect timed out"));
+    }
+
+    @Test
+    void shouldUseCorrelationIndexForIds() {
+        SearchQuery q = new SearchQuery();
+        q.setId("req-abcdef");
+
+        SearchResult res = new LogSearcher().search(indexedLog(), q);
+
+        assertEquals(List.of(131), res.getMatches().stream().map(SearchMatch::getLineNumber).toList());
+    }
+
+    @Test
+    void shouldMatchIgnoringCase() {
+        SearchQuery q = new SearchQuery();
+        q.setQ("READ TIMED");
+        q.setIgnoreCase(true);
+
+        assertEquals(1, new LogSearcher().search(indexedLog(), q).getReturned());
+
+        q.setIgnoreCase(false);
+        assertEquals(0, new LogSearcher().search(indexedLog(), q).getReturned());
+    }
+}
@@ -3,6 +3,8 @@ package com.logtriage.engine;
 import com.logtriage.model.LogAnalysisResponse;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RuleBasedLogAnalyzerTest {
@@ -34,4 +36,96 @@ class RuleBasedLogAnalyzerTest {
                         .anyMatch(sig -> sig.getExceptionType().contains("NullPointerException") && sig.getCount() == 2)
         );
     }
+
+    @Test
+    void shouldIndexCorrelationIdsWhileScanning() {
+        RuleBasedLogAnalyzer analyzer = new RuleBasedLogAnalyzer();
+
+        String log = String.join("\n",
+                "2026-03-18 10:16:05 INFO start requestId=req-111111",
+                "2026-03-18 10:16:06 INFO other traceId=trace-222222",
+                "2026-03-18 10:16:07 ERROR java.lang.NullPointerException requestId=req-111111",
+                "2026-03-18 10:16:08 ERROR failed traceId=trace-222222 requestId=req-111111");
+        AnalyzedLog analyzed = new AnalyzedLog(log);
+        LogAnalysisResponse res = analyzer.analyze(analyzed);
+
+        CorrelationIndex index = analyzed.correlationIndex();
+        assertArrayEquals(new int[]{0, 2, 3}, index.lines("req-111111"));
+        assertEquals(2, index.errorCount("req-111111"));
+        assertEquals(1, index.errorCount("trace-222222"));
+        assertEquals("req-111111", index.topByErrors(1).get(0));
+        assertTrue(analyzed.isError(2));
+        assertFalse(analyzed.isError(1));
+        assertEquals(List.of("req-111111", "trace-222222"), res.getDetectedIds());
+    }
+
+    @Test
+    void shouldMergeScansOfSeparateInputs() {
+        RuleBasedLogAnalyzer analyzer = new RuleBasedLogAnalyzer();
+
+        LogScan a = analyzer.scan(new AnalyzedLog("java.lang.NullPointerException at A\nread timed out"));
+        LogScan b = analyzer.scan(new AnalyzedLog("java.lang.NullPointerException at B\njava.net.ConnectException: Connection refused"));
+
+        LogAnalysisResponse res = analyzer.summarize(a.merge(b));
+
+        assertEquals("HIGH", res.getSeverity());
+        assertEquals(3, res.getDetectedIssues().size());
+        assertEquals("NullPointerException", res.getTopErrorSignatures().get(0).getExceptionType());
+        assertEquals(2, res.getTopErrorSignatures().get(0).getCount());
+    }
+
+    @Test
+    void shouldExtractSignaturesAndIdsFromJsonLines() {
+        RuleBasedLogAnalyzer analyzer = new RuleBasedLogAnalyzer();
+
+        String log = String.join("\n",
+                "{\"@timestamp\":\"2026-03-18T10:16:05.123Z\",\"log\":{\"level\":\"ERROR\"},\"message\":\"lookup failed\","
+                        + "\"error\":{\"type\":\"java.lang.NullPointerException\",\"message\":\"user is null\","
+                        + "\"stack_trace\":\"java.lang.NullPointerException: user is null\\n\\tat a.B(B.java:1)\"},"
+                        + "\"trace\":{\"id\":\"trace-abc123\"}}",
+                "{\"@timestamp\":\"2026-03-18T10:16:06Z\",\"level\":\"ERROR\",\"message\":\"call failed\","
+                        + "\"stack_trace\":\"java.net.SocketTimeoutException: Read timed out\\n\\tat x.Y\",\"traceId\":\"trace-abc123\"}",
+                "{\"@timestamp\":\"2026-03-18T10:16:07Z\",\"level\":\"INFO\",\"message\":\"requestId=not-an-id-here ok\"}");
+        AnalyzedLog analyzed = new AnalyzedLog(log);
+        LogAnalysisResponse res = analyzer.summarize(analyzer.scan(analyzed, LogFormat.AUTO));
+
+        assertTrue(res.getTopErrorSignatures().stream()
+                .anyMatch(s -> s.getExceptionType().equals("NullPointerException") && s.getMessage().equals("user is null")));
+        assertTrue(res.getTopErrorSignatures().stream()
+                .anyMatch(s -> s.getExceptionType().equals("SocketTimeoutException")));
+        assertEquals(List.of("trace-abc123"), res.getDetectedIds());
+        assertArrayEquals(new int[]{0, 1}, analyzed.correlationIndex().lines("trace-abc123"));
+        assertFalse(analyzed.isError(2));
+    }
+
+    @Test
+    void shouldEstimateBlastRadiusPerSignatureAcrossMergedScans() {
+        RuleBasedLogAnalyzer analyzer = new RuleBasedLogAnalyzer();
+
+        StringBuilder a = new StringBuilder();
+        StringBuilder b = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            StringBuilder sb = i < 20 ? a : b;
+            sb.append("2026-03-18 10:16:05 ERROR host=api-").append(i % 4)
+                    .append(" user=u").append(i).append(" requestId=req-").append(1000 + i).append(" failed\n")
+                    .append("java.lang.NullPointerException: boom\n")
+                    .append("\tat com.myapp.Service.process(Service.java:42)\n");
+        }
+        a.append("2026-03-18 10:17:00 WARN traceId=trace-xyz789 java.net.SocketTimeoutException: Read timed out\n");
+
+        LogScan scan = analyzer.scan(new AnalyzedLog(a.toString()))
+                .merge(analyzer.scan(new AnalyzedLog(b.toString())));
+        LogAnalysisResponse res = analyzer.summarize(scan);
+
+        var npe = res.getTopErrorSignatures().get(0).getBlastRadius();
+        // HyperLogLog estimates: linear counting is within a couple of the true value at this size
+        assertTrue(Math.abs(npe.getRequestIds() - 40) <= 2);
+        assertTrue(Math.abs(npe.getUsers() - 40) <= 2);
+        assertEquals(4, npe.getHosts());
+        assertEquals(0, npe.getTraceIds());
+
+        var timeout = res.getTopErrorSignatures().get(1).getBlastRadius();
+        assertEquals(1, timeout.getTraceIds());
+        assertEquals(0, timeout.getRequestIds());
+    }
 }
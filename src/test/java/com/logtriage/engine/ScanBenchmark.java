@@ -0,0 +1,76 @@
+package com.logtriage.engine;
+
+import java.util.Random;
+
+// Not a test (surefire skips it by name): throughput of the byte-level scans against their String
+// equivalents, and of the whole analyzer scan, on a synthetic application log.
+// Run after `mvn test-compile`:
+//   java -cp target/test-classes:target/classes:<deps> com.logtriage.engine.ScanBenchmark [sizeMB]
+public class ScanBenchmark {
+
+    public static void main(String[] args) {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        String text = syntheticLog(sizeMb * 1_000_000);
+        byte[] bytes = ByteScanner.latin1(text);
+        byte[] exception = ByteScanner.ascii("Exception");
+        byte[] timeout = ByteScanner.ascii("timed out");
+
+        for (int round = 0; round < 5; round++) {
+            System.out.printf("round %d%n", round + 1);
+
+            report("newlines  String.indexOf", text.length(), () -> {
+                int n = 0;
+                for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) n++;
+                return n;
+            });
+            report("newlines  ByteScanner", bytes.length, () -> {
+                int n = 0;
+                for (int i = ByteScanner.indexOf(bytes, 0, bytes.length, (byte) '\n'); i >= 0;
+                     i = ByteScanner.indexOf(bytes, i + 1, bytes.length, (byte) '\n')) n++;
+                return n;
+            });
+            report("keyword   String.indexOf", text.length(), () -> text.indexOf("Exception", 1) + text.indexOf("NoSuchKeyword"));
+            report("keyword   ByteScanner", bytes.length, () -> ByteScanner.indexOf(bytes, 1, bytes.length, exception)
+                    + ByteScanner.indexOf(bytes, 0, bytes.length, ByteScanner.ascii("NoSuchKeyword")));
+            report("ci        toLowerCase+indexOf", text.length(), () -> text.toLowerCase().indexOf("timed out"));
+            report("ci        ByteScanner", bytes.length, () -> ByteScanner.indexOfIgnoreCase(bytes, 0, bytes.length, timeout));
+            report("id keys   ByteScanner", bytes.length, () -> {
+                int n = 0;
+                for (int i = ByteScanner.indexOfIdKey(bytes, 0, bytes.length); i >= 0;
+                     i = ByteScanner.indexOfIdKey(bytes, i + 1, bytes.length)) n++;
+                return n;
+            });
+            report("analyzer  plain", text.length(), () -> new RuleBasedLogAnalyzer().analyze(new AnalyzedLog(text)).getDetectedIds().size());
+            report("analyzer  searchable", text.length(), () -> new RuleBasedLogAnalyzer().analyze(new AnalyzedLog(text, true)).getDetectedIds().size());
+        }
+    }
+
+    private static void report(String name, long chars, Run run) {
+        long start = System.nanoTime();
+        long result = run.run();
+        long nanos = System.nanoTime() - start;
+        System.out.printf("  %-32s %8.1f ms %8.2f GB/s  (%d)%n", name, nanos / 1e6, chars / (double) nanos, result);
+    }
+
+    private interface Run {
+        long run();
+    }
+
+    private static String syntheticLog(int chars) {
+        String[] words = {"payment", "order", "user", "cache", "inventory", "gateway", "auth", "session", "retry", "queue"};
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder(chars + 200);
+        for (int i = 0; sb.length() < chars; i++) {
+            sb.append(String.format("2026-03-18 %02d:%02d:%02d.%03d ", (i / 3_600_000) % 24, (i / 60_000) % 60, (i / 1000) % 60, i % 1000));
+            if (i % 5000 == 0) {
+                sb.append("ERROR java.sql.SQLTransientConnectionException: pool exhausted requestId=req-").append(100_000 + i % 7777);
+            } else {
+                sb.append("INFO [").append(words[random.nextInt(words.length)]).append("] handled ")
+                        .append(words[random.nextInt(words.length)]).append(" id=").append(random.nextInt(1_000_000))
+                        .append(" in ").append(random.nextInt(500)).append("ms");
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.logtriage.engine;
+
+import com.logtriage.model.CorrelationResponse;
+import com.logtriage.model.ServiceLogSummary;
+import com.logtriage.model.SharedId;
+import com.logtriage.model.SignaturePropagation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceCorrelatorTest {
+
+    private static final String DB = """
+            2026-03-18 10:00:00.000 INFO db ready
+            2026-03-18 10:00:05.000 ERROR requestId=req-000042 java.sql.SQLTransientConnectionException: pool exhausted after 30000 ms
+            \tat com.zaxxer.hikari.pool.HikariPool.createTimeoutException(HikariPool.java:696)
+            2026-03-18 10:00:06.000 INFO db recovering
+            """;
+
+    // one line flushed late, out of order
+    private static final String ORDERS = """
+            2026-03-18 10:00:01.000 INFO orders started
+            2026-03-18 10:00:07.500 ERROR requestId=req-000042 failed to load order
+            org.springframework.dao.DataAccessResourceFailureException: pool exhausted after 30000 ms
+            \tat com.shop.orders.OrderRepository.find(OrderRepository.java:41)
+            2026-03-18 10:00:07.000 WARN orders slow query
+            2026-03-18 10:00:09.000 ERROR java.sql.SQLTransientConnectionException: pool exhausted after 31000 ms
+            """;
+
+    private static final String GATEWAY = """
+            {"@timestamp":"2026-03-18T10:00:08.250Z","level":"ERROR","message":"upstream orders returned 500","requestId":"req-000042"}
+            {"@timestamp":"2026-03-18T10:00:02.000Z","level":"INFO","message":"healthy"}
+            """;
+
+    @Test
+    void shouldFindFirstFailingServiceAndHowErrorsPropagate() throws IOException {
+        CorrelationResponse r = new ServiceCorrelator().correlate(
+                List.of("gateway", "orders", "db"), streams(GATEWAY, ORDERS, DB), 100, 10);
+
+        assertEquals(List.of("db", "orders", "gateway"), r.getFailureOrder());
+        assertEquals("db", r.getFirstError().getService());
+        assertEquals("SQLTransientConnectionException", r.getFirstError().getExceptionType());
+        assertEquals(List.of("req-000042"), r.getFirstError().getIds());
+
+        ServiceLogSummary gateway = r.getServices().get(0);
+        ServiceLogSummary orders = r.getServices().get(1);
+        ServiceLogSummary db = r.getServices().get(2);
+        assertEquals(Long.valueOf(0), db.getFirstErrorOffsetMs());
+        assertEquals(Long.valueOf(2500), orders.getFirstErrorOffsetMs());
+        assertEquals(Long.valueOf(3250), gateway.getFirstErrorOffsetMs());
+        assertEquals("ERROR: upstream orders returned 500", gateway.getFirstErrorSignature());
+
+        // stack frames belong to their event
+        assertEquals(6, orders.getLines());
+        assertEquals(4, orders.getEvents());
+        assertEquals(2, orders.getErrorEvents());
+        assertEquals("2026-03-18 10:00:09.000", orders.getLastTimestamp());
+
+        // merged timeline: the late line doesn't reorder the rest of its input
+        assertEquals(List.of("db", "orders", "gateway", "orders"),
+                r.getTimeline().stream().map(e -> e.getService()).toList());
+
+        SignaturePropagation pool = r.getPropagation().get(0);
+        assertEquals("SQLTransientConnectionException", pool.getExceptionType());
+        assertEquals("pool exhausted after # ms", pool.getMessage());
+        assertEquals(2, pool.getCount());
+        assertEquals("db", pool.getServices().get(0).getService());
+        assertEquals("orders", pool.getServices().get(1).getService());
+        assertEquals(Long.valueOf(4000), pool.getServices().get(1).getOffsetMs());
+
+        assertEquals(1, r.getSharedIds().size());
+        SharedId request = r.getSharedIds().get(0);
+        assertEquals("req-000042", request.getId());
+        assertEquals(3, request.getErrorEvents());
+        assertEquals(List.of("db", "orders", "gateway"),
+                request.getServices().stream().map(s -> s.getService()).toList());
+    }
+
+    @Test
+    void shouldKeepIdTableBounded() throws IOException {
+        List<String> services = new ArrayList<>();
+        List<String> logs = new ArrayList<>();
+        for (int s = 0; s < 3; s++) {
+            StringBuilder log = new StringBuilder();
+            for (int i = 0; i < 500; i++) {
+                log.append(String.format("2026-03-18 10:%02d:%02d.%03d INFO requestId=req-%06d handled%n",
+                        i / 60 % 60, i % 60, s, i));
+            }
+            services.add("svc" + s);
+            logs.add(log.toString());
+        }
+
+        CorrelationResponse r = new ServiceCorrelator(100, 50)
+                .correlate(services, streams(logs.toArray(new String[0])), 10, 5);
+
+        // the lines of one request are adjacent after the merge: evicted ids were complete
+        assertEquals(450, r.getEvictedIds());
+        assertEquals(5, r.getSharedIds().size());
+        assertEquals("req-000000", r.getSharedIds().get(0).getId());
+        assertEquals(3, r.getSharedIds().get(0).getServices().size());
+        assertNull(r.getFirstError());
+        assertTrue(r.getFailureOrder().isEmpty());
+    }
+
+    @Test
+    void shouldMergeLargeInputsInBoundedMemory() throws IOException {
+        int services = 10;
+        long bytesPerInput = 6L * 1024 * 1024;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] peak = new long[1];
+
+        List<String> names = new ArrayList<>();
+        List<InputStream> inputs = new ArrayList<>();
+        for (int s = 0; s < services; s++) {
+            names.add("svc" + s);
+            // the first input samples the live heap (after a GC) every 2 MB it serves
+            inputs.add(new GeneratedLog(s, bytesPerInput, s == 0 ? () -> {
+                System.gc();
+                peak[0] = Math.max(peak[0], memory.getHeapMemoryUsage().getUsed());
+            } : null));
+        }
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+
+        CorrelationResponse r = new ServiceCorrelator(100, 1000).correlate(names, inputs, 10, 5);
+
+        long total = 0;
+        for (ServiceLogSummary summary : r.getServices()) total += summary.getLines();
+        assertTrue(total > services * (bytesPerInput / 100), "lines " + total);
+        assertEquals(10, r.getTimeline().size());
+        assertEquals(services, r.getPropagation().get(0).getServices().size());
+        assertTrue(r.getEvictedIds() > 0);
+        // 60 MB of input (120 MB as chars); what the merge keeps alive is a few MB of buffers and tables
+        long grown = peak[0] - before;
+        assertTrue(grown < 16L * 1024 * 1024, "live heap grew by " + grown / 1024 + " KB");
+    }
+
+    // Lines of one service generated while read: ~100 bytes each, timestamps 1 ms apart (offset per service),
+    // an error every 500 lines and a request id every 50.
+    private static final class GeneratedLog extends InputStream {
+        private final int service;
+        private final long size;
+        private final Runnable probe;
+        private long served;
+        private long line;
+        private byte[] current = new byte[0];
+        private int pos;
+
+        GeneratedLog(int service, long size, Runnable probe) {
+            this.service = service;
+            this.size = size;
+            this.probe = probe;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos == current.length) {
+                if (served >= size) return -1;
+                current = nextLine();
+                pos = 0;
+            }
+            int n = Math.min(len, current.length - pos);
+            System.arraycopy(current, pos, b, off, n);
+            pos += n;
+            long mark = served / (2L * 1024 * 1024);
+            served += n;
+            if (probe != null && served / (2L * 1024 * 1024) != mark) probe.run();
+            return n;
+        }
+
+        private byte[] nextLine() {
+            long ms = line * 10 + service;
+            // no String.format: it would dominate the test's run time
+            long hh = 10 + ms / 3_600_000, mm = ms / 60_000 % 60, ss = ms / 1000 % 60, sss = ms % 1000;
+            String ts = "2026-03-18 " + hh + ":" + (mm < 10 ? "0" : "") + mm + ":" + (ss < 10 ? "0" : "") + ss
+                    + "." + (sss < 100 ? "0" : "") + (sss < 10 ? "0" : "") + sss;
+            String text;
+            if (line % 500 == 7) {
+                text = ts + " ERROR requestId=req-" + line + " java.net.SocketTimeoutException: Read timed out after " + (line % 90) + " ms\n";
+            } else if (line % 50 == 0) {
+                text = ts + " INFO requestId=req-" + line + " order " + line + " handled by worker-" + service + " in 12 ms, status ok\n";
+            } else {
+                text = ts + " INFO order " + line + " handled by worker-" + service + " in 12 ms, status ok, cache hit\n";
+            }
+            line++;
+            return text.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static List<InputStream> streams(String... logs) {
+        List<InputStream> streams = new ArrayList<>();
+        for (String log : logs) streams.add(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)));
+        return streams;
+    }
+}
@@ -0,0 +1,67 @@
+package com.logtriage.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignatureCounterTest {
+
+    @Test
+    void shouldBeExactWhileDistinctKeysFitCapacity() {
+        SignatureCounter counter = new SignatureCounter(8, 3);
+        for (int i = 0; i < 100; i++) counter.add("A", "a" + i);
+        for (int i = 0; i < 40; i++) counter.add("B", "b" + i);
+
+        List<SignatureCounter.Slot> top = counter.top();
+
+        assertTrue(counter.isExact());
+        assertEquals("A", top.get(0).key());
+        assertEquals(100, top.get(0).count());
+        assertEquals("a0", top.get(0).firstExample());
+        assertEquals(3, top.get(0).examples().size());
+        assertEquals(40, top.get(1).count());
+    }
+
+    @Test
+    void shouldKeepHeavyHittersWithinErrorBoundUnderManyDistinctKeys() {
+        int capacity = 50;
+        SignatureCounter counter = new SignatureCounter(capacity, 2);
+
+        int heavy = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 10 == 0) {
+                counter.add("HeavyException", "boom");
+                heavy++;
+            } else {
+                counter.add("Noise" + i + "Exception", "noise");
+            }
+        }
+
+        SignatureCounter.Slot top = counter.top().get(0);
+        long bound = counter.total() / capacity;
+
+        assertEquals(capacity, counter.size());
+        assertEquals("HeavyException", top.key());
+        assertTrue(top.error() <= bound);
+        assertTrue(top.count() - top.error() <= heavy && heavy <= top.count());
+    }
+
+    @Test
+    void shouldMergeCountsAndKeepBounds() {
+        SignatureCounter a = new SignatureCounter(4, 3);
+        SignatureCounter b = new SignatureCounter(4, 3);
+        for (int i = 0; i < 30; i++) a.add("A", "a");
+        for (int i = 0; i < 20; i++) b.add("A", "a2");
+        for (int i = 0; i < 5; i++) b.add("B", "b");
+
+        a.merge(b);
+
+        assertEquals(55, a.total());
+        assertEquals(50, a.top().get(0).count());
+        assertEquals(0, a.top().get(0).error());
+        assertEquals(5, a.top().get(1).count());
+        assertEquals(3, a.top().get(0).examples().size());
+    }
+}
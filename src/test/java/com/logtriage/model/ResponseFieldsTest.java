@@ -0,0 +1,39 @@
+package com.logtriage.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseFieldsTest {
+
+    @Test
+    void shouldOnlyRequireStagesOfRequestedFields() {
+        ResponseFields fields = ResponseFields.parse(" severity, topErrorSignatures ,");
+
+        assertFalse(fields.isAll());
+        assertTrue(fields.includes("severity"));
+        assertFalse(fields.includes("ticketBody"));
+        assertFalse(fields.needsAi());
+        assertFalse(fields.needsStore());
+        assertFalse(fields.needsIncidents());
+
+        assertTrue(ResponseFields.parse("ticketBody").needsAi());
+        assertFalse(ResponseFields.parse("ticketTitle").needsAi());
+        assertTrue(ResponseFields.parse("suggestedSearches").needsStore());
+        assertTrue(ResponseFields.parse("ticketBody").needsSimilarIncidents());
+        assertTrue(ResponseFields.parse("incidentId").needsIncidents());
+        assertFalse(ResponseFields.parse("incidentId").needsSimilarIncidents());
+        assertTrue(ResponseFields.ALL.needsSimilarIncidents());
+    }
+
+    @Test
+    void shouldTreatBlankAsAllAndRejectUnknownFields() {
+        assertSame(ResponseFields.ALL, ResponseFields.parse(null));
+        assertSame(ResponseFields.ALL, ResponseFields.parse(" , "));
+        assertTrue(ResponseFields.ALL.needsAi());
+        assertTrue(ResponseFields.ALL.names().contains("aiConfidence"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ResponseFields.parse("severity,ticket"));
+        assertTrue(e.getMessage().contains("ticket"));
+    }
+}
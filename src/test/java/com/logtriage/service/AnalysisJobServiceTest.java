@@ -0,0 +1,296 @@
+package com.logtriage.service;
+
+import com.logtriage.admission.AdmissionRejectedException;
+import com.logtriage.ai.AiLogAnalyzer;
+import com.logtriage.ai.AiRouter;
+import com.logtriage.engine.AnalyzedLog;
+import com.logtriage.engine.LogFormat;
+import com.logtriage.engine.LogScan;
+import com.logtriage.engine.RuleBasedLogAnalyzer;
+import com.logtriage.jobs.JobNotFinishedException;
+import com.logtriage.jobs.JobState;
+import com.logtriage.model.AnalysisJob;
+import com.logtriage.store.AnalysisStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// One worker, and a first job ("blocker") that holds it until released, so the order in which
+// the queued jobs run is deterministic.
+class AnalysisJobServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRunQueuedJobsByPriorityAndCancelQueuedOrRunningOnes() throws Exception {
+        Gated analysis = new Gated();
+        AnalysisJobService jobs = jobs(analysis, 10, Duration.ofDays(7));
+        try {
+            AnalysisJob blocker = submit(jobs, "blocker", "normal", 3000);
+            analysis.awaitBlocked();
+
+            AnalysisJob low = submit(jobs, "low", "low", 10);
+            AnalysisJob normal = submit(jobs, "normal", "normal", 10);
+            AnalysisJob cancelled = submit(jobs, "cancelled", "high", 10);
+            AnalysisJob high = submit(jobs, "high", "high", 10);
+
+            assertEquals(JobState.CANCELLED, jobs.cancel(cancelled.getJobId()).getState());
+            // a running job only stops at its next chunk
+            assertEquals(JobState.RUNNING, jobs.cancel(blocker.getJobId()).getState());
+            analysis.release();
+
+            assertEquals(JobState.CANCELLED, await(jobs, blocker).getState());
+            for (AnalysisJob job : List.of(low, normal, high)) {
+                assertEquals(JobState.SUCCEEDED, await(jobs, job).getState());
+            }
+            assertEquals(List.of("blocker", "high", "normal", "low"), analysis.started);
+            assertEquals(JobState.CANCELLED, jobs.get(cancelled.getJobId()).getState());
+            assertEquals(1, jobs.result(high.getJobId()).getTopErrorSignatures().size());
+        } finally {
+            analysis.release();
+            jobs.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRejectSubmissionsWhenQueueIsFull() throws Exception {
+        Gated analysis = new Gated();
+        AnalysisJobService jobs = jobs(analysis, 1, Duration.ofDays(7));
+        try {
+            submit(jobs, "blocker", "normal", 10);
+            analysis.awaitBlocked();
+            submit(jobs, "queued", "normal", 10);
+
+            AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                    () -> submit(jobs, "rejected", "high", 10));
+            assertTrue(e.getMessage().contains("queue is full"), e.getMessage());
+            // the rejected upload left nothing behind
+            assertEquals(2, jobs.list(10).size());
+        } finally {
+            analysis.release();
+            jobs.shutdown();
+        }
+    }
+
+    @Test
+    void shouldKeepFinishedJobsAndRequeueRunningOnesAcrossRestart() throws Exception {
+        Gated analysis = new Gated();
+        AnalysisJobService jobs = jobs(analysis, 10, Duration.ofDays(7));
+        AnalysisJob done = submit(jobs, "done", "normal", 10);
+        analysis.release();
+        await(jobs, done);
+
+        analysis.block();
+        AnalysisJob interrupted = submit(jobs, "blocker", "normal", 10);
+        analysis.awaitBlocked();
+        // stopped mid-run: still RUNNING on disk
+        jobs.shutdown();
+
+        Gated restarted = new Gated();
+        restarted.release();
+        AnalysisJobService again = jobs(restarted, 10, Duration.ofDays(7));
+        try {
+            AnalysisJob reloaded = again.get(done.getJobId());
+            assertEquals(JobState.SUCCEEDED, reloaded.getState());
+            assertEquals(1, again.result(done.getJobId()).getTopErrorSignatures().size());
+
+            AnalysisJob rerun = await(again, interrupted);
+            assertEquals(JobState.SUCCEEDED, rerun.getState());
+            assertEquals(2, rerun.getAttempts());
+            assertEquals(List.of("blocker"), restarted.started);
+        } finally {
+            again.shutdown();
+        }
+    }
+
+    @Test
+    void shouldFailAJobInsteadOfRestartingItOnceItWasInterruptedMaxAttemptsTimes() throws Exception {
+        // each run is cut short by a shutdown while it's still RUNNING, as a JVM killed by the job would leave it
+        Gated firstRun = new Gated();
+        AnalysisJobService first = jobs(firstRun, 10, Duration.ofDays(7), 2);
+        AnalysisJob job = submit(first, "blocker", "normal", 10);
+        firstRun.awaitBlocked();
+        first.shutdown();
+
+        Gated secondRun = new Gated();
+        AnalysisJobService second = jobs(secondRun, 10, Duration.ofDays(7), 2);
+        secondRun.awaitBlocked();
+        assertEquals(2, second.get(job.getJobId()).getAttempts());
+        second.shutdown();
+
+        Gated thirdRun = new Gated();
+        AnalysisJobService third = jobs(thirdRun, 10, Duration.ofDays(7), 2);
+        try {
+            AnalysisJob failed = third.get(job.getJobId());
+            assertEquals(JobState.FAILED, failed.getState());
+            assertTrue(failed.getError().contains("Interrupted 2 times"), failed.getError());
+            assertTrue(thirdRun.started.isEmpty());
+            assertThrows(JobNotFinishedException.class, () -> third.result(job.getJobId()));
+        } finally {
+            thirdRun.release();
+            third.shutdown();
+        }
+    }
+
+    @Test
+    void shouldExpireFinishedJobsAfterRetention() throws Exception {
+        Gated analysis = new Gated();
+        analysis.release();
+        AnalysisJobService jobs = jobs(analysis, 10, Duration.ofDays(7));
+        AnalysisJob done = submit(jobs, "done", "normal", 10);
+        await(jobs, done);
+        jobs.shutdown();
+        Thread.sleep(5);
+
+        AnalysisJobService again = jobs(analysis, 10, Duration.ofMillis(1));
+        try {
+            assertThrows(NotFoundException.class, () -> again.get(done.getJobId()));
+            assertFalse(Files.exists(dir.resolve("jobs").resolve(done.getJobId())));
+        } finally {
+            again.shutdown();
+        }
+    }
+
+    @Test
+    void shouldOnlyReadServerPathsUnderAllowedDirs() throws Exception {
+        Path allowed = Files.createDirectories(dir.resolve("allowed"));
+        Path outside = Files.writeString(dir.resolve("secret.log"), "ERROR java.lang.IllegalStateException: secret\n");
+        Path inside = Files.writeString(allowed.resolve("app.log"), "ERROR java.lang.IllegalStateException: boom\n");
+        Path link = allowed.resolve("link.log");
+        Files.createSymbolicLink(link, outside);
+
+        Gated analysis = new Gated();
+        analysis.release();
+        AnalysisJobService jobs = new AnalysisJobService(analysis, dir.resolve("jobs").toString(), 1, 10,
+                DataSize.ofKilobytes(64), DataSize.ofGigabytes(1), DataSize.ofGigabytes(1),
+                List.of(allowed.toString()), Duration.ofDays(7), 3);
+        try {
+            assertEquals(JobState.SUCCEEDED, await(jobs, jobs.submitPath(inside.toString(), null, null)).getState());
+
+            assertThrows(IllegalArgumentException.class, () -> jobs.submitPath(outside.toString(), null, null));
+            assertThrows(IllegalArgumentException.class, () -> jobs.submitPath(allowed + "/../secret.log", null, null));
+            // the link is inside, its target isn't
+            assertThrows(IllegalArgumentException.class, () -> jobs.submitPath(link.toString(), null, null));
+        } finally {
+            jobs.shutdown();
+        }
+
+        AnalysisJobService noPaths = jobs(analysis, 10, Duration.ofDays(7));
+        try {
+            assertThrows(IllegalArgumentException.class, () -> noPaths.submitPath(inside.toString(), null, null));
+        } finally {
+            noPaths.shutdown();
+        }
+    }
+
+    @Test
+    void shouldStartWithoutJobsWhenStoreCannotBeOpened() throws Exception {
+        Files.writeString(dir.resolve("jobs"), "");
+        AnalysisJobService jobs = jobs(new Gated(), 10, Duration.ofDays(7));
+        try {
+            assertThrows(FeatureUnavailableException.class, () -> jobs.list(10));
+            assertThrows(FeatureUnavailableException.class, () -> submit(jobs, "job", "normal", 10));
+        } finally {
+            jobs.shutdown();
+        }
+    }
+
+    private AnalysisJobService jobs(Gated analysis, int maxQueued, Duration retention) {
+        return jobs(analysis, maxQueued, retention, 3);
+    }
+
+    private AnalysisJobService jobs(Gated analysis, int maxQueued, Duration retention, int maxAttempts) {
+        return new AnalysisJobService(analysis, dir.resolve("jobs").toString(), 1, maxQueued,
+                DataSize.ofKilobytes(64), DataSize.ofGigabytes(1), DataSize.ofGigabytes(1), List.of(), retention, maxAttempts);
+    }
+
+    // "job <name>" on the first line, one error, then `lines` filler lines (3000 are about three 64 KB chunks)
+    private static AnalysisJob submit(AnalysisJobService jobs, String name, String priority, int lines) throws IOException {
+        StringBuilder log = new StringBuilder("job ").append(name).append('\n');
+        log.append("2026-03-18 10:00:00 ERROR java.lang.IllegalStateException: boom\n");
+        for (int i = 0; i < lines; i++) {
+            log.append("2026-03-18 10:00:01 INFO request ").append(i).append(" handled in 12 ms by worker-7\n");
+        }
+        byte[] body = log.toString().getBytes(StandardCharsets.UTF_8);
+        return jobs.submitUpload(new ByteArrayInputStream(body), name + ".log", priority, null);
+    }
+
+    private static AnalysisJob await(AnalysisJobService jobs, AnalysisJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            AnalysisJob s = jobs.get(job.getJobId());
+            if (s.getState().isFinished()) return s;
+            Thread.sleep(10);
+        }
+        fail("Job " + job.getSource() + " did not finish");
+        return null;
+    }
+
+    // Real analysis (rules + local classifier, no remote AI); the first chunk of the "blocker" job
+    // waits until release(). started: the jobs in the order their first chunk was scanned.
+    private static final class Gated extends LogAnalysisService {
+        final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch gate = new CountDownLatch(1);
+        private volatile CountDownLatch blocked = new CountDownLatch(1);
+
+        Gated() throws IOException {
+            super(new AiRouter(WebClient.builder(), new StandardEnvironment(), "local", 1, 1, 0, 0,
+                            Duration.ofSeconds(1), Duration.ofMinutes(1)),
+                    new AiLogAnalyzer(new ClassPathResource("incidents/corpus.jsonl")),
+                    new AnalysisStore(20, 60, DataSize.ofMegabytes(64)),
+                    new IncidentService(false, "unused", 5, 0.3),
+                    "local", 0.25, 1024,
+                    RuleBasedLogAnalyzer.DEFAULT_HOST_PATTERN, RuleBasedLogAnalyzer.DEFAULT_USER_PATTERN);
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+            blocked = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS), "blocker did not start");
+        }
+
+        @Override
+        public LogScan scanChunk(AnalyzedLog chunk, LogFormat format) {
+            String first = chunk.line(0);
+            if (first.startsWith("job ")) {
+                String name = first.substring(4);
+                started.add(name);
+                if (name.equals("blocker")) {
+                    blocked.countDown();
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("interrupted", e);
+                    }
+                }
+            }
+            return super.scanChunk(chunk, format);
+        }
+    }
+}
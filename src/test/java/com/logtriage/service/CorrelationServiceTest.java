@@ -0,0 +1,55 @@
+package com.logtriage.service;
+
+import com.logtriage.model.CorrelationResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldCorrelateServerPathsUnderAllowedDirs() throws Exception {
+        Path logs = Files.createDirectories(dir.resolve("logs"));
+        Path gateway = Files.writeString(logs.resolve("gateway.log"),
+                "2026-03-18 10:00:03.000 ERROR requestId=req-000042 upstream orders returned 500\n");
+        Path orders = logs.resolve("orders.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(orders))) {
+            out.write(("2026-03-18 10:00:01.000 INFO orders started\n"
+                    + "2026-03-18 10:00:02.000 ERROR requestId=req-000042 java.sql.SQLException: pool exhausted\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        Path outside = Files.writeString(dir.resolve("other.log"), "2026-03-18 10:00:00.000 INFO ok\n");
+
+        AnalysisJobService jobs = new AnalysisJobService(null, dir.resolve("jobs").toString(), 1, 10,
+                DataSize.ofMegabytes(8), DataSize.ofGigabytes(1), DataSize.ofGigabytes(1),
+                List.of(logs.toString()), Duration.ofDays(7), 3);
+        try {
+            CorrelationService service = new CorrelationService(jobs, 100, 100, DataSize.ofMegabytes(1));
+
+            CorrelationResponse r = service.correlatePaths(List.of(gateway.toString(), orders.toString()), 10, 10);
+            assertEquals(List.of("orders", "gateway"), r.getFailureOrder());
+            assertEquals(Long.valueOf(1000), r.getServices().get(0).getFirstErrorOffsetMs());
+            assertEquals("req-000042", r.getSharedIds().get(0).getId());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.correlatePaths(List.of(gateway.toString(), outside.toString()), 10, 10));
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.correlatePaths(List.of(gateway.toString()), 10, 10));
+        } finally {
+            jobs.shutdown();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.logtriage.service;
+
+import com.logtriage.model.ErrorSignature;
+import com.logtriage.model.LogAnalysisResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncidentServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRecordWithoutLookingUpSimilarIncidentsWhenNotAsked() throws IOException {
+        IncidentService service = new IncidentService(true, dir.resolve("incidents").toString(), 5, 0.3);
+        try {
+            LogAnalysisResponse first = poolExhausted();
+            service.matchAndRecord(first);
+            assertNotNull(first.getIncidentId());
+
+            LogAnalysisResponse recordOnly = poolExhausted();
+            service.matchAndRecord(recordOnly, false);
+            assertNotNull(recordOnly.getIncidentId());
+            assertTrue(recordOnly.getSimilarIncidents().isEmpty());
+
+            LogAnalysisResponse matched = poolExhausted();
+            service.matchAndRecord(matched);
+            assertEquals(2, matched.getSimilarIncidents().size());
+        } finally {
+            service.close();
+        }
+    }
+
+    @Test
+    void shouldStartWithoutIndexWhenDirCannotBeOpened() throws IOException {
+        // a file where the index directory should be
+        Path notADir = Files.writeString(dir.resolve("incidents"), "");
+        IncidentService service = new IncidentService(true, notADir.toString(), 5, 0.3);
+
+        LogAnalysisResponse r = new LogAnalysisResponse();
+        r.setTopErrorSignatures(List.of(new ErrorSignature()));
+        service.matchAndRecord(r);
+        assertNull(r.getIncidentId());
+
+        FeatureUnavailableException e = assertThrows(FeatureUnavailableException.class, () -> service.get(1));
+        assertTrue(e.getMessage().contains("unavailable"), e.getMessage());
+        service.close();
+    }
+
+    private static LogAnalysisResponse poolExhausted() {
+        ErrorSignature signature = new ErrorSignature();
+        signature.setExceptionType("java.sql.SQLTransientConnectionException");
+        signature.setMessage("HikariPool-1 - Connection is not available, request timed out after 30000ms.");
+        LogAnalysisResponse r = new LogAnalysisResponse();
+        r.setTopErrorSignatures(List.of(signature));
+        return r;
+    }
+}
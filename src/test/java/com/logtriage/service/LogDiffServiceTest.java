@@ -0,0 +1,128 @@
+package com.logtriage.service;
+
+import com.logtriage.ingest.LogInput;
+import com.logtriage.model.DiffQuery;
+import com.logtriage.model.LogDiffResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogDiffServiceTest {
+
+    private static final String BEFORE = "2026-03-18 10:00:00 ERROR java.net.SocketTimeoutException: Read timed out\n";
+    private static final String AFTER = BEFORE + "2026-03-18 11:00:00 ERROR java.lang.IllegalStateException: cache warmup incomplete\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldReadAfterOnTheCallingThreadSoConcurrentDiffsDontQueue() throws Exception {
+        // one pool thread, two diffs at once: the second still completes while the first holds it
+        LogDiffService diffs = new LogDiffService(null, 1000, DataSize.ofMegabytes(1), 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        Map<String, String> readBy = new ConcurrentHashMap<>();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            LogInput slowBefore = new LogInput("before.log", () -> {
+                readBy.put("slow-before", Thread.currentThread().getName());
+                await(release);
+                return stream(BEFORE);
+            });
+            Future<LogDiffResponse> slow = callers.submit(() -> diffs.diff(List.of(slowBefore), List.of(input(AFTER)), new DiffQuery()));
+
+            LogInput after = new LogInput("after.log", () -> {
+                readBy.put("after", Thread.currentThread().getName());
+                return stream(AFTER);
+            });
+            Future<LogDiffResponse> fast = callers.submit(() -> diffs.diff(List.of(input(BEFORE)), List.of(after), new DiffQuery()));
+
+            // the fast diff's before side queues behind the slow one; its after side doesn't
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!readBy.containsKey("after") && System.nanoTime() < deadline) Thread.sleep(5);
+            assertTrue(readBy.get("after").startsWith("pool-"), readBy.toString());
+            assertEquals("log-diff", readBy.get("slow-before"));
+
+            release.countDown();
+            assertEquals(1, fast.get(5, TimeUnit.SECONDS).getNewSignatures().size());
+            assertEquals(1, slow.get(5, TimeUnit.SECONDS).getNewSignatures().size());
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+            diffs.shutdown();
+        }
+    }
+
+    @Test
+    void shouldDiffServerPathsUnderAllowedDirs() throws Exception {
+        Path logs = Files.createDirectories(dir.resolve("logs"));
+        Path before = Files.writeString(logs.resolve("pre.log"), BEFORE);
+        Path after = logs.resolve("post.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(after))) {
+            out.write(AFTER.getBytes(StandardCharsets.UTF_8));
+        }
+        Path both = Files.writeString(logs.resolve("app.log"), AFTER);
+        Path outside = Files.writeString(dir.resolve("other.log"), BEFORE);
+
+        AnalysisJobService jobs = new AnalysisJobService(null, dir.resolve("jobs").toString(), 1, 10,
+                DataSize.ofMegabytes(8), DataSize.ofGigabytes(1), DataSize.ofGigabytes(1),
+                List.of(logs.toString()), Duration.ofDays(7), 3);
+        LogDiffService diffs = new LogDiffService(jobs, 1000, DataSize.ofMegabytes(1), 1);
+        try {
+            LogDiffResponse r = diffs.diffPaths(before.toString(), after.toString(), null, new DiffQuery());
+            assertEquals("IllegalStateException", r.getNewSignatures().get(0).getExceptionType());
+
+            DiffQuery ranges = new DiffQuery();
+            ranges.setBeforeFrom("2026-03-18 10:00");
+            ranges.setBeforeTo("2026-03-18 10:59");
+            ranges.setAfterFrom("2026-03-18 11:00");
+            ranges.setAfterTo("2026-03-18 11:59");
+            assertEquals(1, diffs.diffPaths(null, null, both.toString(), ranges).getNewSignatures().size());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> diffs.diffPaths(before.toString(), outside.toString(), null, new DiffQuery()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> diffs.diffPaths(before.toString(), null, null, new DiffQuery()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> diffs.diffPaths(before.toString(), after.toString(), both.toString(), new DiffQuery()));
+        } finally {
+            diffs.shutdown();
+            jobs.shutdown();
+        }
+    }
+
+    private static LogInput input(String log) {
+        return new LogInput("app.log", () -> stream(log));
+    }
+
+    private static ByteArrayInputStream stream(String log) {
+        return new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.logtriage.store;
+
+import com.logtriage.engine.AnalyzedLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisStoreTest {
+
+    @Test
+    void shouldEvictLeastRecentlyUsedLogsToStayWithinMaxBytes() {
+        long size = log(1000).estimatedBytes();
+        // 100 KB of text: the estimate counts two bytes per char, plus line offsets
+        assertTrue(size > 200_000 && size < 250_000, "estimated " + size);
+
+        AnalysisStore store = new AnalysisStore(20, 60, DataSize.ofBytes(3 * size + size / 2));
+        String a = store.put(log(1000));
+        String b = store.put(log(1000));
+        String c = store.put(log(1000));
+        assertTrue(store.get(a).isPresent());
+
+        String d = store.put(log(1000));
+        assertTrue(store.get(b).isEmpty());
+        assertTrue(store.get(a).isPresent());
+        assertTrue(store.get(c).isPresent());
+        assertTrue(store.get(d).isPresent());
+        assertEquals(3 * size, store.bytes());
+
+        // one large log takes the place of several small ones
+        String large = store.put(log(2000));
+        assertTrue(store.get(large).isPresent());
+        assertTrue(store.get(a).isEmpty());
+        assertTrue(store.get(c).isEmpty());
+        assertTrue(store.get(d).isPresent());
+        assertTrue(store.bytes() <= 3 * size + size / 2);
+    }
+
+    @Test
+    void shouldNotKeepLogsLargerThanTheWholeBudget() {
+        long size = log(1000).estimatedBytes();
+        AnalysisStore store = new AnalysisStore(20, 60, DataSize.ofBytes(2 * size));
+        String small = store.put(log(1000));
+
+        assertNull(store.put(log(3000)));
+        assertTrue(store.get(small).isPresent());
+        assertEquals(size, store.bytes());
+    }
+
+    @Test
+    void shouldStillBoundTheNumberOfEntries() {
+        AnalysisStore store = new AnalysisStore(2, 60, DataSize.ofGigabytes(1));
+        String a = store.put(log(10));
+        String b = store.put(log(10));
+        String c = store.put(log(10));
+
+        assertTrue(store.get(a).isEmpty());
+        assertTrue(store.get(b).isPresent());
+        assertTrue(store.get(c).isPresent());
+        assertEquals(2 * log(10).estimatedBytes(), store.bytes());
+    }
+
+    // lines of 100 chars, as left by the analyzer scan
+    private static AnalyzedLog log(int lines) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String line = "2026-03-18 10:00:00 INFO request " + i + " handled";
+            text.append(line).append(".".repeat(99 - line.length())).append('\n');
+        }
+        AnalyzedLog log = new AnalyzedLog(text.toString());
+        log.finishIndexing();
+        return log;
+    }
+}
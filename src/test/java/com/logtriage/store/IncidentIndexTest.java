@@ -0,0 +1,70 @@
+package com.logtriage.store;
+
+import com.logtriage.engine.IncidentFeatures;
+import com.logtriage.engine.MinHash;
+import com.logtriage.model.ErrorSignature;
+import com.logtriage.model.Incident;
+import com.logtriage.model.LogAnalysisResponse;
+import com.logtriage.model.SimilarIncident;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncidentIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRankSimilarIncidentsAndIgnoreUnrelatedOnes() throws IOException {
+        try (IncidentIndex index = IncidentIndex.open(dir)) {
+            long pool = index.add(new Incident(), sketch("Database connectivity issue",
+                    "java.sql.SQLTransientConnectionException", "HikariPool-1 - Connection is not available, request timed out after 30000ms."));
+            long npe = index.add(new Incident(), sketch("NullPointerException",
+                    "java.lang.NullPointerException", "Cannot invoke \"Customer.getId()\" because \"customer\" is null"));
+
+            List<SimilarIncident> matches = index.similar(sketch("Database connectivity issue",
+                    "java.sql.SQLTransientConnectionException", "HikariPool-2 - Connection is not available, request timed out after 5000ms."), 5, 0.3);
+
+            assertEquals(1, matches.size());
+            assertEquals(pool, matches.get(0).getIncident().getIncidentId());
+            assertEquals(1.0, matches.get(0).getSimilarity());
+            assertNotEquals(pool, npe);
+        }
+    }
+
+    @Test
+    void shouldKeepIncidentsAndResolutionsAcrossReopen() throws IOException {
+        int[] sketch = sketch("Network/timeout", "java.net.SocketTimeoutException", "Read timed out");
+        long id;
+        try (IncidentIndex index = IncidentIndex.open(dir)) {
+            for (int i = 0; i < 1500; i++) {
+                index.add(new Incident(), sketch("Application error", "com.acme.Failure" + i + "Exception", "boom " + i));
+            }
+            id = index.add(new Incident(), sketch);
+            index.resolve(id, "OPS-42", "Raised the client read timeout to 10s");
+        }
+
+        try (IncidentIndex index = IncidentIndex.open(dir)) {
+            assertEquals(1501, index.size());
+
+            SimilarIncident match = index.similar(sketch, 5, 0.5).get(0);
+            assertEquals(id, match.getIncident().getIncidentId());
+            assertEquals("OPS-42", match.getIncident().getTicketRef());
+            assertEquals("Raised the client read timeout to 10s", index.get(id).orElseThrow().getResolution());
+            assertTrue(index.get(5000).isEmpty());
+        }
+    }
+
+    private static int[] sketch(String issue, String type, String message) {
+        LogAnalysisResponse r = new LogAnalysisResponse();
+        r.getDetectedIssues().add(issue);
+        r.getTopErrorSignatures().add(new ErrorSignature(type, message, 1));
+        return MinHash.sketch(IncidentFeatures.of(r));
+    }
+}